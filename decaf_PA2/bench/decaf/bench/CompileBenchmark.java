@@ -0,0 +1,66 @@
+package decaf.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import decaf.Compiler;
+import decaf.Option;
+import decaf.Source;
+
+/**
+ * 端到端的编译延迟（-l 0输出语法树，-l 1输出符号表），输出被丢弃
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompileBenchmark {
+
+	@Param( { "S2", "synthetic-10", "synthetic-100" })
+	public String corpus;
+
+	@Param( { "0", "1" })
+	public String level;
+
+	private List<byte[]> programs;
+
+	private Compiler compiler;
+
+	private static final OutputStream DISCARD = new OutputStream() {
+
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+
+	};
+
+	@Setup
+	public void load() throws IOException {
+		Option.Level l = Option.Level.valueOf("LEVEL" + level);
+		programs = Corpus.load(corpus, l);
+		compiler = new Compiler(new Option(l));
+	}
+
+	@Benchmark
+	public void compile(Blackhole bh) {
+		for (byte[] program : programs) {
+			bh.consume(compiler.compile(Source.fromBytes(corpus, program),
+					DISCARD));
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package decaf.bench;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import decaf.Option;
+import decaf.Source;
+
+/**
+ * 基准测试使用的输入程序<br>
+ * "S2"表示TestCases/S2下的全部测试程序（目录可以用系统属性decaf.bench.corpus指定），
+ * "synthetic-N"表示一个由WorkloadGenerator生成的有N个类的程序。
+ */
+public final class Corpus {
+
+	private static final String CORPUS_DIR = System.getProperty(
+			"decaf.bench.corpus", "TestCases/S2");
+
+	private Corpus() {
+	}
+
+	/**
+	 * 载入一组输入程序
+	 * 
+	 * @param name
+	 *            "S2"或者"synthetic-N"
+	 * @param level
+	 *            不为null时只保留在这一级别上编译没有错误的程序
+	 * @return 各个程序的内容
+	 */
+	public static List<byte[]> load(String name, Option.Level level)
+			throws IOException {
+		List<byte[]> programs = new ArrayList<byte[]>();
+		if (name.startsWith("synthetic-")) {
+			int classes = Integer.parseInt(name.substring("synthetic-"
+					.length()));
+			programs.add(new WorkloadGenerator().classes(classes).level(
+					level == null ? Option.Level.LEVEL0 : level).generate()
+					.getBytes());
+		} else if (name.equals("S2")) {
+			File[] files = new File(CORPUS_DIR).listFiles(new FilenameFilter() {
+
+				@Override
+				public boolean accept(File dir, String name) {
+					return name.endsWith(".decaf");
+				}
+
+			});
+			if (files == null) {
+				throw new IOException("corpus directory " + CORPUS_DIR
+						+ " not found");
+			}
+			Arrays.sort(files);
+			for (File file : files) {
+				programs.add(read(file));
+			}
+		} else {
+			throw new IllegalArgumentException("unknown corpus " + name);
+		}
+		if (level != null) {
+			List<byte[]> valid = new ArrayList<byte[]>();
+			for (byte[] program : programs) {
+				if (decaf.Compiler.compile(Source.fromBytes(name, program),
+						level).isSuccess()) {
+					valid.add(program);
+				}
+			}
+			programs = valid;
+		}
+		return programs;
+	}
+
+	private static byte[] read(File file) throws IOException {
+		byte[] content = new byte[(int) file.length()];
+		InputStream in = new FileInputStream(file);
+		try {
+			int n = 0;
+			while (n < content.length) {
+				int r = in.read(content, n, content.length - n);
+				if (r < 0) {
+					break;
+				}
+				n += r;
+			}
+		} finally {
+			in.close();
+		}
+		return content;
+	}
+}
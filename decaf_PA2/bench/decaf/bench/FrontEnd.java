@@ -0,0 +1,76 @@
+package decaf.bench;
+
+import java.io.ByteArrayInputStream;
+
+import decaf.CompilationContext;
+import decaf.Option;
+import decaf.Source;
+import decaf.frontend.Lexer;
+import decaf.frontend.Parser;
+import decaf.tree.Tree;
+import decaf.typecheck.BuildSym;
+
+/**
+ * 基准测试中直接驱动编译器各阶段的辅助函数
+ */
+final class FrontEnd {
+
+	static final Option OPTION = new Option(Option.Level.LEVEL1);
+
+	private FrontEnd() {
+	}
+
+	/**
+	 * @param direct
+	 *            为true时像Compiler一样先解码再直接扫描字符数组，否则经过Reader读入
+	 */
+	static Lexer lexer(byte[] program, boolean direct,
+			CompilationContext context) {
+		Lexer lexer = newLexer(program, direct);
+		connect(lexer, new Parser(), context);
+		return lexer;
+	}
+
+	static Parser parser(byte[] program, CompilationContext context) {
+		Parser parser = new Parser();
+		connect(newLexer(program, true), parser, context);
+		return parser;
+	}
+
+	private static Lexer newLexer(byte[] program, boolean direct) {
+		if (!direct) {
+			return new Lexer(new ByteArrayInputStream(program));
+		}
+		Source source = Source.fromBytes("bench", program);
+		return new Lexer(source.getChars(), source.getLength());
+	}
+
+	private static void connect(Lexer lexer, Parser parser,
+			CompilationContext context) {
+		lexer.setParser(parser);
+		lexer.setContext(context);
+		parser.setLexer(lexer);
+		parser.setContext(context);
+	}
+
+	static Tree.TopLevel parse(byte[] program, CompilationContext context) {
+		return parser(program, context).parseFile();
+	}
+
+	/**
+	 * @param pipelined
+	 *            是否在单独的线程中做词法分析
+	 */
+	static Tree.TopLevel parse(byte[] program, boolean pipelined,
+			CompilationContext context) {
+		Parser parser = parser(program, context);
+		parser.setPipelined(pipelined);
+		return parser.parseFile();
+	}
+
+	static Tree.TopLevel buildSymbols(byte[] program, CompilationContext context) {
+		Tree.TopLevel tree = parse(program, context);
+		BuildSym.buildSymbol(tree, context);
+		return tree;
+	}
+}
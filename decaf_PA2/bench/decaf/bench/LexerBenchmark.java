@@ -0,0 +1,81 @@
+package decaf.bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import decaf.CompilationContext;
+import decaf.frontend.Lexer;
+import decaf.frontend.TokenBuffer;
+
+/**
+ * Lexer.yylex的吞吐量，辅助计数器tokens给出每秒识别的单词数<br>
+ * input为reader时经过InputStreamReader读入，为chars时先解码再直接扫描（编译器的做法），
+ * 两者的差就是省掉的复制和缓冲区管理。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LexerBenchmark {
+
+	@Param( { "S2", "synthetic-10", "synthetic-100" })
+	public String corpus;
+
+	@Param( { "reader", "chars" })
+	public String input;
+
+	private List<byte[]> programs;
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Tokens {
+
+		public long tokens;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			tokens = 0;
+		}
+	}
+
+	@Setup
+	public void load() throws IOException {
+		programs = Corpus.load(corpus, null);
+	}
+
+	@Benchmark
+	public void yylex(Tokens counter) throws IOException {
+		for (byte[] program : programs) {
+			Lexer lexer = FrontEnd.lexer(program, input.equals("chars"),
+					new CompilationContext(FrontEnd.OPTION));
+			while (lexer.yylex() != 0) {
+				counter.tokens++;
+			}
+		}
+	}
+
+	/**
+	 * 把全部单词识别到TokenBuffer中（-token-buffer），用-prof gc与yylex比较每个单词的分配量
+	 */
+	@Benchmark
+	public void scan(Tokens counter, Blackhole bh) {
+		for (byte[] program : programs) {
+			TokenBuffer tokens = TokenBuffer.scan(FrontEnd.lexer(program, input
+					.equals("chars"), new CompilationContext(FrontEnd.OPTION)));
+			counter.tokens += tokens.size();
+			bh.consume(tokens);
+		}
+	}
+}
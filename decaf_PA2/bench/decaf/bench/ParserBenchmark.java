@@ -0,0 +1,62 @@
+package decaf.bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import decaf.CompilationContext;
+import decaf.utils.Counters;
+
+/**
+ * Parser.yyparse（包括它驱动的词法分析）的吞吐量，辅助计数器nodes给出每秒构造的语法树结点数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParserBenchmark {
+
+	@Param( { "S2", "synthetic-10", "synthetic-100" })
+	public String corpus;
+
+	private List<byte[]> programs;
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Nodes {
+
+		public long nodes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			nodes = 0;
+		}
+	}
+
+	@Setup
+	public void load() throws IOException {
+		programs = Corpus.load(corpus, null);
+		Counters.enable();
+	}
+
+	@Benchmark
+	public void yyparse(Nodes counter, Blackhole bh) {
+		long before = Counters.snapshot()[Counters.TREE];
+		for (byte[] program : programs) {
+			bh.consume(FrontEnd.parse(program, new CompilationContext(
+					FrontEnd.OPTION)));
+		}
+		counter.nodes += Counters.snapshot()[Counters.TREE] - before;
+	}
+}
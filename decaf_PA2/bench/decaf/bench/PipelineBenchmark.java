@@ -0,0 +1,50 @@
+package decaf.bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import decaf.CompilationContext;
+
+/**
+ * 同步方式与流水线方式（-pipeline）的语法分析时间<br>
+ * 流水线方式多了启动线程和经环形缓冲区传递单词的开销，只有输入足够大、并且有空闲的处理器时才更快；
+ * 比较各个corpus上两种mode的结果就能看出分界点。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PipelineBenchmark {
+
+	@Param( { "S2", "synthetic-10", "synthetic-100", "synthetic-1000" })
+	public String corpus;
+
+	@Param( { "sync", "pipelined" })
+	public String mode;
+
+	private List<byte[]> programs;
+
+	@Setup
+	public void load() throws IOException {
+		programs = Corpus.load(corpus, null);
+	}
+
+	@Benchmark
+	public void parseFile(Blackhole bh) {
+		boolean pipelined = mode.equals("pipelined");
+		for (byte[] program : programs) {
+			bh.consume(FrontEnd.parse(program, pipelined,
+					new CompilationContext(FrontEnd.OPTION)));
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package decaf.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import decaf.CompilationContext;
+import decaf.Option;
+import decaf.Source;
+import decaf.tree.Tree;
+import decaf.typecheck.TypeCheck;
+
+/**
+ * 作用域栈上的名字和作用域查找的耗时，用TypeCheck.checkType检查继承链和语句嵌套都较深的程序<br>
+ * 类型检查中大部分时间花在打开关闭作用域和查找名字上，两个深度越大，作用域栈越深。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScopeLookupBenchmark {
+
+	@Param( { "1", "4", "16" })
+	public int inheritanceDepth;
+
+	@Param( { "1", "3" })
+	public int nestingDepth;
+
+	private byte[] program;
+
+	private Tree.TopLevel tree;
+
+	private CompilationContext context;
+
+	@Setup
+	public void generate() {
+		program = new WorkloadGenerator().classes(32).inheritanceDepth(
+				inheritanceDepth).nestingDepth(nestingDepth).methods(2)
+				.extensions(false).generate().getBytes();
+		if (!decaf.Compiler.compile(Source.fromBytes("scope", program),
+				Option.Level.LEVEL1).isSuccess()) {
+			throw new IllegalStateException(
+					"generated program does not pass level 1");
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void buildSymbols() {
+		context = new CompilationContext(FrontEnd.OPTION);
+		tree = FrontEnd.buildSymbols(program, context);
+	}
+
+	@Benchmark
+	public void checkType() {
+		TypeCheck.checkType(tree, context);
+	}
+}
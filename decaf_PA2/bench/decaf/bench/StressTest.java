@@ -0,0 +1,155 @@
+package decaf.bench;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import decaf.CompileResult;
+import decaf.Option;
+import decaf.Source;
+
+/**
+ * 压力测试：逐个增大WorkloadGenerator的各个维度，记录编译时间和堆内存的峰值<br>
+ * 用法：java decaf.bench.StressTest [-l LEVEL] [-runs N] [-budget SECONDS] [DIMENSION ...]<br>
+ * DIMENSION可以是classes、depth、methods、nesting、expression或errors，缺省为全部。
+ * 每个维度从一个小的规模开始加倍，直到达到上限或者一次编译超过时间预算。
+ * 结果以CSV格式写到标准输出，每行为：维度,取值,源程序字节数,错误数,毫秒,堆峰值(KB)。
+ */
+public final class StressTest {
+
+	private static final String[] DIMENSIONS = { "classes", "depth",
+			"methods", "nesting", "expression", "errors" };
+
+	/**
+	 * 增大继承深度和错误个数时使用的类的个数
+	 */
+	private static final int FIXED_CLASSES = 256;
+
+	private static final OutputStream DISCARD = new OutputStream() {
+
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+
+	};
+
+	private Option.Level level = Option.Level.LEVEL1;
+
+	private int runs = 3;
+
+	private long budget = 10L * 1000000000L;
+
+	private decaf.Compiler compiler;
+
+	private List<MemoryPoolMXBean> heapPools = new ArrayList<MemoryPoolMXBean>();
+
+	private StressTest() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				heapPools.add(pool);
+			}
+		}
+	}
+
+	public static void main(String[] args) {
+		StressTest test = new StressTest();
+		List<String> dimensions = new ArrayList<String>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-l") && i + 1 < args.length) {
+				test.level = Option.Level.valueOf("LEVEL" + args[++i]);
+			} else if (args[i].equals("-runs") && i + 1 < args.length) {
+				test.runs = Math.max(1, Integer.parseInt(args[++i]));
+			} else if (args[i].equals("-budget") && i + 1 < args.length) {
+				test.budget = Long.parseLong(args[++i]) * 1000000000L;
+			} else if (Arrays.asList(DIMENSIONS).contains(args[i])) {
+				dimensions.add(args[i]);
+			} else {
+				System.err.println("unknown argument " + args[i]);
+				System.exit(2);
+			}
+		}
+		if (dimensions.isEmpty()) {
+			dimensions.addAll(Arrays.asList(DIMENSIONS));
+		}
+		test.compiler = new decaf.Compiler(new Option(test.level));
+		test.warmUp();
+		System.out.println("dimension,value,bytes,errors,ms,peak_heap_kb");
+		for (String dimension : dimensions) {
+			test.grow(dimension);
+		}
+	}
+
+	private void warmUp() {
+		String program = new WorkloadGenerator().classes(20).level(level)
+				.generate();
+		for (int i = 0; i < 20; i++) {
+			compile(program);
+		}
+	}
+
+	/**
+	 * 加倍增大一个维度，其他维度保持WorkloadGenerator的缺省值
+	 */
+	private void grow(String dimension) {
+		int first = dimension.equals("nesting") ? 0 : 1;
+		int limit = dimension.equals("nesting") ? 12 : dimension
+				.equals("depth")
+				|| dimension.equals("errors") ? FIXED_CLASSES : 4096;
+		for (int value = first; value <= limit; value = dimension
+				.equals("nesting") ? value + 1 : value * 2) {
+			WorkloadGenerator generator = new WorkloadGenerator().level(level);
+			if (dimension.equals("classes")) {
+				generator.classes(value);
+			} else if (dimension.equals("depth")) {
+				generator.classes(FIXED_CLASSES).inheritanceDepth(value);
+			} else if (dimension.equals("methods")) {
+				generator.methods(value);
+			} else if (dimension.equals("nesting")) {
+				generator.statements(2).nestingDepth(value);
+			} else if (dimension.equals("expression")) {
+				generator.expressionLength(value);
+			} else {
+				generator.classes(FIXED_CLASSES).errors(value);
+			}
+			String program = generator.generate();
+			long best = Long.MAX_VALUE;
+			long peak = 0;
+			int errors = 0;
+			for (int i = 0; i < runs; i++) {
+				System.gc();
+				for (MemoryPoolMXBean pool : heapPools) {
+					pool.resetPeakUsage();
+				}
+				long start = System.nanoTime();
+				CompileResult result = compile(program);
+				long time = System.nanoTime() - start;
+				long used = 0;
+				for (MemoryPoolMXBean pool : heapPools) {
+					used += pool.getPeakUsage().getUsed();
+				}
+				best = Math.min(best, time);
+				peak = Math.max(peak, used);
+				errors = result.getErrors().size();
+			}
+			System.out.println(dimension + "," + value + ","
+					+ program.length() + "," + errors + ","
+					+ String.format("%.3f", best / 1e6) + "," + peak / 1024);
+			if (best > budget) {
+				break;
+			}
+		}
+	}
+
+	private CompileResult compile(String program) {
+		return compiler.compile(Source.fromBytes("stress", program.getBytes()),
+				DISCARD);
+	}
+}
@@ -0,0 +1,60 @@
+package decaf.bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import decaf.CompilationContext;
+import decaf.Option;
+import decaf.tree.Tree;
+import decaf.typecheck.TypeCheck;
+
+/**
+ * TypeCheck.checkType的耗时，每次调用前重新做语法分析和符号表构造
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TypeCheckBenchmark {
+
+	@Param( { "S2", "synthetic-10", "synthetic-100" })
+	public String corpus;
+
+	private List<byte[]> programs;
+
+	private Tree.TopLevel[] trees;
+
+	private CompilationContext[] contexts;
+
+	@Setup
+	public void load() throws IOException {
+		programs = Corpus.load(corpus, Option.Level.LEVEL1);
+		trees = new Tree.TopLevel[programs.size()];
+		contexts = new CompilationContext[programs.size()];
+	}
+
+	@Setup(Level.Invocation)
+	public void buildSymbols() {
+		for (int i = 0; i < trees.length; i++) {
+			contexts[i] = new CompilationContext(FrontEnd.OPTION);
+			trees[i] = FrontEnd.buildSymbols(programs.get(i), contexts[i]);
+		}
+	}
+
+	@Benchmark
+	public void checkType() {
+		for (int i = 0; i < trees.length; i++) {
+			TypeCheck.checkType(trees[i], contexts[i]);
+		}
+	}
+}
@@ -0,0 +1,378 @@
+package decaf.bench;
+
+import java.util.Random;
+
+import decaf.Option;
+
+/**
+ * 生成规模可调的Decaf程序，作为基准测试和压力测试的输入<br>
+ * 可以调节的维度有：类的个数、继承链的深度、每个类的方法数、语句的嵌套深度、表达式的长度、
+ * 是否使用扩展的语法（scopy、sealed、卫式if、var、%%、++、数组切片、default、
+ * 数组推导式和foreach），以及人为植入的语义错误的个数。<br>
+ * 同样的参数和随机种子总是生成同样的程序。
+ */
+public final class WorkloadGenerator {
+
+	private int classes = 10;
+
+	private int inheritanceDepth = 4;
+
+	private int methods = 2;
+
+	private int statements = 3;
+
+	private int nestingDepth = 2;
+
+	private int expressionLength = 4;
+
+	private boolean extensions = true;
+
+	private Option.Level level = Option.Level.LEVEL1;
+
+	private int errors;
+
+	private long seed = 1;
+
+	private Random random;
+
+	private StringBuilder sb;
+
+	private int errorsLeft;
+
+	private int errorStride;
+
+	private int methodCount;
+
+	private int varCount;
+
+	/**
+	 * 除Main以外的类的个数
+	 */
+	public WorkloadGenerator classes(int classes) {
+		this.classes = classes;
+		return this;
+	}
+
+	/**
+	 * 每条继承链上类的个数，1表示没有继承
+	 */
+	public WorkloadGenerator inheritanceDepth(int depth) {
+		this.inheritanceDepth = Math.max(1, depth);
+		return this;
+	}
+
+	/**
+	 * 每个类的方法个数
+	 */
+	public WorkloadGenerator methods(int methods) {
+		this.methods = Math.max(1, methods);
+		return this;
+	}
+
+	/**
+	 * 每个语句块中的语句条数
+	 */
+	public WorkloadGenerator statements(int statements) {
+		this.statements = Math.max(1, statements);
+		return this;
+	}
+
+	/**
+	 * 复合语句（if、while、for、卫式if、foreach）的最大嵌套深度
+	 */
+	public WorkloadGenerator nestingDepth(int depth) {
+		this.nestingDepth = Math.max(0, depth);
+		return this;
+	}
+
+	/**
+	 * 算术表达式中操作数的个数
+	 */
+	public WorkloadGenerator expressionLength(int length) {
+		this.expressionLength = Math.max(1, length);
+		return this;
+	}
+
+	/**
+	 * 是否使用扩展的语法
+	 */
+	public WorkloadGenerator extensions(boolean extensions) {
+		this.extensions = extensions;
+		return this;
+	}
+
+	/**
+	 * 程序要通过的编译级别<br>
+	 * 符号表和类型检查还不支持sealed类、数组切片、++和数组推导式，这些构造只在LEVEL0的程序中生成。
+	 */
+	public WorkloadGenerator level(Option.Level level) {
+		this.level = level;
+		return this;
+	}
+
+	/**
+	 * 植入的语义错误（未声明的变量、不兼容的赋值）个数，在-l 1及以上级别报告
+	 */
+	public WorkloadGenerator errors(int errors) {
+		this.errors = Math.max(0, errors);
+		return this;
+	}
+
+	public WorkloadGenerator seed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	/**
+	 * @return 程序的源代码
+	 */
+	public String generate() {
+		random = new Random(seed);
+		sb = new StringBuilder();
+		errorsLeft = errors;
+		errorStride = errors == 0 ? 0 : Math.max(1, classes * methods / errors);
+		methodCount = 0;
+		varCount = 0;
+		for (int i = 0; i < classes; i++) {
+			classDef(i);
+		}
+		mainClass();
+		String program = sb.toString();
+		sb = null;
+		random = null;
+		return program;
+	}
+
+	private boolean parseOnly() {
+		return extensions && level == Option.Level.LEVEL0;
+	}
+
+	private boolean hasParent(int c) {
+		return c % inheritanceDepth != 0;
+	}
+
+	/**
+	 * 每条继承链最末端的类没有子类，可以声明为sealed
+	 */
+	private boolean isLeaf(int c) {
+		return c == classes - 1 || (c + 1) % inheritanceDepth == 0;
+	}
+
+	private void classDef(int c) {
+		if (parseOnly() && isLeaf(c)) {
+			sb.append("sealed ");
+		}
+		sb.append("class C").append(c);
+		if (hasParent(c)) {
+			sb.append(" extends C").append(c - 1);
+		}
+		sb.append(" {\n");
+		sb.append("    int f").append(c).append(";\n");
+		sb.append("    int[] a").append(c).append(";\n");
+		for (int m = 0; m < methods; m++) {
+			methodDef(c, m);
+		}
+		sb.append("}\n\n");
+	}
+
+	private void methodDef(int c, int m) {
+		sb.append("    int m").append(c).append('_').append(m).append(
+				"(int x, int y) {\n");
+		sb.append("        int s;\n");
+		sb.append("        int k;\n");
+		sb.append("        int[] arr;\n");
+		sb.append("        bool b;\n");
+		sb.append("        class C").append(c).append(" p;\n");
+		sb.append("        s = 0;\n");
+		sb.append("        b = true;\n");
+		sb.append("        p = this;\n");
+		if (extensions) {
+			sb.append("        arr = 0 %% x;\n");
+		} else {
+			sb.append("        arr = new int[x];\n");
+		}
+		for (int i = 0; i < statements; i++) {
+			stmt(c, 2, 0);
+		}
+		if (errorStride > 0 && errorsLeft > 0
+				&& methodCount % errorStride == 0) {
+			seedError(c);
+		}
+		methodCount++;
+		sb.append("        return s;\n");
+		sb.append("    }\n");
+	}
+
+	private void seedError(int c) {
+		if (errorsLeft % 2 == 0) {
+			sb.append("        undeclared").append(errorsLeft).append(
+					" = s;\n");
+		} else {
+			sb.append("        b = s + f").append(c).append(";\n");
+		}
+		errorsLeft--;
+	}
+
+	private void indent(int indent) {
+		for (int i = 0; i < indent; i++) {
+			sb.append("    ");
+		}
+	}
+
+	private void stmt(int c, int indent, int depth) {
+		if (depth < nestingDepth && random.nextInt(3) != 0) {
+			compoundStmt(c, indent, depth);
+		} else {
+			simpleStmt(c, indent);
+		}
+	}
+
+	private void block(int c, int indent, int depth) {
+		sb.append("{\n");
+		for (int i = 0; i < statements; i++) {
+			stmt(c, indent + 1, depth + 1);
+		}
+		indent(indent);
+		sb.append("}");
+	}
+
+	private void compoundStmt(int c, int indent, int depth) {
+		indent(indent);
+		switch (random.nextInt(extensions ? 5 : 3)) {
+		case 0:
+			sb.append("if (");
+			boolExpr(c);
+			sb.append(") ");
+			block(c, indent, depth);
+			sb.append(" else ");
+			block(c, indent, depth);
+			break;
+		case 1:
+			sb.append("while (s > ");
+			sb.append(random.nextInt(1000)).append(") ");
+			block(c, indent, depth);
+			break;
+		case 2:
+			sb.append("for (k = 0; k < x; k = k + 1) ");
+			block(c, indent, depth);
+			break;
+		case 3:
+			sb.append("if { s > k : ");
+			block(c, indent, depth);
+			sb.append(" ||| b : ");
+			block(c, indent, depth);
+			sb.append(" }");
+			break;
+		default:
+			sb.append("foreach (");
+			sb.append(random.nextBoolean() ? "var" : "int");
+			sb.append(" e").append(depth).append(" in arr");
+			if (random.nextBoolean()) {
+				sb.append(" while e").append(depth).append(" < y");
+			}
+			sb.append(") ");
+			block(c, indent, depth);
+			break;
+		}
+		sb.append("\n");
+	}
+
+	private void simpleStmt(int c, int indent) {
+		indent(indent);
+		int kinds = extensions ? (parseOnly() ? 7 : 5) : 3;
+		switch (random.nextInt(kinds)) {
+		case 0:
+			sb.append("s = ");
+			expr(c, expressionLength);
+			break;
+		case 1:
+			sb.append("b = ");
+			boolExpr(c);
+			break;
+		case 2:
+			sb.append("s = s + m").append(c).append('_').append(
+					random.nextInt(methods)).append("(k, ");
+			expr(c, expressionLength);
+			sb.append(")");
+			break;
+		case 3:
+			sb.append("scopy(p, this)");
+			break;
+		case 4:
+			sb.append("var v").append(varCount++).append(" = ");
+			expr(c, expressionLength);
+			break;
+		case 5:
+			sb.append("arr = arr[0:k] ++ arr");
+			break;
+		default:
+			sb.append("arr = [e * ").append(random.nextInt(10) + 1).append(
+					" for e in arr if e > s]");
+			break;
+		}
+		sb.append(";\n");
+	}
+
+	private void boolExpr(int c) {
+		expr(c, Math.max(1, expressionLength / 2));
+		sb.append(random.nextBoolean() ? " < " : " == ");
+		expr(c, Math.max(1, expressionLength / 2));
+		if (random.nextBoolean()) {
+			sb.append(random.nextBoolean() ? " && b" : " || !b");
+		}
+	}
+
+	private void expr(int c, int length) {
+		for (int i = 0; i < length; i++) {
+			if (i > 0) {
+				sb.append(" ").append("+-*/%".charAt(random.nextInt(5)))
+						.append(" ");
+			}
+			operand(c);
+		}
+	}
+
+	private void operand(int c) {
+		switch (random.nextInt(extensions ? 7 : 6)) {
+		case 0:
+			sb.append('s');
+			break;
+		case 1:
+			sb.append('k');
+			break;
+		case 2:
+			sb.append(random.nextBoolean() ? 'x' : 'y');
+			break;
+		case 3:
+			sb.append('f').append(hasParent(c) && random.nextBoolean() ? c - 1
+					: c);
+			break;
+		case 4:
+			sb.append(random.nextInt(100));
+			break;
+		case 5:
+			sb.append("(s - ").append(random.nextInt(10) + 1).append(")");
+			break;
+		default:
+			sb.append("arr[k] default ").append(random.nextInt(10));
+			break;
+		}
+	}
+
+	private void mainClass() {
+		sb.append("class Main {\n");
+		sb.append("    static void main() {\n");
+		for (int c = 0; c < classes; c++) {
+			sb.append("        class C").append(c).append(" c").append(c)
+					.append(";\n");
+		}
+		for (int c = 0; c < classes; c++) {
+			sb.append("        c").append(c).append(" = new C").append(c)
+					.append("();\n");
+			sb.append("        Print(c").append(c).append(".m").append(c)
+					.append("_0(").append(c + 1).append(", 2), \"\\n\");\n");
+		}
+		sb.append("    }\n");
+		sb.append("}\n");
+	}
+}
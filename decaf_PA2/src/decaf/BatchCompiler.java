@@ -0,0 +1,235 @@
+package decaf;
+
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import decaf.error.DecafError;
+
+/**
+ * 在一个虚拟机中并行编译大量互相独立的源程序<br>
+ * 每个源程序使用自己的CompilationContext（因而有自己的词法分析器、语法分析器和符号表），
+ * 在一个按处理器数目设定大小的work-stealing线程池上编译。
+ * 源程序NAME.decaf的输出和错误信息都写到输出目录中的NAME.result；列表文件中的文件名带有目录时，
+ * 在输出目录下建立同样的子目录，所以不同目录中的同名源程序不会互相覆盖。
+ */
+public final class BatchCompiler {
+
+	private static final String SUFFIX = ".decaf";
+
+	private Option option;
+
+	private File outputDir;
+
+	private AtomicInteger failed = new AtomicInteger();
+
+	public BatchCompiler(Option option) {
+		this.option = option;
+		outputDir = new File(option.getDstFileName() == null ? "output"
+				: option.getDstFileName());
+	}
+
+	/**
+	 * 编译-batch指定的全部源程序
+	 *
+	 * @return 没有出错的源程序是否为全部
+	 */
+	public boolean run() throws IOException {
+		File batch = new File(option.getBatch());
+		List<File> sources = listSources(batch);
+		if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+			throw new IOException("Can not create directory " + outputDir);
+		}
+		List<File> inputs = new ArrayList<File>(sources.size());
+		List<File> results = new ArrayList<File>(sources.size());
+		Map<String, File> owners = new HashMap<String, File>();
+		for (File file : sources) {
+			File resultFile = resultFile(batch.isDirectory() ? file.getName()
+					: file.getPath());
+			File owner = owners.get(resultFile.getPath());
+			if (owner != null) {
+				option.getErr().println(
+						"Can not compile " + file + ": result file "
+								+ resultFile + " is also used by " + owner);
+				failed.incrementAndGet();
+				continue;
+			}
+			File dir = resultFile.getParentFile();
+			if (!dir.isDirectory() && !dir.mkdirs()) {
+				throw new IOException("Can not create directory " + dir);
+			}
+			owners.put(resultFile.getPath(), file);
+			inputs.add(file);
+			results.add(resultFile);
+		}
+		ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime()
+				.availableProcessors());
+		try {
+			pool.invoke(new CompileTask(inputs, results, 0, inputs.size()));
+		} finally {
+			pool.shutdown();
+		}
+		option.getOutput().println(
+				sources.size() + " file(s) compiled, " + failed.get()
+						+ " with errors");
+		return failed.get() == 0;
+	}
+
+	/**
+	 * 源程序对应的结果文件：path去掉后缀加上.result，放在输出目录下同样的相对路径中<br>
+	 * 绝对路径的根和"."、".."都被去掉，所以结果文件总在输出目录之内。
+	 *
+	 * @param path
+	 *            源程序在目录中的名字，或者列表文件中写的路径
+	 */
+	private File resultFile(String path) {
+		if (path.endsWith(SUFFIX)) {
+			path = path.substring(0, path.length() - SUFFIX.length());
+		}
+		File result = outputDir;
+		for (String part : path.split("[/\\\\]")) {
+			if (part.length() > 0 && !part.equals(".") && !part.equals("..")) {
+				result = new File(result, part);
+			}
+		}
+		return new File(result.getPath() + ".result");
+	}
+
+	/**
+	 * 列出需要编译的源程序：目录下的全部*.decaf文件（按名字排序），或者列表文件中每行一个的文件名
+	 */
+	private List<File> listSources(File batch) throws IOException {
+		List<File> sources = new ArrayList<File>();
+		if (batch.isDirectory()) {
+			File[] files = batch.listFiles(new FilenameFilter() {
+
+				@Override
+				public boolean accept(File dir, String name) {
+					return name.endsWith(SUFFIX);
+				}
+
+			});
+			// unreadable directory or I/O error
+			if (files == null) {
+				option.getErr().println("Can not list directory " + batch);
+				failed.incrementAndGet();
+				return sources;
+			}
+			Arrays.sort(files);
+			sources.addAll(Arrays.asList(files));
+		} else {
+			BufferedReader reader = new BufferedReader(new FileReader(batch));
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					line = line.trim();
+					if (line.length() > 0) {
+						sources.add(new File(line));
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		}
+		return sources;
+	}
+
+	private void compile(File file, File resultFile) {
+		Source source = null;
+		PrintStream out = null;
+		try {
+			source = Source.fromFile(file.getPath());
+			out = new PrintStream(new BufferedOutputStream(
+					new FileOutputStream(resultFile)));
+			CompileResult result = new Compiler(option).compile(source, out);
+			for (DecafError error : result.getErrors()) {
+				out.println(error);
+			}
+			if (result.isAborted()) {
+				out.println("*** Too many errors, stopped after "
+						+ option.getMaxErrors());
+			}
+			if (!result.isSuccess()) {
+				failed.incrementAndGet();
+			}
+			if (result.getStats() != null) {
+				option.getErr().print(
+						result.getStats().toText()
+								+ result.getStats().toJson()
+								+ System.getProperty("line.separator"));
+			}
+		} catch (IOException e) {
+			option.getErr().println(
+					"Can not compile " + file + ": " + e.getMessage());
+			failed.incrementAndGet();
+		} catch (Throwable e) {
+			// 包括StackOverflowError等，只算作这个源程序失败，其余的源程序照常编译
+			if (out != null) {
+				out.println("internal compiler error: " + e);
+			}
+			option.getErr().println(
+					"internal compiler error in " + file + ": " + e);
+			failed.incrementAndGet();
+		} finally {
+			if (out != null) {
+				out.close();
+			}
+			if (source != null) {
+				try {
+					source.close();
+				} catch (IOException e) {
+					// nothing left to read
+				}
+			}
+		}
+	}
+
+	/**
+	 * 把源程序列表对半拆分，直到只剩一个文件
+	 */
+	private class CompileTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private List<File> sources;
+
+		private List<File> results;
+
+		private int from;
+
+		private int to;
+
+		CompileTask(List<File> sources, List<File> results, int from, int to) {
+			this.sources = sources;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= 1) {
+				if (to > from) {
+					compile(sources.get(from), results.get(from));
+				}
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new CompileTask(sources, results, from, mid),
+					new CompileTask(sources, results, mid, to));
+		}
+	}
+}
@@ -0,0 +1,217 @@
+package decaf;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import decaf.error.DecafError;
+import decaf.error.ErrorLimitException;
+import decaf.scope.ScopeStack;
+import decaf.type.Types;
+import decaf.typecheck.IncrementalCheck;
+import decaf.utils.Names;
+
+/**
+ * 一次编译所需的全部状态<br>
+ * 词法分析、语法分析、符号表构造和类型检查都通过它取得符号表和报告错误，
+ * 因此同一个虚拟机中的多次编译互不干扰，可以并行进行。<br>
+ * 打开-stream-errors时，位置确定不会再被后报告的错误超过的错误立即打印出来并从列表中删除，
+ * 错误列表的长度因此有界；打开-max-errors时，报告的错误达到上限就抛出ErrorLimitException。
+ */
+public final class CompilationContext {
+
+	private Option option;
+
+	/**
+	 * 还没有打印的错误
+	 */
+	private List<DecafError> errors;
+
+	/**
+	 * 已经打印的错误个数
+	 */
+	private int streamed;
+
+	private boolean aborted;
+
+	/**
+	 * 流式输出错误的目标，没有打开-stream-errors时为null
+	 */
+	private PrintStream stream;
+
+	/**
+	 * 错误个数的上限，0表示没有上限
+	 */
+	private int limit;
+
+	private ScopeStack table;
+
+	private Names names;
+
+	private Types types;
+
+	private IncrementalCheck incremental;
+
+	/**
+	 * 并行检查所用的线程池，不并行时为null
+	 */
+	private ForkJoinPool pool;
+
+	public CompilationContext(Option option) {
+		this.option = option;
+		errors = new ArrayList<DecafError>();
+		table = new ScopeStack();
+		names = new Names();
+		types = new Types();
+		if (option.isStreamErrors()) {
+			stream = option.getErr();
+		}
+		limit = option.getMaxErrors();
+	}
+
+	/**
+	 * 构造并行检查中一个任务所用的状态：自己的符号表和错误列表，与本状态共用选项、名字表、类型工厂和增量检查的状态<br>
+	 * 任务中报告的错误既不流式输出，也不受个数上限的限制，由发起并行检查的一方按顺序转交给本状态。
+	 */
+	public CompilationContext fork() {
+		CompilationContext child = new CompilationContext(option);
+		child.stream = null;
+		child.limit = 0;
+		child.names = names;
+		child.types = types;
+		child.incremental = incremental;
+		return child;
+	}
+
+	public Option getOption() {
+		return option;
+	}
+
+	public ScopeStack getTable() {
+		return table;
+	}
+
+	public Names getNames() {
+		return names;
+	}
+
+	public Types getTypes() {
+		return types;
+	}
+
+	/**
+	 * @return 增量检查的状态，不做增量检查时为null
+	 */
+	public IncrementalCheck getIncremental() {
+		return incremental;
+	}
+
+	public void setIncremental(IncrementalCheck incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * @return 并行检查所用的线程池，为null时顺序检查
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * 报告一个错误
+	 * 
+	 * @throws ErrorLimitException
+	 *             错误个数达到了-max-errors给出的上限
+	 */
+	public void issueError(DecafError error) {
+		if (aborted) {
+			throw new ErrorLimitException(limit);
+		}
+		errors.add(error);
+		if (limit > 0 && getErrorCount() >= limit) {
+			aborted = true;
+			throw new ErrorLimitException(limit);
+		}
+	}
+
+	/**
+	 * 告知此后报告的错误都不会在where之前，流式输出时打印并删除位置在where之前的错误<br>
+	 * 只有能保证这一点的地方才调用：语法分析每读入一个词法单元，类型检查每开始检查一个类。
+	 */
+	public void advance(long where) {
+		if (stream == null || errors.isEmpty()) {
+			return;
+		}
+		sort();
+		int n = 0;
+		while (n < errors.size()
+				&& errors.get(n).getPosition() < where) {
+			stream.println(errors.get(n));
+			n++;
+		}
+		if (n > 0) {
+			errors.subList(0, n).clear();
+			streamed += n;
+		}
+	}
+
+	public boolean hasErrors() {
+		return getErrorCount() > 0;
+	}
+
+	/**
+	 * @return 是否因为错误个数达到上限而中止
+	 */
+	public boolean isAborted() {
+		return aborted;
+	}
+
+	/**
+	 * @return 到目前为止报告的错误个数，包括已经流式输出的
+	 */
+	public int getErrorCount() {
+		return streamed + errors.size();
+	}
+
+	/**
+	 * @return 已经流式输出的错误个数
+	 */
+	public int getStreamedCount() {
+		return streamed;
+	}
+
+	/**
+	 * @return 按报告顺序排列的第from个及以后的错误，它们都还没有流式输出
+	 */
+	public List<DecafError> getErrorsFrom(int from) {
+		return errors.subList(from - streamed, errors.size());
+	}
+
+	/**
+	 * @return 按位置排好序的错误列表，不包括已经流式输出的错误
+	 */
+	public List<DecafError> getErrors() {
+		sort();
+		return errors;
+	}
+
+	private void sort() {
+		Collections.sort(errors, new Comparator<DecafError>() {
+
+			@Override
+			public int compare(DecafError o1, DecafError o2) {
+				long p1 = o1.getPosition();
+				long p2 = o2.getPosition();
+				return p1 > p2 ? 1 : p1 == p2 ? 0 : -1;
+			}
+
+		});
+	}
+}
@@ -0,0 +1,280 @@
+package decaf;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import decaf.error.DecafError;
+
+/**
+ * 按内容寻址的编译结果缓存<br>
+ * 每个条目是目录中的一个文件，文件名是源程序内容、编译级别、错误个数上限和编译器版本号的SHA-256散列值，
+ * 内容是编译输出和错误列表。条目先写到临时文件再改名，所以同一个目录可以被批量编译的多个线程、
+ * 多个编译服务进程同时使用。命中时更新文件的修改时间，目录的总大小超过预算时按修改时间从旧到新删除条目。
+ */
+public final class CompileCache {
+
+	private static final String SUFFIX = ".entry";
+
+	private static final ConcurrentMap<String, CompileCache> caches = new ConcurrentHashMap<String, CompileCache>();
+
+	private static String buildId;
+
+	private File dir;
+
+	private long budget;
+
+	/**
+	 * 目录中条目总大小的估计值，其他进程写入的条目在下一次清理时才计入
+	 */
+	private AtomicLong size;
+
+	private CompileCache(File dir, long budget) {
+		this.dir = dir;
+		this.budget = budget;
+	}
+
+	/**
+	 * 取得一个缓存目录对应的缓存，同一个虚拟机中的同一个目录共用一个对象
+	 *
+	 * @param dir
+	 *            缓存目录，不存在时创建
+	 * @param budget
+	 *            目录中条目总大小的上限（字节）
+	 */
+	public static CompileCache open(String dir, long budget) {
+		File d = new File(dir).getAbsoluteFile();
+		CompileCache cache = caches.get(d.getPath());
+		if (cache == null) {
+			caches.putIfAbsent(d.getPath(), new CompileCache(d, budget));
+			cache = caches.get(d.getPath());
+		}
+		return cache;
+	}
+
+	/**
+	 * 计算一个源程序在某一级别上的编译结果对应的键
+	 *
+	 * @param maxErrors
+	 *            错误个数的上限，会影响编译结果
+	 */
+	public String key(byte[] content, Option.Level level, int maxErrors) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		digest.update((getBuildId() + "\n" + level + "\n" + maxErrors + "\n")
+				.getBytes());
+		digest.update(content);
+		StringBuilder sb = new StringBuilder();
+		for (byte b : digest.digest()) {
+			sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+			sb.append(Character.forDigit(b & 0xf, 16));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 查找一个键对应的条目
+	 *
+	 * @return 找到的条目，没有或者已经损坏时为null
+	 */
+	public Entry get(String key) {
+		File file = new File(dir, key + SUFFIX);
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			ObjectInputStream in = new ObjectInputStream(new FileInputStream(
+					file));
+			try {
+				Entry entry = (Entry) in.readObject();
+				file.setLastModified(System.currentTimeMillis());
+				return entry;
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			// evicted meanwhile or truncated, recompile
+		} catch (ClassNotFoundException e) {
+			// written by an incompatible build, recompile
+		} catch (ClassCastException e) {
+			// not an entry, recompile
+		}
+		return null;
+	}
+
+	/**
+	 * 保存一个条目，必要时清理旧的条目<br>
+	 * 缓存目录不可写时什么也不做。
+	 */
+	public void put(String key, byte[] output, List<DecafError> errors) {
+		File tmp = null;
+		try {
+			if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+				return;
+			}
+			tmp = File.createTempFile(key, ".tmp", dir);
+			ObjectOutputStream out = new ObjectOutputStream(
+					new FileOutputStream(tmp));
+			try {
+				out.writeObject(new Entry(output, new ArrayList<DecafError>(
+						errors)));
+			} finally {
+				out.close();
+			}
+			long length = tmp.length();
+			Files.move(tmp.toPath(), new File(dir, key + SUFFIX).toPath(),
+					StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+			tmp = null;
+			if (getSize().addAndGet(length) > budget) {
+				evict();
+			}
+		} catch (IOException e) {
+			// the cache is only an optimization
+		} finally {
+			if (tmp != null) {
+				tmp.delete();
+			}
+		}
+	}
+
+	private AtomicLong getSize() {
+		synchronized (this) {
+			if (size == null) {
+				long total = 0;
+				for (File file : listEntries()) {
+					total += file.length();
+				}
+				size = new AtomicLong(total);
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * 按修改时间从旧到新删除条目，直到总大小不超过预算
+	 */
+	private synchronized void evict() {
+		File[] files = listEntries();
+		final long[] modified = new long[files.length];
+		Integer[] order = new Integer[files.length];
+		long total = 0;
+		for (int i = 0; i < files.length; i++) {
+			modified[i] = files[i].lastModified();
+			order[i] = i;
+			total += files[i].length();
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return Long.compare(modified[o1], modified[o2]);
+			}
+
+		});
+		for (int i = 0; i < order.length && total > budget; i++) {
+			File file = files[order[i]];
+			long length = file.length();
+			if (file.delete()) {
+				total -= length;
+			}
+		}
+		size.set(total);
+	}
+
+	private File[] listEntries() {
+		File[] files = dir.listFiles();
+		if (files == null) {
+			return new File[0];
+		}
+		List<File> entries = new ArrayList<File>();
+		for (File file : files) {
+			if (file.getName().endsWith(SUFFIX)) {
+				entries.add(file);
+			}
+		}
+		return entries.toArray(new File[entries.size()]);
+	}
+
+	/**
+	 * @return 编译器的版本号，取自系统属性decaf.build.id，缺省为编译器所在的jar包
+	 *         （或者class目录中全部class文件）的大小和修改时间
+	 */
+	public static synchronized String getBuildId() {
+		if (buildId == null) {
+			buildId = System.getProperty("decaf.build.id");
+		}
+		if (buildId == null) {
+			try {
+				URL url = Compiler.class.getProtectionDomain().getCodeSource()
+						.getLocation();
+				File location = new File(url.toURI());
+				long[] stamp = new long[2];
+				stamp(location, stamp);
+				buildId = location + ":" + stamp[0] + ":" + stamp[1];
+			} catch (Exception e) {
+				buildId = "unknown";
+			}
+		}
+		return buildId;
+	}
+
+	private static void stamp(File file, long[] stamp) {
+		if (file.isDirectory()) {
+			File[] files = file.listFiles();
+			if (files != null) {
+				for (File f : files) {
+					stamp(f, stamp);
+				}
+			}
+		} else if (file.isFile()) {
+			stamp[0] += file.length();
+			stamp[1] = Math.max(stamp[1], file.lastModified());
+		}
+	}
+
+	/**
+	 * 一个缓存条目：编译输出和按位置排好序的错误列表
+	 */
+	public static final class Entry implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private byte[] output;
+
+		private List<DecafError> errors;
+
+		Entry(byte[] output, List<DecafError> errors) {
+			this.output = output;
+			this.errors = errors;
+		}
+
+		public byte[] getOutput() {
+			return output;
+		}
+
+		public List<DecafError> getErrors() {
+			return errors;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package decaf;
+
+import java.util.List;
+
+import decaf.error.DecafError;
+
+/**
+ * 一次编译的结果
+ */
+public final class CompileResult {
+
+	private List<DecafError> errors;
+
+	private String output;
+
+	private CompileStats stats;
+
+	private int streamed;
+
+	private boolean aborted;
+
+	CompileResult(List<DecafError> errors) {
+		this.errors = errors;
+	}
+
+	/**
+	 * @return 编译是否成功（没有错误）
+	 */
+	public boolean isSuccess() {
+		return errors.isEmpty() && streamed == 0;
+	}
+
+	/**
+	 * @return 按位置排好序的错误列表（不包括已经流式输出的错误），编译成功时为空
+	 */
+	public List<DecafError> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return 编译输出（AST或符号表），只有用Compiler.compile(Source, Level)
+	 *         编译时才会保存
+	 */
+	public String getOutput() {
+		return output;
+	}
+
+	void setOutput(String output) {
+		this.output = output;
+	}
+
+	/**
+	 * @return 各阶段的统计数据，没有打开-stats时为null
+	 */
+	public CompileStats getStats() {
+		return stats;
+	}
+
+	void setStats(CompileStats stats) {
+		this.stats = stats;
+	}
+
+	/**
+	 * @return 打开-stream-errors时已经在编译过程中输出的错误个数
+	 */
+	public int getStreamed() {
+		return streamed;
+	}
+
+	void setStreamed(int streamed) {
+		this.streamed = streamed;
+	}
+
+	/**
+	 * @return 是否因为错误个数达到-max-errors给出的上限而中止
+	 */
+	public boolean isAborted() {
+		return aborted;
+	}
+
+	void setAborted(boolean aborted) {
+		this.aborted = aborted;
+	}
+}
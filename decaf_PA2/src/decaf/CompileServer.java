@@ -0,0 +1,182 @@
+package decaf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * 常驻的编译服务，让多次编译共用同一个已经预热的虚拟机<br>
+ *
+ * 请求与应答都通过一对字节流传送，每个请求的格式为：
+ *
+ * <pre>
+ * LEVEL LENGTH\n
+ * &lt;LENGTH个字节的源程序&gt;
+ * </pre>
+ *
+ * 对应的应答格式为：
+ *
+ * <pre>
+ * STATUS OUTPUT_LENGTH ERROR_LENGTH\n
+ * &lt;OUTPUT_LENGTH个字节的编译输出&gt;&lt;ERROR_LENGTH个字节的错误信息&gt;
+ * </pre>
+ *
+ * 其中STATUS为0表示编译成功，1表示源程序有错误（错误信息已按位置排序），
+ * 2表示请求本身不合法（LENGTH超过MAX_LENGTH时源程序被跳过，不会读入内存）。
+ * 输入流结束或收到一行"quit"时服务退出。
+ */
+public final class CompileServer {
+
+	public static final int STATUS_OK = 0;
+
+	public static final int STATUS_ERROR = 1;
+
+	public static final int STATUS_BAD_REQUEST = 2;
+
+	/**
+	 * 一个请求中源程序的最大字节数
+	 */
+	public static final int MAX_LENGTH = 64 << 20;
+
+	private DataInputStream in;
+
+	private OutputStream out;
+
+	private Option defaults;
+
+	public CompileServer(InputStream in, OutputStream out) {
+		this.in = new DataInputStream(in);
+		this.out = out;
+	}
+
+	/**
+	 * @param defaults
+	 *            命令行上的选项，其中的编译结果缓存、错误报告和线程数设置用于每个请求
+	 */
+	public CompileServer(InputStream in, OutputStream out, Option defaults) {
+		this(in, out);
+		this.defaults = defaults;
+	}
+
+	/**
+	 * 循环处理请求，直到输入结束
+	 */
+	public void serve() throws IOException {
+		String header;
+		while ((header = readLine()) != null) {
+			header = header.trim();
+			if (header.length() == 0) {
+				continue;
+			}
+			if (header.equals("quit")) {
+				break;
+			}
+			handle(header);
+		}
+		out.flush();
+	}
+
+	private void handle(String header) throws IOException {
+		String[] parts = header.split("\\s+");
+		Option.Level level;
+		byte[] source;
+		try {
+			if (parts.length != 2) {
+				throw new IllegalArgumentException("expected 'LEVEL LENGTH'");
+			}
+			level = Option.Level.valueOf("LEVEL" + parts[0]);
+			int length = Integer.parseInt(parts[1]);
+			if (length < 0) {
+				throw new IllegalArgumentException("negative length");
+			}
+			if (length > MAX_LENGTH) {
+				// keep the stream in step with the next request
+				skip(length);
+				throw new IllegalArgumentException("source longer than "
+						+ MAX_LENGTH + " bytes");
+			}
+			source = new byte[length];
+			in.readFully(source);
+		} catch (EOFException e) {
+			reply(STATUS_BAD_REQUEST, new byte[0],
+					"truncated request\n".getBytes());
+			return;
+		} catch (IllegalArgumentException e) {
+			reply(STATUS_BAD_REQUEST, new byte[0], ("bad request '" + header
+					+ "': " + e.getMessage() + "\n").getBytes());
+			return;
+		}
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		PrintStream errStream = new PrintStream(err);
+		int status;
+		try {
+			Option option = new Option(level, new ByteArrayInputStream(source),
+					new PrintStream(output), errStream);
+			if (defaults != null) {
+				option.setCache(defaults.getCacheDir(), defaults.getCacheSize());
+				option.setErrorReporting(defaults.getMaxErrors(), defaults
+						.isStreamErrors());
+				option.setThreads(defaults.getThreads());
+			}
+			status = Driver.run(option) ? STATUS_OK : STATUS_ERROR;
+		} catch (Throwable e) {
+			// e.g. StackOverflowError on a deeply nested program, the
+			// server keeps serving the next requests
+			output.reset();
+			errStream.println("internal compiler error: " + e);
+			status = STATUS_ERROR;
+		}
+		errStream.flush();
+		reply(status, output.toByteArray(), err.toByteArray());
+	}
+
+	private void reply(int status, byte[] output, byte[] err)
+			throws IOException {
+		out.write((status + " " + output.length + " " + err.length + "\n")
+				.getBytes());
+		out.write(output);
+		out.write(err);
+		out.flush();
+	}
+
+	/**
+	 * 跳过输入中的n个字节
+	 */
+	private void skip(int n) throws IOException {
+		// skip() is not supported on pipes, read through a small buffer
+		byte[] buf = new byte[8192];
+		while (n > 0) {
+			int k = in.read(buf, 0, Math.min(n, buf.length));
+			if (k < 0) {
+				throw new EOFException();
+			}
+			n -= k;
+		}
+	}
+
+	/**
+	 * 读入一行ASCII文本（不含行尾）
+	 *
+	 * @return 读到的一行，输入结束时返回null
+	 */
+	private String readLine() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		int c;
+		while ((c = in.read()) != -1) {
+			if (c == '\n') {
+				return sb.toString();
+			}
+			if (c != '\r') {
+				sb.append((char) c);
+			}
+		}
+		return sb.length() == 0 ? null : sb.toString();
+	}
+}
@@ -0,0 +1,151 @@
+package decaf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import decaf.utils.Counters;
+
+/**
+ * 记录编译各阶段的墙钟时间、CPU时间、内存分配量和创建的对象数目（-stats选项）<br>
+ * 数据包括执行编译的线程和它在这个阶段用到的线程（-j的检查线程、-pipeline的词法分析线程）。
+ */
+public final class CompileStats {
+
+	private String source;
+
+	private List<Phase> phases = new ArrayList<Phase>();
+
+	private Phase current;
+
+	public CompileStats(String source) {
+		this.source = source;
+		Counters.enable();
+	}
+
+	/**
+	 * 开始统计一个阶段
+	 */
+	public void begin(String name) {
+		current = new Phase(name);
+		current.wall = System.nanoTime();
+		current.counts = Counters.snapshot();
+	}
+
+	/**
+	 * 结束当前阶段的统计
+	 */
+	public void end() {
+		current.wall = System.nanoTime() - current.wall;
+		long[] delta = Counters.since(current.counts);
+		current.cpu = delta[Counters.CPU_TIME];
+		current.alloc = Counters.isAllocationSupported() ? delta[Counters.ALLOCATED]
+				: -1;
+		current.counts = Arrays.copyOf(delta, Counters.NAMES.length);
+		phases.add(current);
+		current = null;
+	}
+
+	private Phase total() {
+		Phase total = new Phase("total");
+		total.counts = new long[Counters.NAMES.length];
+		for (Phase p : phases) {
+			total.wall += p.wall;
+			total.cpu += p.cpu;
+			total.alloc = p.alloc < 0 || total.alloc < 0 ? -1 : total.alloc
+					+ p.alloc;
+			for (int i = 0; i < total.counts.length; i++) {
+				total.counts[i] += p.counts[i];
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * @return 便于阅读的多行表格
+	 */
+	public String toText() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("statistics of ").append(source).append(':').append(
+				System.getProperty("line.separator"));
+		sb.append(String.format("%-10s%10s%10s%12s", "phase", "wall(ms)",
+				"cpu(ms)", "alloc(KB)"));
+		for (String name : Counters.NAMES) {
+			sb.append(String.format("%10s", name));
+		}
+		sb.append(System.getProperty("line.separator"));
+		List<Phase> rows = new ArrayList<Phase>(phases);
+		rows.add(total());
+		for (Phase p : rows) {
+			sb.append(String.format("%-10s%10.3f%10.3f%12.1f", p.name,
+					p.wall / 1e6, p.cpu / 1e6, p.alloc / 1024.0));
+			for (long count : p.counts) {
+				sb.append(String.format("%10d", count));
+			}
+			sb.append(System.getProperty("line.separator"));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return 单行JSON
+	 */
+	public String toJson() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\"source\":\"").append(escape(source)).append(
+				"\",\"phases\":[");
+		for (int i = 0; i < phases.size(); i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			phases.get(i).appendJson(sb);
+		}
+		sb.append("],\"total\":");
+		total().appendJson(sb);
+		sb.append('}');
+		return sb.toString();
+	}
+
+	private static String escape(String s) {
+		if (s == null) {
+			return "";
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\');
+			}
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	private static class Phase {
+
+		String name;
+
+		long wall;
+
+		long cpu;
+
+		long alloc;
+
+		long[] counts;
+
+		Phase(String name) {
+			this.name = name;
+		}
+
+		void appendJson(StringBuilder sb) {
+			sb.append("{\"phase\":\"").append(name).append("\",\"wallNs\":")
+					.append(wall).append(",\"cpuNs\":").append(cpu).append(
+							",\"allocBytes\":").append(alloc);
+			for (int i = 0; i < counts.length; i++) {
+				sb.append(",\"").append(Counters.NAMES[i]).append("\":")
+						.append(counts[i]);
+			}
+			sb.append('}');
+		}
+	}
+}
@@ -0,0 +1,277 @@
+package decaf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import decaf.error.ErrorLimitException;
+import decaf.error.MsgError;
+import decaf.frontend.Lexer;
+import decaf.frontend.Parser;
+import decaf.frontend.TokenBuffer;
+import decaf.tree.Tree;
+import decaf.tree.TreeReader;
+import decaf.tree.TreeWriter;
+import decaf.typecheck.BuildSym;
+import decaf.typecheck.IncrementalCheck;
+import decaf.typecheck.TypeCheck;
+import decaf.utils.IndentPrintWriter;
+
+/**
+ * 编译器的入口<br>
+ * 每次编译都使用一个新的CompilationContext，不会退出虚拟机，也不依赖任何全局状态，
+ * 同一个Compiler可以在多个线程中同时使用。
+ */
+public final class Compiler {
+
+	/**
+	 * 按线程数共用的线程池，线程空闲一段时间后自动退出；访问时对它加锁，每种线程数只创建一个线程池
+	 */
+	private static final Map<Integer, ForkJoinPool> pools = new HashMap<Integer, ForkJoinPool>();
+
+	private Option option;
+
+	private CompileCache cache;
+
+	private ForkJoinPool pool;
+
+	public Compiler(Option option) {
+		this.option = option;
+		if (option.getCacheDir() != null) {
+			cache = CompileCache.open(option.getCacheDir(), option
+					.getCacheSize());
+		}
+		if (option.getThreads() > 1) {
+			synchronized (pools) {
+				pool = pools.get(option.getThreads());
+				if (pool == null) {
+					pool = new ForkJoinPool(option.getThreads());
+					pools.put(option.getThreads(), pool);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 按指定级别编译源程序，编译输出保存在结果中
+	 * 
+	 * @param source
+	 *            源程序
+	 * @param level
+	 *            编译的级别
+	 * @return 编译结果
+	 */
+	public static CompileResult compile(Source source, Option.Level level) {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		CompileResult result = new Compiler(new Option(level)).compile(source,
+				output);
+		result.setOutput(output.toString());
+		return result;
+	}
+
+	/**
+	 * 编译源程序，成功时把编译输出写到out
+	 * 
+	 * @param source
+	 *            源程序
+	 * @param out
+	 *            编译输出
+	 * @return 编译结果
+	 */
+	public CompileResult compile(Source source, OutputStream out) {
+		CompileStats stats = option.isStats() ? new CompileStats(source
+				.getName()) : null;
+		// a cached result has no tree to emit, and the key hashes source text
+		// while -load-ast reads a serialized tree
+		if (cache == null || option.getEmitAstFile() != null
+				|| option.isLoadAst()) {
+			return compile(source, out, stats);
+		}
+		begin(stats, "cache");
+		String key;
+		try {
+			key = cache.key(source.readContent(), option.getLevel(), option
+					.getMaxErrors());
+		} catch (IOException e) {
+			end(stats);
+			return compile(source, out, stats);
+		}
+		CompileCache.Entry entry = cache.get(key);
+		end(stats);
+		if (entry != null) {
+			write(out, entry.getOutput());
+			CompileResult result = new CompileResult(entry.getErrors());
+			result.setStats(stats);
+			return result;
+		}
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		CompileResult result = compile(source, output, stats);
+		write(out, output.toByteArray());
+		// errors already streamed are not in the result any more
+		if (result.getStreamed() == 0) {
+			cache.put(key, output.toByteArray(), result.getErrors());
+		}
+		return result;
+	}
+
+	private static void write(OutputStream out, byte[] output) {
+		PrintStream ps = new PrintStream(out);
+		ps.write(output, 0, output.length);
+		ps.flush();
+	}
+
+	private CompileResult compile(Source source, OutputStream out,
+			CompileStats stats) {
+		CompilationContext context = new CompilationContext(option);
+		context.setPool(pool);
+		try {
+			return compile(source, out, context, stats);
+		} catch (ErrorLimitException e) {
+			// the phase that hit the limit is still open
+			end(stats);
+			return result(context, stats);
+		}
+	}
+
+	private CompileResult compile(Source source, OutputStream out,
+			CompilationContext context, CompileStats stats) {
+		Tree.TopLevel tree;
+		if (option.isLoadAst()) {
+			begin(stats, "load");
+			tree = load(source, context);
+			end(stats);
+		} else {
+			tree = parse(source, context, stats);
+		}
+		if (context.hasErrors()) {
+			return result(context, stats);
+		}
+		if (option.getEmitAstFile() != null) {
+			begin(stats, "emit");
+			emit(tree);
+			end(stats);
+		}
+		if (option.getLevel() == Option.Level.LEVEL0) {
+			begin(stats, "print");
+			IndentPrintWriter pw = new IndentPrintWriter(out, 4);
+			tree.printTo(pw);
+			pw.flush();
+			end(stats);
+			return result(context, stats);
+		}
+		if (option.getIncrementalFile() != null) {
+			context.setIncremental(IncrementalCheck.load(option
+					.getIncrementalFile(), source.getName(), option.getLevel()));
+		}
+		begin(stats, "buildsym");
+		BuildSym.buildSymbol(tree, context);
+		end(stats);
+		if (context.hasErrors()) {
+			return result(context, stats);
+		}
+		begin(stats, "typecheck");
+		TypeCheck.checkType(tree, context);
+		end(stats);
+		if (context.hasErrors()) {
+			return result(context, stats);
+		}
+		if (option.getLevel() == Option.Level.LEVEL1) {
+			begin(stats, "print");
+			IndentPrintWriter pw = new IndentPrintWriter(out, 4);
+			tree.globalScope.printTo(pw);
+			pw.flush();
+			end(stats);
+		}
+		return result(context, stats);
+	}
+
+	private Tree.TopLevel parse(Source source, CompilationContext context,
+			CompileStats stats) {
+		Lexer lexer = source.getChars() != null ? new Lexer(source.getChars(),
+				source.getLength()) : new Lexer(source.getInput());
+		Parser parser = new Parser();
+		lexer.setParser(parser);
+		lexer.setContext(context);
+		parser.setLexer(lexer);
+		parser.setContext(context);
+		parser.setPipelined(option.isPipeline());
+
+		if (option.isTokenBuffer()) {
+			begin(stats, "lex");
+			parser.setTokens(TokenBuffer.scan(lexer));
+			end(stats);
+		}
+		begin(stats, "parse");
+		Tree.TopLevel tree = parser.parseFile();
+		end(stats);
+		return tree;
+	}
+
+	/**
+	 * 读回-emit-ast输出的语法树，失败时报告一个没有位置的错误
+	 */
+	private Tree.TopLevel load(Source source, CompilationContext context) {
+		try {
+			return TreeReader.read(source.readContent(), context.getNames());
+		} catch (IOException e) {
+			context.issueError(new MsgError(Location.NO_POSITION,
+					"can not load AST from " + source.getName() + ": "
+							+ e.getMessage()));
+			return null;
+		}
+	}
+
+	/**
+	 * 把语法树写到-emit-ast指定的文件，写不成功只给出提示，不影响编译结果
+	 */
+	private void emit(Tree.TopLevel tree) {
+		try {
+			FileOutputStream out = new FileOutputStream(option
+					.getEmitAstFile());
+			try {
+				TreeWriter.write(tree, out);
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			option.getErr().println(
+					"Can not write AST to " + option.getEmitAstFile() + ": "
+							+ e.getMessage());
+		}
+	}
+
+	private CompileResult result(CompilationContext context,
+			CompileStats stats) {
+		// the state of an aborted phase is incomplete, keep the old one
+		if (context.getIncremental() != null && !context.isAborted()) {
+			try {
+				context.getIncremental().save(option.getIncrementalFile());
+			} catch (IOException e) {
+				option.getErr().println(
+						"Can not save incremental state: " + e.getMessage());
+			}
+		}
+		CompileResult result = new CompileResult(context.getErrors());
+		result.setStats(stats);
+		result.setStreamed(context.getStreamedCount());
+		result.setAborted(context.isAborted());
+		return result;
+	}
+
+	private static void begin(CompileStats stats, String phase) {
+		if (stats != null) {
+			stats.begin(phase);
+		}
+	}
+
+	private static void end(CompileStats stats) {
+		if (stats != null) {
+			stats.end();
+		}
+	}
+}
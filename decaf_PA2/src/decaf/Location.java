@@ -2,10 +2,18 @@ package decaf;
 
 /**
  * 语法符号在源代码中的位置<br>
+ * 编译器内部把位置压缩成一个long（行号在高32位，列号在低32位）保存在基本类型的字段中，
+ * 两个位置的先后就是两个long的大小；只在输出时才用of创建Location对象。
  */
 public class Location implements Comparable<Location> {
 
 	public static final Location NO_LOCATION = new Location(-1, -1);
+
+	/**
+	 * 压缩后的NO_LOCATION，比任何实际位置都小
+	 */
+	public static final long NO_POSITION = pack(-1, -1);
+
 	/**
 	 * 该符号第一个字符所在的行号
 	 */
@@ -29,6 +37,46 @@ public class Location implements Comparable<Location> {
 		column = col;
 	}
 
+	public int getLine() {
+		return line;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * @return 压缩后的位置
+	 */
+	public long getPosition() {
+		return pack(line, column);
+	}
+
+	/**
+	 * 把行号和列号压缩成一个long，列号不能为负（NO_LOCATION除外）
+	 */
+	public static long pack(int line, int column) {
+		return ((long) line << 32) | (column & 0xffffffffL);
+	}
+
+	public static int lineOf(long position) {
+		return (int) (position >> 32);
+	}
+
+	public static int columnOf(long position) {
+		return (int) position;
+	}
+
+	/**
+	 * 由压缩后的位置创建位置记录
+	 */
+	public static Location of(long position) {
+		if (position == NO_POSITION) {
+			return NO_LOCATION;
+		}
+		return new Location(lineOf(position), columnOf(position));
+	}
+
 	/**
 	 * 转换成(x,y)形式的字符串
 	 */
@@ -1,10 +1,10 @@
 package decaf;
 
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 
 public final class Option {
@@ -21,10 +21,41 @@ public final class Option {
 
 	private PrintStream output = System.out;
 
+	/**
+	 * -o指定的输出文件，output也写到这个文件
+	 */
+	private FileOutputStream outputFile;
+
 	private PrintStream err = System.err;
 
 	private Level level = Level.LEVEL4;
 
+	private boolean server;
+
+	private String batch;
+
+	private boolean stats;
+
+	private String incrementalFile;
+
+	private String cacheDir;
+
+	private long cacheSize = 256L << 20;
+
+	private int maxErrors;
+
+	private boolean streamErrors;
+
+	private int threads = 1;
+
+	private boolean pipeline;
+
+	private boolean tokenBuffer;
+
+	private String emitAstFile;
+
+	private boolean loadAst;
+
 	private static final String mainClassName = "Main";
 
 	private static final String mainFuncName = "main";
@@ -37,6 +68,36 @@ public final class Option {
 		return mainClassName;
 	}
 
+	/**
+	 * 构造使用标准输入输出的编译选项（供Compiler.compile(Source, Level)使用）
+	 * 
+	 * @param level
+	 *            编译的级别
+	 */
+	public Option(Level level) {
+		this.level = level;
+	}
+
+	/**
+	 * 构造一次独立编译所用的选项（供CompileServer使用）
+	 * 
+	 * @param level
+	 *            编译的级别
+	 * @param input
+	 *            源程序输入
+	 * @param output
+	 *            编译结果输出
+	 * @param err
+	 *            错误信息输出
+	 */
+	public Option(Level level, InputStream input, PrintStream output,
+			PrintStream err) {
+		this.level = level;
+		this.input = input;
+		this.output = output;
+		this.err = err;
+	}
+
 	public Option(String[] args) {
 		if (args.length == 0) {
 			output.println(usage());
@@ -45,31 +106,84 @@ public final class Option {
 		for (int i = 0; i < args.length; i++) {
 			if (args[i].equals("-o")) {
 				dstFileName = args[++i];
-				try {
-					output = new PrintStream(new FileOutputStream(dstFileName));
-				} catch (FileNotFoundException e) {
-					err.println("Can not open file " + dstFileName
-							+ " for write");
-					System.exit(1);
-				}
+			} else if (args[i].equals("-batch")) {
+				batch = args[++i];
 			} else if (args[i].equals("-l")) {
 				level = Level.valueOf("LEVEL" + args[++i]);
+			} else if (args[i].equals("-stats")) {
+				stats = true;
+			} else if (args[i].equals("-cache")) {
+				cacheDir = args[++i];
+			} else if (args[i].equals("-cache-size")) {
+				cacheSize = Long.parseLong(args[++i]) << 20;
+			} else if (args[i].equals("-max-errors")) {
+				maxErrors = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-j")) {
+				threads = Integer.parseInt(args[++i]);
+				if (threads <= 0) {
+					threads = Runtime.getRuntime().availableProcessors();
+				}
+			} else if (args[i].equals("-pipeline")) {
+				pipeline = true;
+			} else if (args[i].equals("-token-buffer")) {
+				tokenBuffer = true;
+			} else if (args[i].equals("-emit-ast")) {
+				emitAstFile = args[++i];
+			} else if (args[i].equals("-load-ast")) {
+				loadAst = true;
+			} else if (args[i].equals("-stream-errors")) {
+				streamErrors = true;
+			} else if (args[i].equals("-incremental")) {
+				incrementalFile = args[++i];
+			} else if (args[i].equals("--server")) {
+				server = true;
 			} else {
 				srcFileName = args[i];
-				try {
-					input = new BufferedInputStream(new FileInputStream(
-							srcFileName));
-				} catch (FileNotFoundException e) {
+				// the file itself is mapped by Source.fromFile
+				if (!new File(srcFileName).isFile()) {
 					err.println("File " + srcFileName + " not found");
 					System.exit(1);
 				}
 			}
 		}
+		if (incrementalFile != null && batch != null) {
+			err.println("-incremental can not be used with -batch");
+			System.exit(1);
+		}
+		if (emitAstFile != null && batch != null) {
+			err.println("-emit-ast can not be used with -batch");
+			System.exit(1);
+		}
+		if (pipeline && tokenBuffer) {
+			err.println("-pipeline can not be used with -token-buffer");
+			System.exit(1);
+		}
+		// batch mode writes the errors of each source into its result file
+		if (streamErrors && batch != null) {
+			err.println("-stream-errors can not be used with -batch");
+			System.exit(1);
+		}
+		// in batch mode -o names the output directory
+		if (dstFileName != null && batch == null) {
+			try {
+				outputFile = new FileOutputStream(dstFileName);
+				output = new PrintStream(outputFile);
+			} catch (FileNotFoundException e) {
+				err.println("Can not open file " + dstFileName + " for write");
+				System.exit(1);
+			}
+		}
 	}
 
 	private String usage() {
 		return ("\n"
-				+ "Usage:  java -jar decaf.jar [-l LEVEL] [-o OUTPUT] SOURCE\n"
+				+ "Usage:  java -jar decaf.jar [-l LEVEL] [-o OUTPUT] [-cache DIR] [-incremental FILE]\n"
+				+ "                           [-max-errors N] [-stream-errors] [-j N]\n"
+				+ "                           [-pipeline|-token-buffer] [-emit-ast FILE]\n"
+				+ "                           [-load-ast] SOURCE\n"
+				+ "        java -jar decaf.jar [-l LEVEL] [-o OUTDIR] [-cache DIR] [-max-errors N]\n"
+				+ "                           [-load-ast] -batch DIR|LIST\n"
+				+ "        java -jar decaf.jar [-cache DIR] [-max-errors N] [-stream-errors] --server\n"
 				+ "Options:\n"
 				+ "    -l  Developing level of the compiler, values of LEVEL are:  \n"
 				+ "        0  AST Construction                                     \n"
@@ -80,6 +194,54 @@ public final class Option {
 				+ "                                                                \n"
 				+ "    -o  Specifying the output file name. stdout if omitted.     \n"
 				+ "                                                                \n"
+				+ "    -batch  Compile every *.decaf file in DIR, or every file    \n"
+				+ "        listed (one per line) in LIST, in parallel. Output and  \n"
+				+ "        errors of PATH/NAME.decaf go to OUTDIR/PATH/NAME.result \n"
+				+ "        (PATH as listed in LIST, OUTDIR defaults to 'output').  \n"
+				+ "                                                                \n"
+				+ "    -stats  Report wall time, CPU time, allocated bytes and     \n"
+				+ "        created tokens/trees/symbols/scopes/types per phase     \n"
+				+ "        to stderr, as a table followed by one JSON line.        \n"
+				+ "                                                                \n"
+				+ "    -incremental  Remember class signatures, body hashes and   \n"
+				+ "        diagnostics in FILE, and only re-check the bodies of    \n"
+				+ "        classes that changed (or depend on changed signatures)  \n"
+				+ "        since the last run with the same FILE.                  \n"
+				+ "                                                                \n"
+				+ "    -cache  Look up and store compile results in directory DIR,\n"
+				+ "        keyed by a hash of the source, the level and the build. \n"
+				+ "        Can be shared by -batch workers and servers.            \n"
+				+ "        Not used with -emit-ast or -load-ast.                   \n"
+				+ "                                                                \n"
+				+ "    -cache-size  Size budget of the cache directory in MB      \n"
+				+ "        (default 256); least recently used entries go first.    \n"
+				+ "                                                                \n"
+				+ "    -max-errors  Stop as soon as N errors have been reported  \n"
+				+ "        (0, the default, means no limit).                       \n"
+				+ "                                                                \n"
+				+ "    -stream-errors  Print each error as soon as no later error \n"
+				+ "        can precede it, instead of sorting them all at the end. \n"
+				+ "                                                                \n"
+				+ "    -j  Type-check the classes of one source on N threads     \n"
+				+ "        (default 1; 0 means one per processor). The output is   \n"
+				+ "        the same as with one thread.                            \n"
+				+ "                                                                \n"
+				+ "    -pipeline  Run the lexer on its own thread, handing tokens \n"
+				+ "        to the parser through a bounded ring buffer.            \n"
+				+ "                                                                \n"
+				+ "    -token-buffer  Scan the whole source into compact token    \n"
+				+ "        arrays first, then parse from them.                     \n"
+				+ "                                                                \n"
+				+ "    -emit-ast  After parsing, also write the AST of SOURCE to   \n"
+				+ "        FILE in a compact binary format.                        \n"
+				+ "                                                                \n"
+				+ "    -load-ast  SOURCE (or each file of -batch) is an AST file   \n"
+				+ "        written by -emit-ast; load it instead of lexing and     \n"
+				+ "        parsing.                                                \n"
+				+ "                                                                \n"
+				+ "    --server  Keep running and serve compile requests framed    \n"
+				+ "        on stdin/stdout (see decaf.CompileServer).              \n"
+				+ "                                                                \n"
 				+ "\n");
 	}
 
@@ -91,6 +253,9 @@ public final class Option {
 		return dstFileName;
 	}
 
+	/**
+	 * @return 没有给出源文件时读入源程序的输入流
+	 */
 	public InputStream getInput() {
 		return input;
 	}
@@ -103,6 +268,116 @@ public final class Option {
 		return output;
 	}
 
+	/**
+	 * @return 编译输出写到的字节流：-o给出文件时就是这个文件（可以通过它的FileChannel写），
+	 *         否则是getOutput()
+	 */
+	public OutputStream getOutputStream() {
+		return outputFile != null ? outputFile : output;
+	}
+
+	/**
+	 * @return -batch指定的目录或文件列表，不是批量模式时为null
+	 */
+	public String getBatch() {
+		return batch;
+	}
+
+	public boolean isStats() {
+		return stats;
+	}
+
+	/**
+	 * @return -incremental指定的增量检查状态文件，不做增量检查时为null
+	 */
+	public String getIncrementalFile() {
+		return incrementalFile;
+	}
+
+	/**
+	 * @return -cache指定的编译结果缓存目录，不使用缓存时为null
+	 */
+	public String getCacheDir() {
+		return cacheDir;
+	}
+
+	/**
+	 * @return 编译结果缓存的大小上限（字节）
+	 */
+	public long getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * 设置编译结果缓存（供CompileServer把命令行上的设置传给每个请求）
+	 */
+	void setCache(String cacheDir, long cacheSize) {
+		this.cacheDir = cacheDir;
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * @return 错误个数的上限，0表示没有上限
+	 */
+	public int getMaxErrors() {
+		return maxErrors;
+	}
+
+	/**
+	 * @return 是否在编译过程中就输出位置已经确定的错误
+	 */
+	public boolean isStreamErrors() {
+		return streamErrors;
+	}
+
+	/**
+	 * @return 检查一个源程序所用的线程数
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @return 是否在单独的线程中做词法分析
+	 */
+	public boolean isPipeline() {
+		return pipeline;
+	}
+
+	/**
+	 * @return 是否先把全部单词识别到TokenBuffer中再做语法分析
+	 */
+	public boolean isTokenBuffer() {
+		return tokenBuffer;
+	}
+
+	/**
+	 * @return -emit-ast指定的语法树文件，不输出语法树时为null
+	 */
+	public String getEmitAstFile() {
+		return emitAstFile;
+	}
+
+	/**
+	 * @return 源程序是否是-emit-ast输出的语法树
+	 */
+	public boolean isLoadAst() {
+		return loadAst;
+	}
+
+	void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	void setErrorReporting(int maxErrors, boolean streamErrors) {
+		this.maxErrors = maxErrors;
+		this.streamErrors = streamErrors;
+	}
+
+	public boolean isServer() {
+		return server;
+	}
+
 	public PrintStream getErr() {
 		return err;
 	}
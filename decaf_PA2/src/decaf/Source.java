@@ -0,0 +1,160 @@
+package decaf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * 一个待编译的源程序<br>
+ * 来自文件或者内存的源程序只在第一次用到时解码一次，词法分析器直接扫描解码得到的字符数组；
+ * 来自输入流的源程序仍然经过Reader读入。
+ */
+public final class Source implements Closeable {
+
+	private String name;
+
+	private InputStream input;
+
+	/**
+	 * 源程序的全部字节，来自输入流时为null
+	 */
+	private ByteBuffer content;
+
+	private char[] chars;
+
+	private int length;
+
+	private Source(String name, InputStream input) {
+		this.name = name;
+		this.input = input;
+	}
+
+	private Source(String name, ByteBuffer content) {
+		this.name = name;
+		this.content = content;
+	}
+
+	/**
+	 * 从文件读入源程序，文件映射到内存中，不经过输入流复制
+	 * 
+	 * @param fileName
+	 *            源文件名
+	 */
+	public static Source fromFile(String fileName) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(new File(fileName), "r");
+		try {
+			FileChannel channel = file.getChannel();
+			// the mapping stays valid after the channel is closed
+			return new Source(fileName, channel.map(
+					FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * 从已经读入内存的字节构造源程序
+	 * 
+	 * @param name
+	 *            源程序的名字，仅用于提示
+	 * @param content
+	 *            源程序的内容
+	 */
+	public static Source fromBytes(String name, byte[] content) {
+		return new Source(name, ByteBuffer.wrap(content));
+	}
+
+	/**
+	 * 从输入流读入源程序
+	 * 
+	 * @param name
+	 *            源程序的名字，仅用于提示
+	 * @param input
+	 *            源程序的输入流
+	 */
+	public static Source fromStream(String name, InputStream input) {
+		return new Source(name, input);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public InputStream getInput() {
+		if (input == null) {
+			input = new ByteArrayInputStream(bytes());
+		}
+		return input;
+	}
+
+	/**
+	 * @return 解码后的源程序，只有前getLength()个字符有效；来自输入流时为null
+	 */
+	public char[] getChars() {
+		decode();
+		return chars;
+	}
+
+	public int getLength() {
+		decode();
+		return length;
+	}
+
+	/**
+	 * 第一次用到字符时才解码，读回语法树时不需要解码
+	 */
+	private void decode() {
+		if (chars != null || content == null) {
+			return;
+		}
+		// same decoding (and replacement of malformed input) as InputStreamReader
+		CharBuffer decoded = Charset.defaultCharset().decode(
+				content.duplicate());
+		chars = decoded.array();
+		length = decoded.limit();
+	}
+
+	/**
+	 * 读入源程序的全部内容，此后getInput()从读入的内容中读
+	 */
+	public byte[] readContent() throws IOException {
+		if (content != null) {
+			return bytes();
+		}
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		byte[] block = new byte[8192];
+		int n;
+		while ((n = input.read(block)) > 0) {
+			buffer.write(block, 0, n);
+		}
+		input.close();
+		input = new ByteArrayInputStream(buffer.toByteArray());
+		return buffer.toByteArray();
+	}
+
+	private byte[] bytes() {
+		ByteBuffer b = content.duplicate();
+		if (b.hasArray() && b.arrayOffset() == 0
+				&& b.array().length == b.remaining()) {
+			return b.array();
+		}
+		byte[] result = new byte[b.remaining()];
+		b.get(result);
+		return result;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (input != null) {
+			input.close();
+		}
+	}
+}
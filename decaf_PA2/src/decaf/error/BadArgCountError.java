@@ -1,22 +1,22 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：function 'gotoMars' expects 1 argument(s) but 3 given<br>
  * PA2
  */
 public class BadArgCountError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String method;
 
 	private int expect;
 
 	private int count;
 
-	public BadArgCountError(Location location, String method, int expect,
+	public BadArgCountError(long position, String method, int expect,
 			int count) {
-		super(location);
+		super(position);
 		this.method = method;
 		this.expect = expect;
 		this.count = count;
@@ -1,7 +1,5 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：incompatible argument 3: int given, bool expected<br>
  * 3表示发生错误的是第三个参数<br>
@@ -9,15 +7,17 @@ import decaf.Location;
  */
 public class BadArgTypeError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private int count;
 
 	private String given;
 
 	private String expect;
 
-	public BadArgTypeError(Location location, int count, String given,
+	public BadArgTypeError(long position, int count, String given,
 			String expect) {
-		super(location);
+		super(position);
 		this.count = count;
 		this.given = given;
 		this.expect = expect;
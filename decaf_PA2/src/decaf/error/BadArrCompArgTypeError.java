@@ -1,17 +1,17 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：array base type must be non-void type<br>
  * PA2
  */
 public class BadArrCompArgTypeError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	String arrtype;
 	String vartype;
-	public BadArrCompArgTypeError (Location location, String arrtype, String vartype) {
-		super(location);
+	public BadArrCompArgTypeError (long position, String arrtype, String vartype) {
+		super(position);
 		this.arrtype = arrtype;
 		this.vartype = vartype;
 	}
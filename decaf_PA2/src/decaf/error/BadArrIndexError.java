@@ -1,15 +1,15 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：array base type must be non-void type<br>
  * PA2
  */
 public class BadArrIndexError extends DecafError {
 
-	public BadArrIndexError(Location location) {
-		super(location);
+	private static final long serialVersionUID = 1L;
+
+	public BadArrIndexError(long position) {
+		super(position);
 	}
 
 	@Override
@@ -1,7 +1,5 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：incompatible argument 3: int[] given, int/bool/string expected<br>
  * 3表示发生错误的是第三个参数<br>
@@ -9,8 +7,10 @@ import decaf.Location;
  */
 public class BadArrOperArgError extends DecafError {
 
-	public BadArrOperArgError(Location location) {
-		super(location);
+	private static final long serialVersionUID = 1L;
+
+	public BadArrOperArgError(long position) {
+		super(position);
 	}
 
 	@Override
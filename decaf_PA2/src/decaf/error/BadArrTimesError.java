@@ -1,15 +1,15 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：array base type must be non-void type<br>
  * PA2
  */
 public class BadArrTimesError extends DecafError {
 
-	public BadArrTimesError(Location location) {
-		super(location);
+	private static final long serialVersionUID = 1L;
+
+	public BadArrTimesError(long position) {
+		super(position);
 	}
 
 	@Override
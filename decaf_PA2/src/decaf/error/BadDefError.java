@@ -1,17 +1,17 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：array base type must be non-void type<br>
  * PA2
  */
 public class BadDefError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	String arrtype;
 	String deftype;
-	public BadDefError(Location location, String arrtype, String deftype) {
-		super(location);
+	public BadDefError(long position, String arrtype, String deftype) {
+		super(position);
 		this.arrtype = arrtype;
 		this.deftype = deftype;
 	}
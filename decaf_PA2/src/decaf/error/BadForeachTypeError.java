@@ -1,7 +1,5 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：incompatible argument 3: int given, bool expected<br>
  * 3表示发生错误的是第三个参数<br>
@@ -9,14 +7,15 @@ import decaf.Location;
  */
 public class BadForeachTypeError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
 
 	private String given;
 
 	private String expect;
 
-	public BadForeachTypeError(Location location, String given,
+	public BadForeachTypeError(long position, String given,
 			String expect) {
-		super(location);
+		super(position);
 		this.given = given;
 		this.expect = expect;
 	}
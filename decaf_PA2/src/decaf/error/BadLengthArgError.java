@@ -1,17 +1,17 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：function 'length' expects 0 argument(s) but 2 given<br>
  * PA2
  */
 public class BadLengthArgError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private int count;
 
-	public BadLengthArgError(Location location, int count) {
-		super(location);
+	public BadLengthArgError(long position, int count) {
+		super(position);
 		this.count = count;
 	}
 
@@ -1,15 +1,15 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：'length' can only be applied to arrays<br>
  * PA2
  */
 public class BadLengthError extends DecafError {
 
-	public BadLengthError(Location location) {
-		super(location);
+	private static final long serialVersionUID = 1L;
+
+	public BadLengthError(long position) {
+		super(position);
 	}
 
 	@Override
@@ -1,15 +1,15 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：new array length must be an integer<br>
  * PA2
  */
 public class BadNewArrayLength extends DecafError {
 
-	public BadNewArrayLength(Location location) {
-		super(location);
+	private static final long serialVersionUID = 1L;
+
+	public BadNewArrayLength(long position) {
+		super(position);
 	}
 
 	@Override
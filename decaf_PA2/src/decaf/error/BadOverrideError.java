@@ -1,7 +1,5 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：overriding method 'tooold' doesn't match the type signature in class
  * 'duckyaya'<br>
@@ -9,13 +7,15 @@ import decaf.Location;
  */
 public class BadOverrideError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String funcName;
 
 	private String parentName;
 
-	public BadOverrideError(Location location, String funcName,
+	public BadOverrideError(long position, String funcName,
 			String parentName) {
-		super(location);
+		super(position);
 		this.funcName = funcName;
 		this.parentName = parentName;
 	}
@@ -1,19 +1,19 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：incompatible return: int[] given, int expected<br>
  * PA2
  */
 public class BadReturnTypeError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String expect;
 
 	private String given;
 
-	public BadReturnTypeError(Location location, String expect, String given) {
-		super(location);
+	public BadReturnTypeError(long position, String expect, String given) {
+		super(position);
 		this.expect = expect;
 		this.given = given;
 	}
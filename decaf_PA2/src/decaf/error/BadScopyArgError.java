@@ -1,7 +1,5 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：incompatible argument 3: int[] given, int/bool/string expected<br>
  * 3表示发生错误的是第三个参数<br>
@@ -9,12 +7,14 @@ import decaf.Location;
  */
 public class BadScopyArgError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String count;
 
 	private String type;
 
-	public BadScopyArgError(Location location, String count, String type) {
-		super(location);
+	public BadScopyArgError(long position, String count, String type) {
+		super(position);
 		this.count = count;
 		this.type = type;
 	}
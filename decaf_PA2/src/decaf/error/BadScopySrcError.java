@@ -1,7 +1,5 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：incompatible argument 3: int[] given, int/bool/string expected<br>
  * 3表示发生错误的是第三个参数<br>
@@ -9,13 +7,15 @@ import decaf.Location;
  */
 public class BadScopySrcError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String count;
 
 	private String dsttype;
 	private String srctype;
 
-	public BadScopySrcError(Location location, String dsttype, String srctype) {
-		super(location);
+	public BadScopySrcError(long position, String dsttype, String srctype) {
+		super(position);
 		this.count = count;
 		this.dsttype = dsttype;
 		this.srctype = srctype;
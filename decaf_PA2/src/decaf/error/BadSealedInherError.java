@@ -1,15 +1,15 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：illegal class inheritance (should be a cyclic)<br>
  * PA2
  */
 public class BadSealedInherError extends DecafError {
 
-	public BadSealedInherError(Location location) {
-		super(location);
+	private static final long serialVersionUID = 1L;
+
+	public BadSealedInherError(long position) {
+		super(position);
 	}
 
 	@Override
@@ -1,15 +1,15 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：test expression must have bool type<br>
  * PA2
  */
 public class BadTestExpr extends DecafError {
 
-	public BadTestExpr(Location location) {
-		super(location);
+	private static final long serialVersionUID = 1L;
+
+	public BadTestExpr(long position) {
+		super(position);
 	}
 
 	@Override
@@ -1,17 +1,17 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：cannot declare identifier 'boost' as void type<br>
  * PA2
  */
 public class BadVarTypeError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String name;
 
-	public BadVarTypeError(Location location, String name) {
-		super(location);
+	public BadVarTypeError(long position, String name) {
+		super(position);
 		this.name = name;
 	}
 
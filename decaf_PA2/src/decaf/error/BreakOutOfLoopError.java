@@ -1,15 +1,15 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：'break' is only allowed inside a loop<br>
  * PA2
  */
 public class BreakOutOfLoopError extends DecafError {
 
-	public BreakOutOfLoopError(Location location) {
-		super(location);
+	private static final long serialVersionUID = 1L;
+
+	public BreakOutOfLoopError(long position) {
+		super(position);
 	}
 
 	@Override
@@ -1,17 +1,17 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：class 'zig' not found<br>
  * PA2
  */
 public class ClassNotFoundError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String name;
 
-	public ClassNotFoundError(Location location, String name) {
-		super(location);
+	public ClassNotFoundError(long position, String name) {
+		super(position);
 		this.name = name;
 	}
 
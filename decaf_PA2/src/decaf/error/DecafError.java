@@ -1,28 +1,64 @@
 package decaf.error;
 
+import java.io.Serializable;
+
 import decaf.Location;
 
 /**
- * decaf中所有编译错误的基类
+ * decaf中所有编译错误的基类<br>
+ * 错误可以序列化，以便增量检查把它们保存到下一次编译。
  */
-public abstract class DecafError {
+public abstract class DecafError implements Serializable, Cloneable {
+
+	private static final long serialVersionUID = 1L;
 
 	/**
-	 * 编译错误所在的位置
+	 * 编译错误所在的位置，压缩方式见Location.pack
 	 */
-	protected Location location;
+	protected long position;
 
 	/**
 	 * @return 返回错误的具体描述
 	 */
 	protected abstract String getErrMsg();
 
-	public DecafError(Location location) {
-		this.location = location;
+	public DecafError(long position) {
+		this.position = position;
+	}
+
+	public long getPosition() {
+		return position;
 	}
 
 	public Location getLocation() {
-		return location;
+		return Location.of(position);
+	}
+
+	/**
+	 * 增量检查重放一个移动了位置的类中的错误时使用
+	 *
+	 * @return 位置下移lines行的同一个错误
+	 */
+	public DecafError moved(int lines) {
+		DecafError error;
+		try {
+			error = (DecafError) clone();
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e);
+		}
+		error.position = moved(position, lines);
+		return error;
+	}
+
+	/**
+	 * @return position下移lines行的位置，NO_POSITION不变
+	 */
+	protected static long moved(long position, int lines) {
+		if (position == Location.NO_POSITION) {
+			return position;
+		}
+		return Location.pack(Location.lineOf(position) + lines, Location
+				.columnOf(position));
 	}
 
 	/**
@@ -30,10 +66,10 @@ public abstract class DecafError {
 	 */
 	@Override
 	public String toString() {
-		if (location.equals(Location.NO_LOCATION)) {
+		if (position == Location.NO_POSITION) {
 			return "*** Error: " + getErrMsg();
 		} else {
-			return "*** Error at " + location + ": " + getErrMsg();
+			return "*** Error at " + Location.of(position) + ": " + getErrMsg();
 		}
 	}
 
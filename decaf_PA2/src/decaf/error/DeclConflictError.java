@@ -8,20 +8,32 @@ import decaf.Location;
  */
 public class DeclConflictError extends DecafError {
 
-	private Location earlier;
+	private static final long serialVersionUID = 1L;
+
+	private long earlier;
 
 	private String name;
 
-	public DeclConflictError(Location location, String name, Location earlier) {
-		super(location);
+	public DeclConflictError(long position, String name, long earlier) {
+		super(position);
 		this.name = name;
 		this.earlier = earlier;
 	}
 
+	/**
+	 * 增量检查只重放方法体中的错误，先前的声明与它在同一个类中，一起移动
+	 */
+	@Override
+	public DecafError moved(int lines) {
+		DeclConflictError error = (DeclConflictError) super.moved(lines);
+		error.earlier = moved(earlier, lines);
+		return error;
+	}
+
 	@Override
 	protected String getErrMsg() {
 		return "declaration of '" + name
-				+ "' here conflicts with earlier declaration at " + earlier;
+				+ "' here conflicts with earlier declaration at " + Location.of(earlier);
 	}
 
 }
@@ -0,0 +1,14 @@
+package decaf.error;
+
+/**
+ * 报告的错误达到-max-errors给出的上限时抛出，中止当前阶段<br>
+ * 由Compiler捕获，已经报告的错误照常输出。
+ */
+public class ErrorLimitException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ErrorLimitException(int limit) {
+		super("error limit " + limit + " reached");
+	}
+}
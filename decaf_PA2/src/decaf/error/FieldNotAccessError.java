@@ -1,19 +1,19 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：field 'homework' of 'Others' not accessible here<br>
  * PA2
  */
 public class FieldNotAccessError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String name;
 
 	private String owner;
 
-	public FieldNotAccessError(Location location, String name, String owner) {
-		super(location);
+	public FieldNotAccessError(long position, String name, String owner) {
+		super(position);
 		this.name = name;
 		this.owner = owner;
 	}
@@ -1,19 +1,19 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：field 'money' not found in 'Student'<br>
  * PA2
  */
 public class FieldNotFoundError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String name;
 
 	private String owner;
 
-	public FieldNotFoundError(Location location, String name, String owner) {
-		super(location);
+	public FieldNotFoundError(long position, String name, String owner) {
+		super(position);
 		this.name = name;
 		this.owner = owner;
 	}
@@ -1,22 +1,22 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：incompatible operands: int + bool<br>
  * PA2
  */
 public class IncompatBinOpError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String left;
 
 	private String right;
 
 	private String op;
 
-	public IncompatBinOpError(Location location, String left, String op,
+	public IncompatBinOpError(long position, String left, String op,
 			String right) {
-		super(location);
+		super(position);
 		this.left = left;
 		this.right = right;
 		this.op = op;
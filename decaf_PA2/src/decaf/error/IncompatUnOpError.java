@@ -1,19 +1,19 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：incompatible operand: - int[]<br>
  * PA2
  */
 public class IncompatUnOpError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String op;
 
 	private String expr;
 
-	public IncompatUnOpError(Location location, String op, String expr) {
-		super(location);
+	public IncompatUnOpError(long position, String op, String expr) {
+		super(position);
 		this.op = op;
 		this.expr = expr;
 	}
@@ -1,17 +1,17 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：integer literal 112233445566778899 is too large<br>
  * PA1
  */
 public class IntTooLargeError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String val;
 
-	public IntTooLargeError(Location location, String val) {
-		super(location);
+	public IntTooLargeError(long position, String val) {
+		super(position);
 		this.val = val;
 	}
 
@@ -1,16 +1,16 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
- * 仅供Parser的yyerror函数使用
+ * 只有一条消息的错误，供Parser的yyerror函数和读回语法树失败时使用
  */
 public class MsgError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String msg;
 
-	public MsgError(Location location, String msg) {
-		super(location);
+	public MsgError(long position, String msg) {
+		super(position);
 		this.msg = msg;
 	}
 
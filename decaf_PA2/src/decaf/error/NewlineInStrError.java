@@ -1,17 +1,17 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：illegal newline in string constant "this is stri"<br>
  * PA1
  */
 public class NewlineInStrError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String str;
 
-	public NewlineInStrError(Location location, String str) {
-		super(location);
+	public NewlineInStrError(long position, String str) {
+		super(position);
 		this.str = str;
 	}
 
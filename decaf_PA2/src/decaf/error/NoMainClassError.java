@@ -8,10 +8,12 @@ import decaf.Location;
  */
 public class NoMainClassError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String name;
 
 	public NoMainClassError(String name) {
-		super(Location.NO_LOCATION);
+		super(Location.NO_POSITION);
 		this.name = name;
 	}
 
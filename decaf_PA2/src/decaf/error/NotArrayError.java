@@ -1,15 +1,15 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：[] can only be applied to arrays<br>
  * PA2
  */
 public class NotArrayError extends DecafError {
 
-	public NotArrayError(Location location) {
-		super(location);
+	private static final long serialVersionUID = 1L;
+
+	public NotArrayError(long position) {
+		super(position);
 	}
 
 	@Override
@@ -1,16 +1,16 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * string is not a class type.
  */
 public class NotClassError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String type;
 
-	public NotClassError(String type, Location location) {
-		super(location);
+	public NotClassError(String type, long position) {
+		super(position);
 		this.type = type;
 	}
 
@@ -1,7 +1,5 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：cannot access field 'homework' from 'Others'<br>
  * 指通过类名来访问类成员，Others是类名<br>
@@ -11,12 +9,14 @@ import decaf.Location;
  */
 public class NotClassFieldError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String name;
 
 	private String owner;
 
-	public NotClassFieldError(Location location, String name, String owner) {
-		super(location);
+	public NotClassFieldError(long position, String name, String owner) {
+		super(position);
 		this.name = name;
 		this.owner = owner;
 	}
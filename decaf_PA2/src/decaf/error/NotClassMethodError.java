@@ -1,19 +1,19 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：'orz' is not a method in class 'Person'<br>
  * PA2
  */
 public class NotClassMethodError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String name;
 
 	private String owner;
 
-	public NotClassMethodError(Location location, String name, String owner) {
-		super(location);
+	public NotClassMethodError(long position, String name, String owner) {
+		super(position);
 		this.name = name;
 		this.owner = owner;
 	}
@@ -1,17 +1,17 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：overriding variable is not allowed for var 'kittyboy'<br>
  * PA2
  */
 public class OverridingVarError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String name;
 
-	public OverridingVarError(Location location, String name) {
-		super(location);
+	public OverridingVarError(long position, String name) {
+		super(position);
 		this.name = name;
 	}
 
@@ -1,19 +1,19 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * can not reference a non-static field 'kylin' from static method from 'dove'
  * PA2
  */
 public class RefNonStaticError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String from;
 
 	private String ref;
 
-	public RefNonStaticError(Location location, String from, String ref) {
-		super(location);
+	public RefNonStaticError(long position, String from, String ref) {
+		super(position);
 		this.from = from;
 		this.ref = ref;
 	}
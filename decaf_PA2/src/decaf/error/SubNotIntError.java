@@ -1,15 +1,15 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：array subscript must be an integer<br>
  * PA2
  */
 public class SubNotIntError extends DecafError {
 
-	public SubNotIntError(Location location) {
-		super(location);
+	private static final long serialVersionUID = 1L;
+
+	public SubNotIntError(long position) {
+		super(position);
 	}
 
 	@Override
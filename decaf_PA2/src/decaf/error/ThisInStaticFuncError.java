@@ -1,15 +1,15 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * can not use this in static function
  * PA2
  */
 public class ThisInStaticFuncError extends DecafError {
 
-	public ThisInStaticFuncError(Location location) {
-		super(location);
+	private static final long serialVersionUID = 1L;
+
+	public ThisInStaticFuncError(long position) {
+		super(position);
 	}
 
 	@Override
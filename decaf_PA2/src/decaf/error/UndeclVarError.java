@@ -1,17 +1,17 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：undeclared variable 'python'<br>
  * PA2
  */
 public class UndeclVarError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String name;
 
-	public UndeclVarError(Location location, String name) {
-		super(location);
+	public UndeclVarError(long position, String name) {
+		super(position);
 		this.name = name;
 	}
 
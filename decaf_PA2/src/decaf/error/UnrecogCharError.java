@@ -1,17 +1,17 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：unrecognized char: '@'<br>
  * PA1
  */
 public class UnrecogCharError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private char c;
 
-	public UnrecogCharError(Location location, char c) {
-		super(location);
+	public UnrecogCharError(long position, char c) {
+		super(position);
 		this.c = c;
 	}
 
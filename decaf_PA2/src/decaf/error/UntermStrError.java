@@ -1,17 +1,17 @@
 package decaf.error;
 
-import decaf.Location;
-
 /**
  * example：unterminated string constant: "this is str"<br>
  * PA1
  */
 public class UntermStrError extends DecafError {
 
+	private static final long serialVersionUID = 1L;
+
 	private String str;
 
-	public UntermStrError(Location location, String str) {
-		super(location);
+	public UntermStrError(long position, String str) {
+		super(position);
 		this.str = str;
 	}
 
@@ -1,68 +1,261 @@
 package decaf.frontend;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
-import decaf.Driver;
+import decaf.CompilationContext;
 import decaf.Location;
 import decaf.error.DecafError;
 import decaf.error.IntTooLargeError;
-import decaf.tree.Tree;
+import decaf.utils.Counters;
+import decaf.utils.Name;
+import decaf.utils.Names;
 
 public abstract class BaseLexer {
 
 	private Parser parser;
 
+	private CompilationContext context;
+
+	private Names names;
+
+	/**
+	 * 增量检查时每个顶层类的词法单元散列值，不做增量检查时为null
+	 */
+	private List<Long> classHashes;
+
+	private long classHash;
+
+	/**
+	 * 当前顶层类开始的行号，类中单词的行号都相对于它计入散列值
+	 */
+	private int classLine;
+
+	private int braceDepth;
+
+	private boolean inClassHeader;
+
+	/**
+	 * 是否在单独的线程中为流水线方式的语法分析器产生单词
+	 */
+	private boolean pipelined;
+
+	/**
+	 * 流水线方式下本次yylex调用中报告的错误，由语法分析线程重放
+	 */
+	private List<DecafError> deferredErrors;
+
+	/**
+	 * 流水线方式下本次yylex调用中设置的语义值
+	 */
+	private SemValue deferredValue;
+
+	/**
+	 * 识别出的单词放入的单词序列，为null时直接交给语法分析器
+	 */
+	private TokenBuffer tokens;
+
 	public void setParser(Parser parser) {
 		this.parser = parser;
 	}
 
+	public void setContext(CompilationContext context) {
+		this.context = context;
+		names = context.getNames();
+		if (context.getOption().getIncrementalFile() != null) {
+			classHashes = new ArrayList<Long>();
+		}
+	}
+
+	/**
+	 * @return 按出现顺序排列的每个顶层类的散列值，不做增量检查时为null
+	 */
+	public List<Long> getClassHashes() {
+		return classHashes;
+	}
+
 	abstract int yylex() throws IOException;
 
-	abstract Location getLocation();
+	/**
+	 * @return 词法分析器当前的位置，压缩方式见Location.pack
+	 */
+	abstract long getPosition();
+
+	abstract int getLine();
+
+	abstract int getColumn();
 
 	protected void issueError(DecafError error) {
-		Driver.getDriver().issueError(error);
+		if (tokens != null) {
+			tokens.error(error);
+			return;
+		}
+		if (pipelined) {
+			if (deferredErrors == null) {
+				deferredErrors = new ArrayList<DecafError>();
+			}
+			deferredErrors.add(error);
+			return;
+		}
+		context.issueError(error);
 	}
 
-	protected void setSemantic(Location where, SemValue v) {
-		v.loc = where;
-		parser.yylval = v;
+	protected void setSemantic(long where, SemValue v) {
+		v.pos = where;
+		if (pipelined) {
+			deferredValue = v;
+		} else {
+			// the parser reports errors at this token or later
+			context.advance(where);
+			parser.yylval = v;
+		}
 	}
 
-	protected int keyword(int code) {
-		setSemantic(getLocation(), SemValue.createKeyword(code));
+	/**
+	 * 识别出一个单词：放入单词序列，或者创建语义值交给语法分析器
+	 * 
+	 * @param value
+	 *            标识符的名字或者常量的值，关键字和操作符为null
+	 */
+	private int token(int code, int line, int column, Object value) {
+		if (classHashes != null) {
+			hashToken(code, line, column, value);
+		}
+		if (tokens != null) {
+			tokens.token(line, column, value);
+			return code;
+		}
+		SemValue v;
+		if (code == Parser.IDENTIFIER) {
+			v = SemValue.createIdentifier((Name) value);
+		} else if (code == Parser.LITERAL) {
+			v = SemValue.createLiteral(value);
+		} else {
+			v = SemValue.createKeyword(code);
+		}
+		setSemantic(Location.pack(line, column), v);
 		return code;
 	}
 
+	/**
+	 * 把一个词法单元（种类、位置和文本）计入它所在的顶层类的散列值<br>
+	 * 顶层类从花括号深度为0处的class或sealed开始，到与之匹配的'}'结束。
+	 * 行号取相对于类开始处的差，所以在前面的类中增删行不会改变后面各类的散列值。
+	 */
+	private void hashToken(int code, int line, int column, Object value) {
+		if (braceDepth == 0 && !inClassHeader
+				&& (code == Parser.CLASS || code == Parser.SEALED)) {
+			inClassHeader = true;
+			classHash = 0xcbf29ce484222325L;
+			classLine = line;
+		}
+		classHash = mix(classHash, code);
+		classHash = mix(classHash, line - classLine);
+		classHash = mix(classHash, column);
+		if (code == Parser.IDENTIFIER) {
+			classHash = mix(classHash, value.toString());
+		} else if (code == Parser.LITERAL) {
+			classHash = mix(classHash, TokenBuffer.tagOf(value));
+			classHash = mix(classHash, String.valueOf(value));
+		} else if (code == '{') {
+			inClassHeader = false;
+			braceDepth++;
+		} else if (code == '}' && --braceDepth == 0) {
+			classHashes.add(classHash);
+		}
+	}
+
+	private static long mix(long hash, int value) {
+		return (hash ^ value) * 0x100000001b3L;
+	}
+
+	private static long mix(long hash, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			hash = mix(hash, value.charAt(i));
+		}
+		return mix(hash, -1);
+	}
+
+	protected int keyword(int code) {
+		return token(code, getLine(), getColumn(), null);
+	}
+
 	protected int operator(int code) {
-		setSemantic(getLocation(), SemValue.createOperator(code));
-		return code;
+		return token(code, getLine(), getColumn(), null);
 	}
 
 	protected int boolConst(boolean bval) {
-		setSemantic(getLocation(), SemValue.createLiteral(Tree.BOOL, bval));
-		return Parser.LITERAL;
+		return token(Parser.LITERAL, getLine(), getColumn(), bval);
 	}
 
-	protected int StringConst(String sval, Location loc) {
-		setSemantic(loc, SemValue.createLiteral(Tree.STRING, sval));
-		return Parser.LITERAL;
+	protected int StringConst(String sval, long pos) {
+		return token(Parser.LITERAL, Location.lineOf(pos), Location
+				.columnOf(pos), sval);
 	}
 
 	protected int intConst(String ival) {
 		try {
-			setSemantic(getLocation(), SemValue.createLiteral(
-					Tree.INT, Integer.decode(ival)));
+			token(Parser.LITERAL, getLine(), getColumn(), Integer.decode(ival));
 		} catch (NumberFormatException e) {
-			Driver.getDriver().issueError(
-					new IntTooLargeError(getLocation(), ival));
+			issueError(new IntTooLargeError(getPosition(), ival));
 		}
 		return Parser.LITERAL;
 	}
 
-	protected int identifier(String name) {
-		setSemantic(getLocation(), SemValue.createIdentifier(name));
-		return Parser.IDENTIFIER;
+	/**
+	 * 识别出一个标识符，名字直接从词法分析器的缓冲区中查找，不创建字符串
+	 */
+	protected int identifier(char[] buffer, int start, int length) {
+		return token(Parser.IDENTIFIER, getLine(), getColumn(), names
+				.fromChars(buffer, start, length));
+	}
+
+	/**
+	 * 识别全部单词放入buffer，直到输入结束<br>
+	 * 每次yylex调用中报告的错误记在它返回的单词下，由语法分析器取单词时报告。
+	 */
+	void fill(TokenBuffer buffer) {
+		tokens = buffer;
+		int code;
+		do {
+			try {
+				code = yylex();
+			} catch (Exception e) {
+				code = -1;
+				buffer.exception(e.getMessage());
+			}
+			buffer.end(code, getLine(), getColumn());
+			if (code != -1) {
+				Counters.count(Counters.TOKEN);
+			}
+		} while (code != 0);
+		tokens = null;
+	}
+
+	/**
+	 * 在词法分析线程中不断识别单词放入ring，直到输入结束或者语法分析器关闭ring<br>
+	 * 每次yylex调用的返回值、语义值、报告的错误和结束时的位置一起放入ring，
+	 * 词法分析器本身不再访问语法分析器和CompilationContext。
+	 */
+	void produce(TokenRing ring) {
+		pipelined = true;
+		TokenRing.Token token;
+		do {
+			token = new TokenRing.Token();
+			try {
+				token.code = yylex();
+			} catch (Throwable e) {
+				token.code = -1;
+				token.exception = e;
+			}
+			token.value = deferredValue;
+			token.errors = deferredErrors;
+			token.position = getPosition();
+			deferredValue = null;
+			deferredErrors = null;
+		} while (ring.put(token) && token.code != 0
+				&& !(token.exception instanceof Error));
 	}
 
 	public void diagnose() throws IOException {
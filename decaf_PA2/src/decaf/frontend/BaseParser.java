@@ -1,36 +1,102 @@
 package decaf.frontend;
 
-import decaf.Driver;
+import java.util.List;
+
+import decaf.CompilationContext;
 import decaf.tree.Tree;
 import decaf.error.DecafError;
+import decaf.error.ErrorLimitException;
 import decaf.error.MsgError;
+import decaf.utils.Counters;
 
 public abstract class BaseParser {
 	private Lexer lexer;
 
+	private CompilationContext context;
+
 	protected Tree.TopLevel tree;
 
+	/**
+	 * 流水线方式下从词法分析线程取单词的缓冲区，同步方式下为null
+	 */
+	private TokenRing ring;
+
+	/**
+	 * 流水线方式下最近取出的单词
+	 */
+	private TokenRing.Token last;
+
+	/**
+	 * 预先识别好的单词序列，为null时向词法分析器要单词
+	 */
+	private TokenBuffer tokens;
+
+	/**
+	 * 下一个要取的单词和它的第一个错误
+	 */
+	private int cursor;
+
+	private int errorCursor;
+
 	public void setLexer(Lexer lexer) {
 		this.lexer = lexer;
 	}
 
+	public void setContext(CompilationContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * 选择流水线方式：parseFile时词法分析在单独的线程中进行，单词经有界的环形缓冲区传给语法分析器<br>
+	 * 报告的错误和语法分析的结果与同步方式完全相同。
+	 */
+	public void setPipelined(boolean pipelined) {
+		ring = pipelined ? new TokenRing(1024) : null;
+	}
+
+	/**
+	 * 从预先识别好的单词序列中取单词，不再调用词法分析器<br>
+	 * 报告的错误和语法分析的结果与同步方式完全相同。
+	 */
+	public void setTokens(TokenBuffer tokens) {
+		this.tokens = tokens;
+		cursor = 0;
+		errorCursor = 0;
+	}
+
 	public Tree.TopLevel getTree() {
 		return tree;
 	}
 
 	protected void issueError(DecafError error) {
-		Driver.getDriver().issueError(error);
+		context.issueError(error);
 	}
 
 	void yyerror(String msg) {
-		Driver.getDriver().issueError(
-				new MsgError(lexer.getLocation(), msg));
+		long position;
+		if (tokens != null) {
+			position = tokens.getMark(cursor - 1);
+		} else if (ring != null) {
+			position = last.position;
+		} else {
+			position = lexer.getPosition();
+		}
+		issueError(new MsgError(position, msg));
 	}
 
 	int yylex() {
+		if (tokens != null) {
+			return next();
+		}
+		if (ring != null) {
+			return take();
+		}
 		int token = -1;
 		try {
 			token = lexer.yylex();
+			Counters.count(Counters.TOKEN);
+		} catch (ErrorLimitException e) {
+			throw e;
 		} catch (Exception e) {
 			yyerror("lexer error: " + e.getMessage());
 		}
@@ -38,13 +104,121 @@ public abstract class BaseParser {
 		return token;
 	}
 
+	/**
+	 * 从ring中取出下一个单词，按同步方式下的顺序重放词法分析器报告的错误和设置的语义值
+	 */
+	private int take() {
+		if (last != null && last.code == 0) {
+			return 0;
+		}
+		last = ring.take();
+		if (last.errors != null) {
+			for (DecafError error : last.errors) {
+				issueError(error);
+			}
+		}
+		if (last.value != null) {
+			context.advance(last.value.pos);
+			setSemantic(last.value);
+		}
+		if (last.exception instanceof Error) {
+			throw (Error) last.exception;
+		}
+		if (last.exception != null) {
+			yyerror("lexer error: " + last.exception.getMessage());
+		} else {
+			Counters.count(Counters.TOKEN);
+		}
+		return last.code;
+	}
+
+	/**
+	 * 从单词序列中取出下一个单词，按同步方式下的顺序报告错误、设置语义值
+	 */
+	private int next() {
+		if (cursor == tokens.size()) {
+			return 0;
+		}
+		int i = cursor++;
+		int n = tokens.countErrors(errorCursor, i);
+		for (int k = 0; k < n; k++) {
+			issueError(tokens.getError(errorCursor++));
+		}
+		if (tokens.hasSemantic(i)) {
+			context.advance(tokens.position(i));
+			setSemantic(tokens.getSemantic(i));
+		}
+		int code = tokens.getCode(i);
+		// tokens in the buffer were counted when they were scanned
+		if (code == -1) {
+			yyerror("lexer error: " + tokens.getValue(i));
+		}
+		return code;
+	}
+
 	abstract int yyparse();
 
+	/**
+	 * 设置当前单词的语义值（即yylval）
+	 */
+	abstract void setSemantic(SemValue v);
+
 	public Tree.TopLevel parseFile() {
-		yyparse();
+		if (ring == null) {
+			yyparse();
+		} else {
+			parsePipelined();
+		}
+		List<Long> hashes = lexer.getClassHashes();
+		if (tree != null && hashes != null
+				&& hashes.size() == tree.classes.size()) {
+			for (int i = 0; i < hashes.size(); i++) {
+				tree.classes.get(i).sourceHash = hashes.get(i);
+			}
+		}
 		return tree;
 	}
 
+	private void parsePipelined() {
+		final long[][] work = new long[1][];
+		Thread producer = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				long[] before = Counters.snapshot();
+				try {
+					lexer.produce(ring);
+				} finally {
+					work[0] = Counters.since(before);
+				}
+			}
+
+		}, "decaf-lexer");
+		producer.setDaemon(true);
+		producer.start();
+		try {
+			yyparse();
+		} finally {
+			// the parser may stop before the end of input
+			ring.close();
+			boolean interrupted = false;
+			while (producer.isAlive()) {
+				try {
+					producer.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			// the work of the lexer thread belongs to the parse phase
+			if (work[0] != null) {
+				Counters.add(work[0]);
+			}
+		}
+	}
+
 	/**
 	 * 获得操作符的字符串表示
 	 * 
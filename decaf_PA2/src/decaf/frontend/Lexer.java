@@ -1,4 +1,4 @@
-/* The following code was generated by JFlex 1.4.1 on 18-12-17 上午11:51 */
+/* The following code was generated by JFlex 1.4.1 on 10/17/26, 6:39 PM */
 
 /*
  * 本文件是构造Decaf编译器所需要的JFlex输入脚本。
@@ -17,7 +17,7 @@ import decaf.utils.MiscUtils;
 /**
  * This class is a scanner generated by 
  * <a href="http://www.jflex.de/">JFlex</a> 1.4.1
- * on 18-12-17 上午11:51 from the specification file
+ * on 10/17/26, 6:39 PM from the specification file
  * <tt>src/decaf/frontend/Lexer.l</tt>
  */
 public class Lexer extends BaseLexer {
@@ -152,11 +152,35 @@ public class Lexer extends BaseLexer {
   private boolean zzEOFDone;
 
   /* user code: */
-	private Location sloc = null;
+	private long sloc;
 	private StringBuilder buffer = new StringBuilder();
 
-	public Location getLocation() {
-		return new decaf.Location(yyline + 1, yycolumn + 1);
+	public long getPosition() {
+		return Location.pack(yyline + 1, yycolumn + 1);
+	}
+
+	int getLine() {
+		return yyline + 1;
+	}
+
+	int getColumn() {
+		return yycolumn + 1;
+	}
+
+	/**
+	 * 直接扫描已经全部解码的源程序<br>
+	 * content就是扫描用的缓冲区，开始时就处于输入结束的状态，所以不会再从Reader复制或者扩充缓冲区。
+	 *
+	 * @param content
+	 *            源程序，扫描过程中不会修改
+	 * @param length
+	 *            content中有效字符的个数
+	 */
+	public Lexer(char[] content, int length) {
+		this((java.io.Reader) null);
+		zzBuffer = content;
+		zzEndRead = length;
+		zzAtEOF = true;
 	}
 
 
@@ -3653,68 +3677,68 @@ public class Lexer extends BaseLexer {
           { return operator(Parser.FORLEFT);
           }
         case 54: break;
+        case 4: 
+          { return identifier(zzBuffer, zzStartRead, zzMarkedPos - zzStartRead);
+          }
+        case 55: break;
         case 23: 
           { buffer.append('\t');
           }
-        case 55: break;
+        case 56: break;
         case 41: 
           { return boolConst(false);
           }
-        case 56: break;
+        case 57: break;
         case 37: 
           { return keyword(Parser.BREAK);
           }
-        case 57: break;
+        case 58: break;
         case 31: 
           { return keyword(Parser.VOID);
           }
-        case 58: break;
+        case 59: break;
         case 24: 
           { buffer.append('"');
           }
-        case 59: break;
+        case 60: break;
         case 39: 
           { return keyword(Parser.WHILE);
           }
-        case 60: break;
+        case 61: break;
         case 36: 
           { return keyword(Parser.ELSE);
           }
-        case 61: break;
-        case 4: 
-          { return identifier(yytext());
-          }
         case 62: break;
         case 38: 
           { return keyword(Parser.SCOPY);
           }
         case 63: break;
+        case 6: 
+          { sloc = getPosition();		  
+					  yybegin(S);
+					  buffer = new StringBuilder();
+          }
+        case 64: break;
         case 25: 
           { buffer.append('\\');
           }
-        case 64: break;
+        case 65: break;
         case 34: 
           { return keyword(Parser.THIS);
           }
-        case 65: break;
+        case 66: break;
         case 18: 
           { return keyword(Parser.IF);
           }
-        case 66: break;
+        case 67: break;
         case 12: 
           { return operator(Parser.EQUAL);
           }
-        case 67: break;
+        case 68: break;
         case 9: 
           { yybegin(YYINITIAL);
 					  return StringConst(buffer.toString(), sloc);
           }
-        case 68: break;
-        case 6: 
-          { sloc = getLocation();		  
-					  yybegin(S);
-					  buffer = new StringBuilder();
-          }
         case 69: break;
         case 35: 
           { return keyword(Parser.BOOL);
@@ -3792,45 +3816,45 @@ public class Lexer extends BaseLexer {
           { return keyword(Parser.VAR);
           }
         case 88: break;
+        case 1: 
+          { issueError(new UnrecogCharError(getPosition(), yycharat(0)));
+          }
+        case 89: break;
         case 15: 
           { return operator(Parser.NOT_EQUAL);
           }
-        case 89: break;
+        case 90: break;
         case 30: 
           { return operator(Parser.GUARDED);
           }
-        case 90: break;
+        case 91: break;
         case 48: 
           { return keyword(Parser.EXTENDS);
           }
-        case 91: break;
+        case 92: break;
         case 5: 
           { return operator((int)yycharat(0));
           }
-        case 92: break;
+        case 93: break;
         case 33: 
           { return boolConst(true);
           }
-        case 93: break;
+        case 94: break;
         case 50: 
           { return keyword(Parser.READ_LINE);
           }
-        case 94: break;
+        case 95: break;
         case 29: 
           { return keyword(Parser.FOR);
           }
-        case 95: break;
+        case 96: break;
         case 20: 
           { return operator(Parser.FORRIGHT);
           }
-        case 96: break;
+        case 97: break;
         case 49: 
           { return keyword(Parser.FOREACH);
           }
-        case 97: break;
-        case 1: 
-          { issueError(new UnrecogCharError(getLocation(), yycharat(0)));
-          }
         case 98: break;
         case 2: 
           { /* Just ignore */
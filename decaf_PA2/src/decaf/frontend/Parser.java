@@ -20,11 +20,12 @@
 //#line 11 "Parser.y"
 package decaf.frontend;
 
+import decaf.Location;
 import decaf.tree.Tree;
 import decaf.tree.Tree.*;
 import decaf.error.*;
 import java.util.*;
-//#line 25 "Parser.java"
+//#line 26 "Parser.java"
 interface ReduceListener {
   public boolean onReduce(String rule);
 }
@@ -858,7 +859,7 @@ final static String yyrule[] = {
 "PrintStmt : PRINT '(' ExprList ')'",
 };
 
-//#line 556 "Parser.y"
+//#line 554 "Parser.y"
     
 	/**
 	 * 打印当前归约所用的语法规则<br>
@@ -877,11 +878,15 @@ final static String yyrule[] = {
 		return false;
     }
     
+    void setSemantic(SemValue v) {
+		yylval = v;
+	}
+
     public void diagnose() {
 		addReduceListener(this);
 		yyparse();
 	}
-//#line 824 "Parser.java"
+//#line 829 "Parser.java"
 //###############################################################
 // method: yylexdebug : check lexer state
 //###############################################################
@@ -1033,605 +1038,597 @@ boolean doaction;
       {
 //########## USER-SUPPLIED ACTIONS ##########
 case 1:
-//#line 59 "Parser.y"
+//#line 60 "Parser.y"
 {
-						tree = new Tree.TopLevel(val_peek(0).clist, val_peek(0).loc);
+						tree = new Tree.TopLevel(val_peek(0).clist(), val_peek(0).pos);
 					}
 break;
 case 2:
-//#line 65 "Parser.y"
+//#line 66 "Parser.y"
 {
-						yyval.clist.add(val_peek(0).cdef);
+						yyval.clist().add(val_peek(0).cdef());
 					}
 break;
 case 3:
-//#line 69 "Parser.y"
+//#line 70 "Parser.y"
 {
-                		yyval.clist = new ArrayList<Tree.ClassDef>();
-                		yyval.clist.add(val_peek(0).cdef);
+                		List<Tree.ClassDef> clist = new ArrayList<Tree.ClassDef>();
+                		clist.add(val_peek(0).cdef());
+                		yyval.value = clist;
                 	}
 break;
 case 5:
-//#line 79 "Parser.y"
+//#line 81 "Parser.y"
 {
-						yyval.vdef = new Tree.VarDef(val_peek(0).ident, val_peek(1).type, val_peek(0).loc);
+						yyval.value = new Tree.VarDef(val_peek(0).ident(), val_peek(1).type(), val_peek(0).pos);
 					}
 break;
 case 6:
-//#line 85 "Parser.y"
+//#line 87 "Parser.y"
 {
-						yyval.type = new Tree.TypeIdent(Tree.INT, val_peek(0).loc);
+						yyval.value = new Tree.TypeIdent(Tree.INT, val_peek(0).pos);
 					}
 break;
 case 7:
-//#line 89 "Parser.y"
+//#line 91 "Parser.y"
 {
-                		yyval.type = new Tree.TypeIdent(Tree.VOID, val_peek(0).loc);
+                		yyval.value = new Tree.TypeIdent(Tree.VOID, val_peek(0).pos);
                 	}
 break;
 case 8:
-//#line 93 "Parser.y"
+//#line 95 "Parser.y"
 {
-                		yyval.type = new Tree.TypeIdent(Tree.BOOL, val_peek(0).loc);
+                		yyval.value = new Tree.TypeIdent(Tree.BOOL, val_peek(0).pos);
                 	}
 break;
 case 9:
-//#line 97 "Parser.y"
+//#line 99 "Parser.y"
 {
-                		yyval.type = new Tree.TypeIdent(Tree.STRING, val_peek(0).loc);
+                		yyval.value = new Tree.TypeIdent(Tree.STRING, val_peek(0).pos);
                 	}
 break;
 case 10:
-//#line 101 "Parser.y"
+//#line 103 "Parser.y"
 {
-                		yyval.type = new Tree.TypeClass(val_peek(0).ident, val_peek(1).loc);
+                		yyval.value = new Tree.TypeClass(val_peek(0).ident(), val_peek(1).pos);
                 	}
 break;
 case 11:
-//#line 105 "Parser.y"
+//#line 107 "Parser.y"
 {
-                		yyval.type = new Tree.TypeArray(val_peek(2).type, val_peek(2).loc);
+                		yyval.value = new Tree.TypeArray(val_peek(2).type(), val_peek(2).pos);
                 	}
 break;
 case 12:
-//#line 111 "Parser.y"
+//#line 113 "Parser.y"
 {
-						yyval.cdef = new Tree.ClassDef(val_peek(4).ident, val_peek(3).ident, val_peek(1).flist, val_peek(5).loc);
+						yyval.value = new Tree.ClassDef(val_peek(4).ident(), val_peek(3).ident(), val_peek(1).flist(), val_peek(5).pos);
 					}
 break;
 case 13:
-//#line 115 "Parser.y"
+//#line 117 "Parser.y"
 {
-						yyval.cdef = new Tree.Sealed(val_peek(5).ident, val_peek(3).ident, val_peek(1).flist, val_peek(7).loc);
+						yyval.value = new Tree.Sealed(val_peek(5).ident(), val_peek(3).ident(), val_peek(1).flist(), val_peek(7).pos);
 					}
 break;
 case 14:
-//#line 119 "Parser.y"
+//#line 121 "Parser.y"
 {
-						yyval.cdef = new Tree.Sealed(val_peek(3).ident, null, val_peek(1).flist, val_peek(5).loc);
+						yyval.value = new Tree.Sealed(val_peek(3).ident(), null, val_peek(1).flist(), val_peek(5).pos);
 					}
 break;
 case 15:
-//#line 125 "Parser.y"
+//#line 127 "Parser.y"
 {
-						yyval.ident = val_peek(0).ident;
+						yyval.value = val_peek(0).ident();
 					}
 break;
 case 16:
-//#line 129 "Parser.y"
+//#line 131 "Parser.y"
 {
                 		yyval = new SemValue();
                 	}
 break;
 case 17:
-//#line 135 "Parser.y"
+//#line 137 "Parser.y"
 {
-						yyval.flist.add(val_peek(0).vdef);
+						yyval.flist().add(val_peek(0).vdef());
 					}
 break;
 case 18:
-//#line 139 "Parser.y"
+//#line 141 "Parser.y"
 {
-						yyval.flist.add(val_peek(0).fdef);
+						yyval.flist().add(val_peek(0).fdef());
 					}
 break;
 case 19:
-//#line 143 "Parser.y"
+//#line 145 "Parser.y"
 {
                 		yyval = new SemValue();
-                		yyval.flist = new ArrayList<Tree>();
+                		yyval.value = new ArrayList<Tree>();
                 	}
 break;
 case 21:
-//#line 151 "Parser.y"
+//#line 153 "Parser.y"
 {
                 		yyval = new SemValue();
-                		yyval.vlist = new ArrayList<Tree.VarDef>(); 
+                		yyval.value = new ArrayList<Tree.VarDef>(); 
                 	}
 break;
 case 22:
-//#line 158 "Parser.y"
+//#line 160 "Parser.y"
 {
-						yyval.vlist.add(val_peek(0).vdef);
+						yyval.vlist().add(val_peek(0).vdef());
 					}
 break;
 case 23:
-//#line 162 "Parser.y"
+//#line 164 "Parser.y"
 {
-                		yyval.vlist = new ArrayList<Tree.VarDef>();
-						yyval.vlist.add(val_peek(0).vdef);
+                		List<Tree.VarDef> vlist = new ArrayList<Tree.VarDef>();
+						vlist.add(val_peek(0).vdef());
+						yyval.value = vlist;
                 	}
 break;
 case 24:
-//#line 169 "Parser.y"
+//#line 172 "Parser.y"
 {
-						yyval.fdef = new MethodDef(true, val_peek(4).ident, val_peek(5).type, val_peek(2).vlist, (Block) val_peek(0).stmt, val_peek(4).loc);
+						yyval.value = new MethodDef(true, val_peek(4).ident(), val_peek(5).type(), val_peek(2).vlist(), (Block) val_peek(0).stmt(), val_peek(4).pos);
 					}
 break;
 case 25:
-//#line 173 "Parser.y"
+//#line 176 "Parser.y"
 {
-						yyval.fdef = new MethodDef(false, val_peek(4).ident, val_peek(5).type, val_peek(2).vlist, (Block) val_peek(0).stmt, val_peek(4).loc);
+						yyval.value = new MethodDef(false, val_peek(4).ident(), val_peek(5).type(), val_peek(2).vlist(), (Block) val_peek(0).stmt(), val_peek(4).pos);
 					}
 break;
 case 26:
-//#line 179 "Parser.y"
+//#line 182 "Parser.y"
 {
-						yyval.stmt = new Block(val_peek(1).slist, val_peek(2).loc);
+						yyval.value = new Block(val_peek(1).slist(), val_peek(2).pos);
 					}
 break;
 case 27:
-//#line 185 "Parser.y"
+//#line 188 "Parser.y"
 {
-						yyval.slist.add(val_peek(0).stmt);
+						yyval.slist().add(val_peek(0).stmt());
 					}
 break;
 case 28:
-//#line 189 "Parser.y"
+//#line 192 "Parser.y"
 {
                 		yyval = new SemValue();
-                		yyval.slist = new ArrayList<Tree>();
+                		yyval.value = new ArrayList<Tree>();
                 	}
 break;
-case 29:
-//#line 196 "Parser.y"
-{
-						yyval.stmt = val_peek(0).vdef;
-					}
-break;
 case 30:
-//#line 201 "Parser.y"
+//#line 200 "Parser.y"
 {
-                		if (yyval.stmt == null) {
-                			yyval.stmt = new Tree.Skip(val_peek(0).loc);
+                		if (yyval.value == null) {
+                			yyval.value = new Tree.Skip(val_peek(0).pos);
                 		}
                 	}
 break;
 case 31:
-//#line 207 "Parser.y"
+//#line 206 "Parser.y"
 {
-                		yyval.stmt = new Tree.SCopyExpr(val_peek(3).ident, val_peek(1).expr, val_peek(5).loc);
+                		yyval.value = new Tree.SCopyExpr(val_peek(3).ident(), val_peek(1).expr(), val_peek(5).pos);
                 	}
 break;
 case 41:
-//#line 221 "Parser.y"
+//#line 220 "Parser.y"
 {
-						yyval.stmt = new Tree.ForeachArray(val_peek(6).varBind, val_peek(4).expr, val_peek(2).expr, val_peek(0).stmt, val_peek(8).loc);
+						yyval.value = new Tree.ForeachArray(val_peek(6).varBind(), val_peek(4).expr(), val_peek(2).expr(), val_peek(0).stmt(), val_peek(8).pos);
 					}
 break;
 case 42:
-//#line 225 "Parser.y"
+//#line 224 "Parser.y"
 {
-						yyval.stmt = new Tree.ForeachArray(val_peek(4).varBind, val_peek(2).expr, null, val_peek(0).stmt, val_peek(6).loc);
+						yyval.value = new Tree.ForeachArray(val_peek(4).varBind(), val_peek(2).expr(), null, val_peek(0).stmt(), val_peek(6).pos);
 					}
 break;
 case 43:
-//#line 231 "Parser.y"
+//#line 230 "Parser.y"
 {
-						yyval.varBind = new Tree.VarBind(null, val_peek(0).ident, val_peek(1).loc);
+						yyval.value = new Tree.VarBind(null, val_peek(0).ident(), val_peek(1).pos);
 					}
 break;
 case 44:
-//#line 235 "Parser.y"
+//#line 234 "Parser.y"
 {
-						yyval.varBind = new Tree.VarBind(val_peek(1).type, val_peek(0).ident, val_peek(1).loc);
+						yyval.value = new Tree.VarBind(val_peek(1).type(), val_peek(0).ident(), val_peek(1).pos);
 					}
 break;
 case 45:
-//#line 240 "Parser.y"
+//#line 239 "Parser.y"
 {
-						yyval.stmt = new Tree.Assign(val_peek(2).lvalue, val_peek(0).expr, val_peek(1).loc);
+						yyval.value = new Tree.Assign(val_peek(2).lvalue(), val_peek(0).expr(), val_peek(1).pos);
 					}
 break;
 case 46:
-//#line 244 "Parser.y"
+//#line 243 "Parser.y"
 {
-                		yyval.stmt = new Tree.Exec(val_peek(0).expr, val_peek(0).loc);
+                		yyval.value = new Tree.Exec(val_peek(0).expr(), val_peek(0).pos);
                 	}
 break;
 case 47:
-//#line 248 "Parser.y"
+//#line 247 "Parser.y"
 {
                 		yyval = new SemValue();
                 	}
 break;
 case 48:
-//#line 254 "Parser.y"
+//#line 253 "Parser.y"
 {
-                        yyval.stmt = new Tree.Guarded(val_peek(2).slist, val_peek(1).stmt, val_peek(4).loc);
+                        yyval.value = new Tree.Guarded(val_peek(2).slist(), val_peek(1).stmt(), val_peek(4).pos);
                     }
 break;
 case 49:
-//#line 258 "Parser.y"
+//#line 257 "Parser.y"
 {
-                        yyval.stmt = new Tree.Guarded(null, null, val_peek(2).loc);
+                        yyval.value = new Tree.Guarded(null, null, val_peek(2).pos);
                     }
 break;
 case 50:
-//#line 263 "Parser.y"
+//#line 262 "Parser.y"
 {
-                        yyval.stmt = new Tree.IfSubStmt(val_peek(2).expr, val_peek(0).stmt, val_peek(2).loc);
+                        yyval.value = new Tree.IfSubStmt(val_peek(2).expr(), val_peek(0).stmt(), val_peek(2).pos);
                     }
 break;
 case 51:
-//#line 268 "Parser.y"
+//#line 267 "Parser.y"
 {
-                        yyval.stmt = new Tree.IfSubStmt(val_peek(3).expr, val_peek(1).stmt, val_peek(3).loc);
+                        yyval.value = new Tree.IfSubStmt(val_peek(3).expr(), val_peek(1).stmt(), val_peek(3).pos);
                     }
 break;
 case 52:
-//#line 273 "Parser.y"
+//#line 272 "Parser.y"
 {
-                        yyval.slist.add(val_peek(0).stmt);
+                        yyval.slist().add(val_peek(0).stmt());
                     }
 break;
 case 53:
-//#line 277 "Parser.y"
+//#line 276 "Parser.y"
 {
                         yyval = new SemValue();
-                        yyval.slist = new ArrayList<Tree>();
+                        yyval.value = new ArrayList<Tree>();
                     }
 break;
 case 55:
-//#line 285 "Parser.y"
+//#line 284 "Parser.y"
 {
                 		yyval = new SemValue();
                 	}
 break;
 case 56:
-//#line 291 "Parser.y"
+//#line 290 "Parser.y"
 {
-						yyval.lvalue = new Tree.Ident(val_peek(1).expr, val_peek(0).ident, val_peek(0).loc);
-						if (val_peek(1).loc == null) {
-							yyval.loc = val_peek(0).loc;
+						yyval.value = new Tree.Ident(val_peek(1).expr(), val_peek(0).ident(), val_peek(0).pos);
+						if (val_peek(1).pos == Location.NO_POSITION) {
+							yyval.pos = val_peek(0).pos;
 						}
 					}
 break;
 case 57:
-//#line 298 "Parser.y"
+//#line 297 "Parser.y"
 {
-                		yyval.lvalue = new Tree.Indexed(val_peek(3).expr, val_peek(1).expr, val_peek(3).loc);
+                		yyval.value = new Tree.Indexed(val_peek(3).expr(), val_peek(1).expr(), val_peek(3).pos);
                 	}
 break;
 case 58:
-//#line 303 "Parser.y"
+//#line 302 "Parser.y"
 {
-                		yyval.lvalue = new Tree.Var(val_peek(0).ident, val_peek(0).loc);
+                		yyval.value = new Tree.Var(val_peek(0).ident(), val_peek(0).pos);
                 	}
 break;
 case 59:
-//#line 309 "Parser.y"
+//#line 308 "Parser.y"
 {
-						yyval.expr = new Tree.CallExpr(val_peek(4).expr, val_peek(3).ident, val_peek(1).elist, val_peek(3).loc);
-						if (val_peek(4).loc == null) {
-							yyval.loc = val_peek(3).loc;
+						yyval.value = new Tree.CallExpr(val_peek(4).expr(), val_peek(3).ident(), val_peek(1).elist(), val_peek(3).pos);
+						if (val_peek(4).pos == Location.NO_POSITION) {
+							yyval.pos = val_peek(3).pos;
 						}
 					}
 break;
-case 60:
-//#line 318 "Parser.y"
-{
-						yyval.expr = val_peek(0).lvalue;
-					}
-break;
 case 63:
-//#line 324 "Parser.y"
+//#line 320 "Parser.y"
 {
-                		yyval.expr = new Tree.Binary(Tree.PLUS, val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Binary(Tree.PLUS, val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 64:
-//#line 328 "Parser.y"
+//#line 324 "Parser.y"
 {
-                		yyval.expr = new Tree.Binary(Tree.MINUS, val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Binary(Tree.MINUS, val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 65:
-//#line 332 "Parser.y"
+//#line 328 "Parser.y"
 {
-                		yyval.expr = new Tree.Binary(Tree.MUL, val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Binary(Tree.MUL, val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 66:
-//#line 336 "Parser.y"
+//#line 332 "Parser.y"
 {
-                		yyval.expr = new Tree.Binary(Tree.DIV, val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Binary(Tree.DIV, val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 67:
-//#line 340 "Parser.y"
+//#line 336 "Parser.y"
 {
-                		yyval.expr = new Tree.Binary(Tree.MOD, val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Binary(Tree.MOD, val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 68:
-//#line 344 "Parser.y"
+//#line 340 "Parser.y"
 {
-                		yyval.expr = new Tree.Binary(Tree.EQ, val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Binary(Tree.EQ, val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 69:
-//#line 348 "Parser.y"
+//#line 344 "Parser.y"
 {
-                		yyval.expr = new Tree.Binary(Tree.NE, val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Binary(Tree.NE, val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 70:
-//#line 352 "Parser.y"
+//#line 348 "Parser.y"
 {
-                		yyval.expr = new Tree.Binary(Tree.LT, val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Binary(Tree.LT, val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 71:
-//#line 356 "Parser.y"
+//#line 352 "Parser.y"
 {
-                		yyval.expr = new Tree.Binary(Tree.GT, val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Binary(Tree.GT, val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 72:
-//#line 360 "Parser.y"
+//#line 356 "Parser.y"
 {
-                		yyval.expr = new Tree.Binary(Tree.LE, val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Binary(Tree.LE, val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 73:
-//#line 364 "Parser.y"
+//#line 360 "Parser.y"
 {
-                		yyval.expr = new Tree.Binary(Tree.GE, val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Binary(Tree.GE, val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 74:
-//#line 368 "Parser.y"
+//#line 364 "Parser.y"
 {
-                		yyval.expr = new Tree.Binary(Tree.AND, val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Binary(Tree.AND, val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 75:
-//#line 372 "Parser.y"
+//#line 368 "Parser.y"
 {
-                		yyval.expr = new Tree.Binary(Tree.OR, val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Binary(Tree.OR, val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 76:
-//#line 376 "Parser.y"
+//#line 372 "Parser.y"
 {
                 		yyval = val_peek(1);
                 	}
 break;
 case 77:
-//#line 380 "Parser.y"
+//#line 376 "Parser.y"
 {
-                		yyval.expr = new Tree.Unary(Tree.NEG, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Unary(Tree.NEG, val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 78:
-//#line 384 "Parser.y"
+//#line 380 "Parser.y"
 {
-                		yyval.expr = new Tree.Unary(Tree.NOT, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.Unary(Tree.NOT, val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 79:
-//#line 388 "Parser.y"
+//#line 384 "Parser.y"
 {
-                		yyval.expr = new Tree.ReadIntExpr(val_peek(2).loc);
+                		yyval.value = new Tree.ReadIntExpr(val_peek(2).pos);
                 	}
 break;
 case 80:
-//#line 392 "Parser.y"
+//#line 388 "Parser.y"
 {
-                		yyval.expr = new Tree.ReadLineExpr(val_peek(2).loc);
+                		yyval.value = new Tree.ReadLineExpr(val_peek(2).pos);
                 	}
 break;
 case 81:
-//#line 396 "Parser.y"
+//#line 392 "Parser.y"
 {
-                		yyval.expr = new Tree.ThisExpr(val_peek(0).loc);
+                		yyval.value = new Tree.ThisExpr(val_peek(0).pos);
                 	}
 break;
 case 82:
-//#line 402 "Parser.y"
+//#line 398 "Parser.y"
 {
-                		yyval.expr = new Tree.NewClass(val_peek(2).ident, val_peek(3).loc);
+                		yyval.value = new Tree.NewClass(val_peek(2).ident(), val_peek(3).pos);
                 	}
 break;
 case 83:
-//#line 406 "Parser.y"
+//#line 402 "Parser.y"
 {
-                		yyval.expr = new Tree.NewArray(val_peek(3).type, val_peek(1).expr, val_peek(4).loc);
+                		yyval.value = new Tree.NewArray(val_peek(3).type(), val_peek(1).expr(), val_peek(4).pos);
                 	}
 break;
 case 84:
-//#line 410 "Parser.y"
+//#line 406 "Parser.y"
 {
-                		yyval.expr = new Tree.TypeTest(val_peek(3).expr, val_peek(1).ident, val_peek(5).loc);
+                		yyval.value = new Tree.TypeTest(val_peek(3).expr(), val_peek(1).ident(), val_peek(5).pos);
                 	}
 break;
 case 85:
-//#line 414 "Parser.y"
+//#line 410 "Parser.y"
 {
-                		yyval.expr = new Tree.TypeCast(val_peek(2).ident, val_peek(0).expr, val_peek(0).loc);
+                		yyval.value = new Tree.TypeCast(val_peek(2).ident(), val_peek(0).expr(), val_peek(0).pos);
                 	}
 break;
 case 86:
-//#line 419 "Parser.y"
+//#line 415 "Parser.y"
 {
-                		yyval.expr = new Tree.NewSameArray(val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.NewSameArray(val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 87:
-//#line 423 "Parser.y"
+//#line 419 "Parser.y"
 {
-                		yyval.expr = new Tree.JointArray(val_peek(2).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.JointArray(val_peek(2).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 88:
-//#line 427 "Parser.y"
+//#line 423 "Parser.y"
 {
-                		yyval.expr = new Tree.AccessArray(val_peek(5).expr, val_peek(3).expr, val_peek(1).expr, val_peek(5).loc);
+                		yyval.value = new Tree.AccessArray(val_peek(5).expr(), val_peek(3).expr(), val_peek(1).expr(), val_peek(5).pos);
                 	}
 break;
 case 89:
-//#line 431 "Parser.y"
+//#line 427 "Parser.y"
 {
-                		yyval.expr = new Tree.DefaultArray(val_peek(5).expr, val_peek(3).expr, val_peek(0).expr, val_peek(1).loc);
+                		yyval.value = new Tree.DefaultArray(val_peek(5).expr(), val_peek(3).expr(), val_peek(0).expr(), val_peek(1).pos);
                 	}
 break;
 case 90:
-//#line 435 "Parser.y"
+//#line 431 "Parser.y"
 {
-                		yyval.expr = new Tree.CompArray(val_peek(6).expr, val_peek(4).ident, val_peek(2).expr, val_peek(1).expr, val_peek(7).loc);
+                		yyval.value = new Tree.CompArray(val_peek(6).expr(), val_peek(4).ident(), val_peek(2).expr(), val_peek(1).expr(), val_peek(7).pos);
                 	}
 break;
 case 91:
-//#line 439 "Parser.y"
+//#line 435 "Parser.y"
 {
-                		yyval.expr = new Tree.CompArray(val_peek(5).expr, val_peek(3).ident, val_peek(1).expr, null, val_peek(6).loc);
+                		yyval.value = new Tree.CompArray(val_peek(5).expr(), val_peek(3).ident(), val_peek(1).expr(), null, val_peek(6).pos);
                 	}
 break;
 case 92:
-//#line 444 "Parser.y"
+//#line 440 "Parser.y"
 {
-						yyval.expr = val_peek(0).expr;
+						yyval.value = val_peek(0).expr();
 					}
 break;
 case 93:
-//#line 448 "Parser.y"
+//#line 444 "Parser.y"
 {
                         yyval = new SemValue();
                     }
 break;
 case 94:
-//#line 455 "Parser.y"
+//#line 451 "Parser.y"
 {
-						yyval.expr = new Tree.Literal(val_peek(0).typeTag, val_peek(0).literal, val_peek(0).loc);
+						yyval.value = new Tree.Literal(val_peek(0).typeTag(), val_peek(0).literal(), val_peek(0).pos);
 					}
 break;
 case 95:
-//#line 459 "Parser.y"
+//#line 455 "Parser.y"
 {
-						yyval.expr = new Null(val_peek(0).loc);
+						yyval.value = new Null(val_peek(0).pos);
 					}
 break;
 case 97:
-//#line 466 "Parser.y"
+//#line 462 "Parser.y"
 {
-						yyval.expr = new Tree.ArrayConstant(val_peek(1).elist, val_peek(2).loc);
+						yyval.value = new Tree.ArrayConstant(val_peek(1).elist(), val_peek(2).pos);
 					}
 break;
 case 98:
-//#line 472 "Parser.y"
+//#line 468 "Parser.y"
 {
-                        yyval.elist.add(val_peek(0).expr);
+                        yyval.elist().add(val_peek(0).expr());
                     }
 break;
 case 99:
-//#line 476 "Parser.y"
+//#line 472 "Parser.y"
 {
                         yyval = new SemValue();
                     }
 break;
 case 100:
-//#line 480 "Parser.y"
+//#line 476 "Parser.y"
 {
-                        yyval.elist = new ArrayList<Tree.Expr>();
-                        yyval.elist.add(val_peek(0).expr);
+                        List<Tree.Expr> elist = new ArrayList<Tree.Expr>();
+                        elist.add(val_peek(0).expr());
+                        yyval.value = elist;
                     }
 break;
 case 102:
-//#line 488 "Parser.y"
+//#line 485 "Parser.y"
 {
                 		yyval = new SemValue();
-                		yyval.elist = new ArrayList<Tree.Expr>();
+                		yyval.value = new ArrayList<Tree.Expr>();
                 	}
 break;
 case 103:
-//#line 495 "Parser.y"
+//#line 492 "Parser.y"
 {
-						yyval.elist.add(val_peek(0).expr);
+						yyval.elist().add(val_peek(0).expr());
 					}
 break;
 case 104:
-//#line 499 "Parser.y"
+//#line 496 "Parser.y"
 {
-                		yyval.elist = new ArrayList<Tree.Expr>();
-						yyval.elist.add(val_peek(0).expr);
+                		List<Tree.Expr> elist = new ArrayList<Tree.Expr>();
+						elist.add(val_peek(0).expr());
+						yyval.value = elist;
                 	}
 break;
 case 105:
-//#line 506 "Parser.y"
+//#line 504 "Parser.y"
 {
-						yyval.stmt = new Tree.WhileLoop(val_peek(2).expr, val_peek(0).stmt, val_peek(4).loc);
+						yyval.value = new Tree.WhileLoop(val_peek(2).expr(), val_peek(0).stmt(), val_peek(4).pos);
 					}
 break;
 case 106:
-//#line 512 "Parser.y"
+//#line 510 "Parser.y"
 {
-						yyval.stmt = new Tree.ForLoop(val_peek(6).stmt, val_peek(4).expr, val_peek(2).stmt, val_peek(0).stmt, val_peek(8).loc);
+						yyval.value = new Tree.ForLoop(val_peek(6).stmt(), val_peek(4).expr(), val_peek(2).stmt(), val_peek(0).stmt(), val_peek(8).pos);
 					}
 break;
 case 107:
-//#line 518 "Parser.y"
+//#line 516 "Parser.y"
 {
-						yyval.stmt = new Tree.Break(val_peek(0).loc);
+						yyval.value = new Tree.Break(val_peek(0).pos);
 					}
 break;
 case 108:
-//#line 524 "Parser.y"
+//#line 522 "Parser.y"
 {
-						yyval.stmt = new Tree.If(val_peek(3).expr, val_peek(1).stmt, val_peek(0).stmt, val_peek(5).loc);
+						yyval.value = new Tree.If(val_peek(3).expr(), val_peek(1).stmt(), val_peek(0).stmt(), val_peek(5).pos);
 					}
 break;
 case 109:
-//#line 530 "Parser.y"
+//#line 528 "Parser.y"
 {
-						yyval.stmt = val_peek(0).stmt;
+						yyval.value = val_peek(0).stmt();
 					}
 break;
 case 110:
-//#line 534 "Parser.y"
+//#line 532 "Parser.y"
 {
 						yyval = new SemValue();
 					}
 break;
 case 111:
-//#line 540 "Parser.y"
+//#line 538 "Parser.y"
 {
-						yyval.stmt = new Tree.Return(val_peek(0).expr, val_peek(1).loc);
+						yyval.value = new Tree.Return(val_peek(0).expr(), val_peek(1).pos);
 					}
 break;
 case 112:
-//#line 544 "Parser.y"
+//#line 542 "Parser.y"
 {
-                		yyval.stmt = new Tree.Return(null, val_peek(0).loc);
+                		yyval.value = new Tree.Return(null, val_peek(0).pos);
                 	}
 break;
 case 113:
-//#line 550 "Parser.y"
+//#line 548 "Parser.y"
 {
-						yyval.stmt = new Print(val_peek(1).elist, val_peek(3).loc);
+						yyval.value = new Print(val_peek(1).elist(), val_peek(3).pos);
 					}
 break;
-//#line 1569 "Parser.java"
+//#line 1566 "Parser.java"
 //########## END OF USER-SUPPLIED ACTIONS ##########
     }//switch
     //#### Now let's reduce... ####
@@ -10,6 +10,7 @@
 %{
 package decaf.frontend;
 
+import decaf.Location;
 import decaf.tree.Tree;
 import decaf.tree.Tree.*;
 import decaf.error.*;
@@ -57,18 +58,19 @@ import java.util.*;
 %%
 Program			:	ClassList
 					{
-						tree = new Tree.TopLevel($1.clist, $1.loc);
+						tree = new Tree.TopLevel($1.clist(), $1.pos);
 					}
 				;
 
 ClassList       :	ClassList ClassDef
 					{
-						$$.clist.add($2.cdef);
+						$$.clist().add($2.cdef());
 					}
                 |	ClassDef
                 	{
-                		$$.clist = new ArrayList<Tree.ClassDef>();
-                		$$.clist.add($1.cdef);
+                		List<Tree.ClassDef> clist = new ArrayList<Tree.ClassDef>();
+                		clist.add($1.cdef());
+                		$$.value = clist;
                 	}
                 ;
 
@@ -77,53 +79,53 @@ VariableDef     :	Variable ';'
 
 Variable        :	Type IDENTIFIER
 					{
-						$$.vdef = new Tree.VarDef($2.ident, $1.type, $2.loc);
+						$$.value = new Tree.VarDef($2.ident(), $1.type(), $2.pos);
 					}
 				;
 				
 Type            :	INT
 					{
-						$$.type = new Tree.TypeIdent(Tree.INT, $1.loc);
+						$$.value = new Tree.TypeIdent(Tree.INT, $1.pos);
 					}
                 |	VOID
                 	{
-                		$$.type = new Tree.TypeIdent(Tree.VOID, $1.loc);
+                		$$.value = new Tree.TypeIdent(Tree.VOID, $1.pos);
                 	}
                 |	BOOL
                 	{
-                		$$.type = new Tree.TypeIdent(Tree.BOOL, $1.loc);
+                		$$.value = new Tree.TypeIdent(Tree.BOOL, $1.pos);
                 	}
                 |	STRING
                 	{
-                		$$.type = new Tree.TypeIdent(Tree.STRING, $1.loc);
+                		$$.value = new Tree.TypeIdent(Tree.STRING, $1.pos);
                 	}
                 |	CLASS IDENTIFIER
                 	{
-                		$$.type = new Tree.TypeClass($2.ident, $1.loc);
+                		$$.value = new Tree.TypeClass($2.ident(), $1.pos);
                 	}
                 |	Type '[' ']'
                 	{
-                		$$.type = new Tree.TypeArray($1.type, $1.loc);
+                		$$.value = new Tree.TypeArray($1.type(), $1.pos);
                 	}
                 ;
 
 ClassDef        :	CLASS IDENTIFIER ExtendsClause '{' FieldList '}'
 					{
-						$$.cdef = new Tree.ClassDef($2.ident, $3.ident, $5.flist, $1.loc);
+						$$.value = new Tree.ClassDef($2.ident(), $3.ident(), $5.flist(), $1.pos);
 					}
 				|	SEALED CLASS IDENTIFIER EXTENDS IDENTIFIER '{' FieldList '}'
 					{
-						$$.cdef = new Tree.Sealed($3.ident, $5.ident, $7.flist, $1.loc);
+						$$.value = new Tree.Sealed($3.ident(), $5.ident(), $7.flist(), $1.pos);
 					}
 				|	SEALED CLASS IDENTIFIER '{' FieldList '}'
 					{
-						$$.cdef = new Tree.Sealed($3.ident, null, $5.flist, $1.loc);
+						$$.value = new Tree.Sealed($3.ident(), null, $5.flist(), $1.pos);
 					}
                 ;
 
 ExtendsClause	:	EXTENDS IDENTIFIER
 					{
-						$$.ident = $2.ident;
+						$$.value = $2.ident();
 					}
                 |	/* empty */
                 	{
@@ -133,16 +135,16 @@ ExtendsClause	:	EXTENDS IDENTIFIER
 
 FieldList       :	FieldList VariableDef
 					{
-						$$.flist.add($2.vdef);
+						$$.flist().add($2.vdef());
 					}
 				|	FieldList FunctionDef
 					{
-						$$.flist.add($2.fdef);
+						$$.flist().add($2.fdef());
 					}
                 |	/* empty */
                 	{
                 		$$ = new SemValue();
-                		$$.flist = new ArrayList<Tree>();
+                		$$.value = new ArrayList<Tree>();
                 	}
                 ;
  
@@ -150,62 +152,59 @@ Formals         :	VariableList
                 |	/* empty */
                 	{
                 		$$ = new SemValue();
-                		$$.vlist = new ArrayList<Tree.VarDef>(); 
+                		$$.value = new ArrayList<Tree.VarDef>(); 
                 	}
                 ;
 
 VariableList    :	VariableList ',' Variable
 					{
-						$$.vlist.add($3.vdef);
+						$$.vlist().add($3.vdef());
 					}
                 |	Variable
                 	{
-                		$$.vlist = new ArrayList<Tree.VarDef>();
-						$$.vlist.add($1.vdef);
+                		List<Tree.VarDef> vlist = new ArrayList<Tree.VarDef>();
+						vlist.add($1.vdef());
+						$$.value = vlist;
                 	}
                 ;
 
 FunctionDef    :	STATIC Type IDENTIFIER '(' Formals ')' StmtBlock
 					{
-						$$.fdef = new MethodDef(true, $3.ident, $2.type, $5.vlist, (Block) $7.stmt, $3.loc);
+						$$.value = new MethodDef(true, $3.ident(), $2.type(), $5.vlist(), (Block) $7.stmt(), $3.pos);
 					}
 				|	Type IDENTIFIER '(' Formals ')' StmtBlock
 					{
-						$$.fdef = new MethodDef(false, $2.ident, $1.type, $4.vlist, (Block) $6.stmt, $2.loc);
+						$$.value = new MethodDef(false, $2.ident(), $1.type(), $4.vlist(), (Block) $6.stmt(), $2.pos);
 					}
 					
                 ;
 StmtBlock       :	'{' StmtList '}'
 					{
-						$$.stmt = new Block($2.slist, $1.loc);
+						$$.value = new Block($2.slist(), $1.pos);
 					}
                 ;
 
 StmtList        :	StmtList Stmt
 					{
-						$$.slist.add($2.stmt);
+						$$.slist().add($2.stmt());
 					}
                 |	/* empty */
                 	{
                 		$$ = new SemValue();
-                		$$.slist = new ArrayList<Tree>();
+                		$$.value = new ArrayList<Tree>();
                 	}
                 ;
 
 Stmt		    :	VariableDef
-					{
-						$$.stmt = $1.vdef;
-					}
-					
                 |	SimpleStmt ';'
                 	{
-                		if ($$.stmt == null) {
-                			$$.stmt = new Tree.Skip($2.loc);
+                		if ($$.value == null) {
+                			$$.value = new Tree.Skip($2.pos);
                 		}
                 	}
                 |	SCOPY '(' IDENTIFIER ',' Expr ')'
                 	{
-                		$$.stmt = new Tree.SCopyExpr($3.ident, $5.expr, $1.loc);
+                		$$.value = new Tree.SCopyExpr($3.ident(), $5.expr(), $1.pos);
                 	}
                 |	IfStmt
                 |	WhileStmt
@@ -219,30 +218,30 @@ Stmt		    :	VariableDef
                 ;
 ForeachStmt		:	FOREACH '(' BoundVariable IN Expr WHILE Expr ')' Stmt
 					{
-						$$.stmt = new Tree.ForeachArray($3.varBind, $5.expr, $7.expr, $9.stmt, $1.loc);
+						$$.value = new Tree.ForeachArray($3.varBind(), $5.expr(), $7.expr(), $9.stmt(), $1.pos);
 					}
 				|	FOREACH '(' BoundVariable IN Expr ')' Stmt
 					{
-						$$.stmt = new Tree.ForeachArray($3.varBind, $5.expr, null, $7.stmt, $1.loc);
+						$$.value = new Tree.ForeachArray($3.varBind(), $5.expr(), null, $7.stmt(), $1.pos);
 					}
 				;
 				
 BoundVariable	:	VAR IDENTIFIER
 					{
-						$$.varBind = new Tree.VarBind(null, $2.ident, $1.loc);
+						$$.value = new Tree.VarBind(null, $2.ident(), $1.pos);
 					}
 				|	Type IDENTIFIER
 					{
-						$$.varBind = new Tree.VarBind($1.type, $2.ident, $1.loc);
+						$$.value = new Tree.VarBind($1.type(), $2.ident(), $1.pos);
 					}
 				;
 SimpleStmt      :	LValue '=' Expr
 					{
-						$$.stmt = new Tree.Assign($1.lvalue, $3.expr, $2.loc);
+						$$.value = new Tree.Assign($1.lvalue(), $3.expr(), $2.pos);
 					}
                 |	Call
                 	{
-                		$$.stmt = new Tree.Exec($1.expr, $1.loc);
+                		$$.value = new Tree.Exec($1.expr(), $1.pos);
                 	}
                 |	/* empty */
                 	{
@@ -252,31 +251,31 @@ SimpleStmt      :	LValue '=' Expr
 
 GuardedStmt     :   IF '{' IfBranchList IfSubStmt '}'
                     {
-                        $$.stmt = new Tree.Guarded($3.slist, $4.stmt, $1.loc);
+                        $$.value = new Tree.Guarded($3.slist(), $4.stmt(), $1.pos);
                     }
                 |	IF '{' '}'
                     {
-                        $$.stmt = new Tree.Guarded(null, null, $1.loc);
+                        $$.value = new Tree.Guarded(null, null, $1.pos);
                     }
                 ;
 IfSubStmt       :   Expr ':' Stmt
                     {
-                        $$.stmt = new Tree.IfSubStmt($1.expr, $3.stmt, $1.loc);
+                        $$.value = new Tree.IfSubStmt($1.expr(), $3.stmt(), $1.pos);
                     }
                 ;
 IfBranch        :   Expr ':' Stmt GUARDED
                     {
-                        $$.stmt = new Tree.IfSubStmt($1.expr, $3.stmt, $1.loc);
+                        $$.value = new Tree.IfSubStmt($1.expr(), $3.stmt(), $1.pos);
                     }
                 ;
 IfBranchList    :   IfBranchList IfBranch
                     {
-                        $$.slist.add($2.stmt);
+                        $$.slist().add($2.stmt());
                     }
                 |   /* empty */
                     {
                         $$ = new SemValue();
-                        $$.slist = new ArrayList<Tree>();
+                        $$.value = new ArrayList<Tree>();
                     }
                 ;
 
@@ -289,88 +288,85 @@ Receiver     	:	Expr '.'
 
 LValue          :	Receiver IDENTIFIER
 					{
-						$$.lvalue = new Tree.Ident($1.expr, $2.ident, $2.loc);
-						if ($1.loc == null) {
-							$$.loc = $2.loc;
+						$$.value = new Tree.Ident($1.expr(), $2.ident(), $2.pos);
+						if ($1.pos == Location.NO_POSITION) {
+							$$.pos = $2.pos;
 						}
 					}
                 |	Expr '[' Expr ']'
                 	{
-                		$$.lvalue = new Tree.Indexed($1.expr, $3.expr, $1.loc);
+                		$$.value = new Tree.Indexed($1.expr(), $3.expr(), $1.pos);
                 	}
                 
                 |	VAR IDENTIFIER
                 	{
-                		$$.lvalue = new Tree.Var($2.ident, $2.loc);
+                		$$.value = new Tree.Var($2.ident(), $2.pos);
                 	}
                 ;
 
 Call            :	Receiver IDENTIFIER '(' Actuals ')'
 					{
-						$$.expr = new Tree.CallExpr($1.expr, $2.ident, $4.elist, $2.loc);
-						if ($1.loc == null) {
-							$$.loc = $2.loc;
+						$$.value = new Tree.CallExpr($1.expr(), $2.ident(), $4.elist(), $2.pos);
+						if ($1.pos == Location.NO_POSITION) {
+							$$.pos = $2.pos;
 						}
 					}
                 ;
 
 Expr            :	LValue
-					{
-						$$.expr = $1.lvalue;
-					}
                 |	Call
                 |	Constant
                 |	Expr '+' Expr
                 	{
-                		$$.expr = new Tree.Binary(Tree.PLUS, $1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.Binary(Tree.PLUS, $1.expr(), $3.expr(), $2.pos);
                 	}
                 |	Expr '-' Expr
                 	{
-                		$$.expr = new Tree.Binary(Tree.MINUS, $1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.Binary(Tree.MINUS, $1.expr(), $3.expr(), $2.pos);
                 	}
                 |	Expr '*' Expr
                 	{
-                		$$.expr = new Tree.Binary(Tree.MUL, $1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.Binary(Tree.MUL, $1.expr(), $3.expr(), $2.pos);
                 	}
                 |	Expr '/' Expr
                 	{
-                		$$.expr = new Tree.Binary(Tree.DIV, $1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.Binary(Tree.DIV, $1.expr(), $3.expr(), $2.pos);
                 	}
                 |	Expr '%' Expr
                 	{
-                		$$.expr = new Tree.Binary(Tree.MOD, $1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.Binary(Tree.MOD, $1.expr(), $3.expr(), $2.pos);
                 	}
                 |	Expr EQUAL Expr
                 	{
-                		$$.expr = new Tree.Binary(Tree.EQ, $1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.Binary(Tree.EQ, $1.expr(), $3.expr(), $2.pos);
                 	}
                 |	Expr NOT_EQUAL Expr
                 	{
-                		$$.expr = new Tree.Binary(Tree.NE, $1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.Binary(Tree.NE, $1.expr(), $3.expr(), $2.pos);
                 	}
                 |	Expr '<' Expr
                 	{
-                		$$.expr = new Tree.Binary(Tree.LT, $1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.Binary(Tree.LT, $1.expr(), $3.expr(), $2.pos);
                 	}
                 |	Expr '>' Expr
                 	{
-                		$$.expr = new Tree.Binary(Tree.GT, $1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.Binary(Tree.GT, $1.expr(), $3.expr(), $2.pos);
                 	}
                 |	Expr LESS_EQUAL Expr
                 	{
-                		$$.expr = new Tree.Binary(Tree.LE, $1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.Binary(Tree.LE, $1.expr(), $3.expr(), $2.pos);
                 	}
                 |	Expr GREATER_EQUAL Expr
                 	{
-                		$$.expr = new Tree.Binary(Tree.GE, $1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.Binary(Tree.GE, $1.expr(), $3.expr(), $2.pos);
                 	}
                 |	Expr AND Expr
                 	{
-                		$$.expr = new Tree.Binary(Tree.AND, $1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.Binary(Tree.AND, $1.expr(), $3.expr(), $2.pos);
                 	}
                 |	Expr OR Expr
                 	{
-                		$$.expr = new Tree.Binary(Tree.OR, $1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.Binary(Tree.OR, $1.expr(), $3.expr(), $2.pos);
                 	}
                 |	'(' Expr ')'
                 	{
@@ -378,71 +374,71 @@ Expr            :	LValue
                 	}
                 |	'-' Expr  				%prec UMINUS
                 	{
-                		$$.expr = new Tree.Unary(Tree.NEG, $2.expr, $1.loc);
+                		$$.value = new Tree.Unary(Tree.NEG, $2.expr(), $1.pos);
                 	}
                 |	'!' Expr
                 	{
-                		$$.expr = new Tree.Unary(Tree.NOT, $2.expr, $1.loc);
+                		$$.value = new Tree.Unary(Tree.NOT, $2.expr(), $1.pos);
                 	}
                 |	READ_INTEGER '(' ')'
                 	{
-                		$$.expr = new Tree.ReadIntExpr($1.loc);
+                		$$.value = new Tree.ReadIntExpr($1.pos);
                 	}
                 |	READ_LINE '(' ')'
                 	{
-                		$$.expr = new Tree.ReadLineExpr($1.loc);
+                		$$.value = new Tree.ReadLineExpr($1.pos);
                 	}   
                 |	THIS
                 	{
-                		$$.expr = new Tree.ThisExpr($1.loc);
+                		$$.value = new Tree.ThisExpr($1.pos);
                 	}
                 	
                 	
                 |	NEW IDENTIFIER '(' ')'
                 	{
-                		$$.expr = new Tree.NewClass($2.ident, $1.loc);
+                		$$.value = new Tree.NewClass($2.ident(), $1.pos);
                 	}
                 |	NEW Type '[' Expr ']'
                 	{
-                		$$.expr = new Tree.NewArray($2.type, $4.expr, $1.loc);
+                		$$.value = new Tree.NewArray($2.type(), $4.expr(), $1.pos);
                 	}
                 |	INSTANCEOF '(' Expr ',' IDENTIFIER ')'
                 	{
-                		$$.expr = new Tree.TypeTest($3.expr, $5.ident, $1.loc);
+                		$$.value = new Tree.TypeTest($3.expr(), $5.ident(), $1.pos);
                 	}
                 |	'(' CLASS IDENTIFIER ')' Expr
                 	{
-                		$$.expr = new Tree.TypeCast($3.ident, $5.expr, $5.loc);
+                		$$.value = new Tree.TypeCast($3.ident(), $5.expr(), $5.pos);
                 	} 
                 	
 				|	Expr NEWSAMEARRAY Expr
                 	{
-                		$$.expr = new Tree.NewSameArray($1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.NewSameArray($1.expr(), $3.expr(), $2.pos);
                 	}
                 |	Expr JOINTARRAY Expr
                 	{
-                		$$.expr = new Tree.JointArray($1.expr, $3.expr, $2.loc);
+                		$$.value = new Tree.JointArray($1.expr(), $3.expr(), $2.pos);
                 	}
                 |	Expr '[' Expr ':' Expr ']'
                 	{
-                		$$.expr = new Tree.AccessArray($1.expr, $3.expr, $5.expr, $1.loc);
+                		$$.value = new Tree.AccessArray($1.expr(), $3.expr(), $5.expr(), $1.pos);
                 	}
                 |	Expr '[' Expr ']' DEFAULT Expr
                 	{
-                		$$.expr = new Tree.DefaultArray($1.expr, $3.expr, $6.expr, $5.loc);
+                		$$.value = new Tree.DefaultArray($1.expr(), $3.expr(), $6.expr(), $5.pos);
                 	}
                 |	'[' Expr FOR IDENTIFIER IN Expr BoolExpr ']'
                 	{
-                		$$.expr = new Tree.CompArray($2.expr, $4.ident, $6.expr, $7.expr, $1.loc);
+                		$$.value = new Tree.CompArray($2.expr(), $4.ident(), $6.expr(), $7.expr(), $1.pos);
                 	}
                 |	'[' Expr FOR IDENTIFIER IN Expr ']'
                 	{
-                		$$.expr = new Tree.CompArray($2.expr, $4.ident, $6.expr, null, $1.loc);
+                		$$.value = new Tree.CompArray($2.expr(), $4.ident(), $6.expr(), null, $1.pos);
                 	}
                 ;
 BoolExpr		: 	IF Expr
 					{
-						$$.expr = $2.expr;
+						$$.value = $2.expr();
 					}
 				|	/* empty */
                     {
@@ -453,24 +449,24 @@ BoolExpr		: 	IF Expr
 	
 Constant        :	LITERAL
 					{
-						$$.expr = new Tree.Literal($1.typeTag, $1.literal, $1.loc);
+						$$.value = new Tree.Literal($1.typeTag(), $1.literal(), $1.pos);
 					}
                 |	NULL
                 	{
-						$$.expr = new Null($1.loc);
+						$$.value = new Null($1.pos);
 					}
 				|	ArrayConstant
                 ;
                 
 ArrayConstant	:	'[' ConstantList ']'
 					{
-						$$.expr = new Tree.ArrayConstant($2.elist, $1.loc);
+						$$.value = new Tree.ArrayConstant($2.elist(), $1.pos);
 					}
 				;
 
 ConstantList    :   ConstantList ',' Constant
                     {
-                        $$.elist.add($3.expr);
+                        $$.elist().add($3.expr());
                     }
                 |   /* empty */
                     {
@@ -478,8 +474,9 @@ ConstantList    :   ConstantList ',' Constant
                     }
 				|   Constant
                     {
-                        $$.elist = new ArrayList<Tree.Expr>();
-                        $$.elist.add($1.expr);
+                        List<Tree.Expr> elist = new ArrayList<Tree.Expr>();
+                        elist.add($1.expr());
+                        $$.value = elist;
                     }
                 ;
 
@@ -487,48 +484,49 @@ Actuals         :	ExprList
                 |	/* empty */
                 	{
                 		$$ = new SemValue();
-                		$$.elist = new ArrayList<Tree.Expr>();
+                		$$.value = new ArrayList<Tree.Expr>();
                 	}
                 ;
 
 ExprList        :	ExprList ',' Expr
 					{
-						$$.elist.add($3.expr);
+						$$.elist().add($3.expr());
 					}
                 |	Expr
                 	{
-                		$$.elist = new ArrayList<Tree.Expr>();
-						$$.elist.add($1.expr);
+                		List<Tree.Expr> elist = new ArrayList<Tree.Expr>();
+						elist.add($1.expr());
+						$$.value = elist;
                 	}
                 ;
     
 WhileStmt       :	WHILE '(' Expr ')' Stmt
 					{
-						$$.stmt = new Tree.WhileLoop($3.expr, $5.stmt, $1.loc);
+						$$.value = new Tree.WhileLoop($3.expr(), $5.stmt(), $1.pos);
 					}
                 ;
 
 ForStmt         :	FOR '(' SimpleStmt ';' Expr ';'	SimpleStmt ')' Stmt
 					{
-						$$.stmt = new Tree.ForLoop($3.stmt, $5.expr, $7.stmt, $9.stmt, $1.loc);
+						$$.value = new Tree.ForLoop($3.stmt(), $5.expr(), $7.stmt(), $9.stmt(), $1.pos);
 					}
                 ;
 
 BreakStmt       :	BREAK
 					{
-						$$.stmt = new Tree.Break($1.loc);
+						$$.value = new Tree.Break($1.pos);
 					}
                 ;
 
 IfStmt          :	IF '(' Expr ')' Stmt ElseClause
 					{
-						$$.stmt = new Tree.If($3.expr, $5.stmt, $6.stmt, $1.loc);
+						$$.value = new Tree.If($3.expr(), $5.stmt(), $6.stmt(), $1.pos);
 					}
                 ;
 
 ElseClause      :	ELSE Stmt
 					{
-						$$.stmt = $2.stmt;
+						$$.value = $2.stmt();
 					}
 				|	/* empty */				%prec EMPTY
 					{
@@ -538,17 +536,17 @@ ElseClause      :	ELSE Stmt
 
 ReturnStmt      :	RETURN Expr
 					{
-						$$.stmt = new Tree.Return($2.expr, $1.loc);
+						$$.value = new Tree.Return($2.expr(), $1.pos);
 					}
                 |	RETURN
                 	{
-                		$$.stmt = new Tree.Return(null, $1.loc);
+                		$$.value = new Tree.Return(null, $1.pos);
                 	}
                 ;
 
 PrintStmt       :	PRINT '(' ExprList ')'
 					{
-						$$.stmt = new Print($3.elist, $1.loc);
+						$$.value = new Print($3.elist(), $1.pos);
 					}
                 ;
 
@@ -571,6 +569,10 @@ PrintStmt       :	PRINT '(' ExprList ')'
 		return false;
     }
     
+    void setSemantic(SemValue v) {
+		yylval = v;
+	}
+
     public void diagnose() {
 		addReduceListener(this);
 		yyparse();
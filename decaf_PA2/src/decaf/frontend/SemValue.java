@@ -8,58 +8,106 @@ import decaf.tree.Tree.ClassDef;
 import decaf.tree.Tree.Expr;
 import decaf.tree.Tree.MethodDef;
 import decaf.tree.Tree.LValue;
-import decaf.tree.Tree.TopLevel;
 import decaf.tree.Tree.VarDef;
 import decaf.tree.Tree.TypeLiteral;
 import decaf.tree.Tree.VarBind;
 import decaf.utils.MiscUtils;
+import decaf.utils.Name;
 
+/**
+ * 单词和语法符号的语义值<br>
+ * 除了代表码和位置之外只有一个值域：单词的值（标识符的名字、常量的值），
+ * 或者归约得到的语法树结点、结点列表。归约时$$就是$1的语义值，动作只需要替换值域，
+ * 语义动作通过下面按类型取值的方法读取各个符号的值。
+ */
 public class SemValue {
 
 	public int code;
 
-	public Location loc;
+	/**
+	 * 压缩后的位置，见Location.pack
+	 */
+	public long pos = Location.NO_POSITION;
+
+	public Object value;
 
-	public int typeTag;
-	
-	public Object literal;
-	
-	public String ident;
+	public Name ident() {
+		return (Name) value;
+	}
 
-	public List<ClassDef> clist;
+	public Object literal() {
+		return value;
+	}
 
 	/**
-	 * field list
+	 * @return 常量的类型标记
 	 */
-	public List<Tree> flist;
+	public int typeTag() {
+		return TokenBuffer.tagOf(value);
+	}
+
+	@SuppressWarnings("unchecked")
+	public List<ClassDef> clist() {
+		return (List<ClassDef>) value;
+	}
 
-	public List<VarDef> vlist;
+	/**
+	 * field list
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Tree> flist() {
+		return (List<Tree>) value;
+	}
 
+	@SuppressWarnings("unchecked")
+	public List<VarDef> vlist() {
+		return (List<VarDef>) value;
+	}
 
 	/**
 	 * statement list
 	 */
-	public List<Tree> slist;
+	@SuppressWarnings("unchecked")
+	public List<Tree> slist() {
+		return (List<Tree>) value;
+	}
 
-	public List<Expr> elist;
+	@SuppressWarnings("unchecked")
+	public List<Expr> elist() {
+		return (List<Expr>) value;
+	}
 
-	public TopLevel prog;
+	public ClassDef cdef() {
+		return (ClassDef) value;
+	}
 
-	public ClassDef cdef;
+	public VarDef vdef() {
+		return (VarDef) value;
+	}
 
-	public VarDef vdef;
+	public MethodDef fdef() {
+		return (MethodDef) value;
+	}
 
-	public MethodDef fdef;
+	public TypeLiteral type() {
+		return (TypeLiteral) value;
+	}
 
-	public TypeLiteral type;
+	public Tree stmt() {
+		return (Tree) value;
+	}
 
-	public Tree stmt;
+	public Expr expr() {
+		return (Expr) value;
+	}
 
-	public Expr expr;
+	public LValue lvalue() {
+		return (LValue) value;
+	}
 
-	public LValue lvalue;
-	
-	public VarBind varBind;
+	public VarBind varBind() {
+		return (VarBind) value;
+	}
 
 	/**
 	 * 创建一个关键字的语义值
@@ -94,11 +142,10 @@ public class SemValue {
 	 *            常量的值
 	 * @return 对应的语义值
 	 */
-	public static SemValue createLiteral(int tag, Object value) {
+	public static SemValue createLiteral(Object value) {
 		SemValue v = new SemValue();
 		v.code = Parser.LITERAL;
-		v.typeTag = tag;
-		v.literal = value;
+		v.value = value;
 		return v;
 	}
 
@@ -107,12 +154,12 @@ public class SemValue {
 	 * 
 	 * @param name
 	 *            标识符的名字
-	 * @return 对应的语义值（标识符名字存放在sval域）
+	 * @return 对应的语义值（标识符名字存放在值域）
 	 */
-	public static SemValue createIdentifier(String name) {
+	public static SemValue createIdentifier(Name name) {
 		SemValue v = new SemValue();
 		v.code = Parser.IDENTIFIER;
-		v.ident = name;
+		v.value = name;
 		return v;
 	}
 
@@ -188,19 +235,19 @@ public class SemValue {
 
 		// 常量
 		case Parser.LITERAL:
-			switch (typeTag) {
+			switch (typeTag()) {
 			case Tree.INT:
 			case Tree.BOOL:
-				msg = "constant : " + literal;
+				msg = "constant : " + value;
 				break;
 			default:
-				msg = "constant : " + MiscUtils.quote((String)literal);
+				msg = "constant : " + MiscUtils.quote((String)value);
 			}
 			break;
 			
 		// 标识符
 		case Parser.IDENTIFIER:
-			msg = "identifier: " + ident;
+			msg = "identifier: " + value;
 			break;
 
 		// 操作符
@@ -226,6 +273,6 @@ public class SemValue {
 			msg = "operator : " + (char) code;
 			break;
 		}
-		return (String.format("%-15s%s", loc, msg));
+		return (String.format("%-15s%s", Location.of(pos), msg));
 	}
 }
@@ -0,0 +1,276 @@
+package decaf.frontend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import decaf.Location;
+import decaf.error.DecafError;
+import decaf.tree.Tree;
+import decaf.utils.Name;
+
+/**
+ * 整个源程序的单词序列，按单词存放在几个平行的基本类型数组中<br>
+ * 每个单词只占一个代表码、一个压缩的位置（行号在高32位，列号在低32位）和一个值表下标，
+ * 标识符和常量的值在值表中只存一份。词法分析时不创建SemValue，
+ * 语法分析器取单词时才创建它需要的SemValue；单词序列可以保留下来重复分析或者供其他工具使用。<br>
+ * 每个单词对应词法分析器的一次yylex调用，调用中报告的错误记在这个单词下，
+ * 语法分析器取到这个单词时再报告，因此错误的报告顺序与同步方式相同。
+ */
+public final class TokenBuffer {
+
+	/**
+	 * 没有设置语义值的单词（例如过大的整数）的位置
+	 */
+	private static final long NONE = -1L;
+
+	/**
+	 * 每块的单词数，数组按块分配，增长时不复制
+	 */
+	private static final int BLOCK_BITS = 12;
+
+	private static final int BLOCK = 1 << BLOCK_BITS;
+
+	/**
+	 * 语义动作既不读取、也不会通过$$改写的单词（右括号、逗号等）共用的语义值，见needsSemantic
+	 */
+	private static final SemValue SHARED = new SemValue();
+
+	private int size;
+
+	private int[][] codes = new int[16][];
+
+	/**
+	 * 单词的位置，yylex没有设置语义值时为NONE
+	 */
+	private long[][] positions = new long[16][];
+
+	/**
+	 * 单词的值在值表中的下标，没有值时为-1
+	 */
+	private int[][] values = new int[16][];
+
+	/**
+	 * yylex返回时词法分析器的位置与单词位置不同的那些单词（字符串、输入结束等）及其位置，
+	 * 语法错误报告在这里
+	 */
+	private int[] markTokens = new int[16];
+
+	private long[] marks = new long[16];
+
+	private int markCount;
+
+	private List<Object> table = new ArrayList<Object>();
+
+	private Map<Object, Integer> index = new HashMap<Object, Integer>();
+
+	private List<DecafError> errors = new ArrayList<DecafError>();
+
+	/**
+	 * 每个错误所属的单词
+	 */
+	private int[] errorTokens = new int[16];
+
+	/**
+	 * 当前yylex调用设置的位置和值
+	 */
+	private long position = NONE;
+
+	private int value = -1;
+
+	/**
+	 * 用词法分析器识别全部单词，直到输入结束
+	 */
+	public static TokenBuffer scan(BaseLexer lexer) {
+		TokenBuffer buffer = new TokenBuffer();
+		lexer.fill(buffer);
+		return buffer;
+	}
+
+	/**
+	 * @return 单词的个数，包括最后的输入结束
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return 第i个单词的代表码，0表示输入结束，-1表示词法分析器出现异常
+	 */
+	public int getCode(int i) {
+		return codes[i >>> BLOCK_BITS][i & (BLOCK - 1)];
+	}
+
+	public int getLine(int i) {
+		return Location.lineOf(position(i));
+	}
+
+	public int getColumn(int i) {
+		return Location.columnOf(position(i));
+	}
+
+	/**
+	 * @return 第i个单词的值：标识符的名字（Name），常量的值，或者异常的信息；没有值时为null
+	 */
+	public Object getValue(int i) {
+		int v = values[i >>> BLOCK_BITS][i & (BLOCK - 1)];
+		return v < 0 ? null : table.get(v);
+	}
+
+	long position(int i) {
+		return positions[i >>> BLOCK_BITS][i & (BLOCK - 1)];
+	}
+
+	/**
+	 * 当前调用识别出一个单词
+	 */
+	void token(int line, int column, Object v) {
+		position = Location.pack(line, column);
+		value = intern(v);
+	}
+
+	/**
+	 * 当前调用报告了一个错误
+	 */
+	void error(DecafError error) {
+		if (errors.size() == errorTokens.length) {
+			errorTokens = Arrays.copyOf(errorTokens, errorTokens.length * 2);
+		}
+		errorTokens[errors.size()] = size;
+		errors.add(error);
+	}
+
+	/**
+	 * 当前调用出现异常
+	 */
+	void exception(String message) {
+		value = intern(message);
+	}
+
+	/**
+	 * 结束当前调用
+	 */
+	void end(int code, int line, int column) {
+		int b = size >>> BLOCK_BITS;
+		int k = size & (BLOCK - 1);
+		if (k == 0) {
+			if (b == codes.length) {
+				codes = Arrays.copyOf(codes, b * 2);
+				positions = Arrays.copyOf(positions, b * 2);
+				values = Arrays.copyOf(values, b * 2);
+			}
+			codes[b] = new int[BLOCK];
+			positions[b] = new long[BLOCK];
+			values[b] = new int[BLOCK];
+		}
+		codes[b][k] = code;
+		positions[b][k] = position;
+		values[b][k] = value;
+		long mark = Location.pack(line, column);
+		if (mark != position) {
+			if (markCount == marks.length) {
+				markTokens = Arrays.copyOf(markTokens, markCount * 2);
+				marks = Arrays.copyOf(marks, markCount * 2);
+			}
+			markTokens[markCount] = size;
+			marks[markCount++] = mark;
+		}
+		size++;
+		position = NONE;
+		value = -1;
+	}
+
+	boolean hasSemantic(int i) {
+		return position(i) != NONE;
+	}
+
+	/**
+	 * 创建第i个单词的语义值，语义动作用不到的单词返回共用的SHARED（不带位置）
+	 */
+	SemValue getSemantic(int i) {
+		int code = getCode(i);
+		if (!needsSemantic(code)) {
+			return SHARED;
+		}
+		Object v = getValue(i);
+		SemValue sem;
+		switch (code) {
+		case Parser.IDENTIFIER:
+			sem = SemValue.createIdentifier((Name) v);
+			break;
+		case Parser.LITERAL:
+			sem = SemValue.createLiteral(v);
+			break;
+		default:
+			sem = SemValue.createKeyword(code);
+		}
+		sem.pos = position(i);
+		return sem;
+	}
+
+	/**
+	 * @return 语义动作是否会用到这种单词的语义值<br>
+	 *         归约时$$就是$1的语义值，所以出现在产生式开头的单词也要有自己的语义值；
+	 *         其余的单词只要没有动作用$n引用它，就不需要语义值。修改Parser.y时要同步修改这里。
+	 */
+	static boolean needsSemantic(int code) {
+		switch (code) {
+		case ')':
+		case ',':
+		case '.':
+		case ':':
+		case ']':
+		case '}':
+		case Parser.GUARDED:
+		case Parser.IN:
+			return false;
+		default:
+			return true;
+		}
+	}
+
+	long getMark(int i) {
+		int k = Arrays.binarySearch(markTokens, 0, markCount, i);
+		return k >= 0 ? marks[k] : position(i);
+	}
+
+	/**
+	 * @return 第from个错误开始，属于第i个单词的错误个数
+	 */
+	int countErrors(int from, int i) {
+		int n = 0;
+		while (from + n < errors.size() && errorTokens[from + n] == i) {
+			n++;
+		}
+		return n;
+	}
+
+	DecafError getError(int k) {
+		return errors.get(k);
+	}
+
+	/**
+	 * @return 常量的类型标记
+	 */
+	static int tagOf(Object literal) {
+		if (literal instanceof Integer) {
+			return Tree.INT;
+		}
+		return literal instanceof Boolean ? Tree.BOOL : Tree.STRING;
+	}
+
+	private int intern(Object v) {
+		if (v == null) {
+			return -1;
+		}
+		Integer i = index.get(v);
+		if (i == null) {
+			i = table.size();
+			table.add(v);
+			index.put(v, i);
+		}
+		return i;
+	}
+}
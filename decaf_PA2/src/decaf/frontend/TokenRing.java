@@ -0,0 +1,123 @@
+package decaf.frontend;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import decaf.error.DecafError;
+
+/**
+ * 流水线方式的词法分析中，词法分析线程与语法分析线程之间的有界环形缓冲区<br>
+ * 只有一个生产者和一个消费者：生产者只写tail，消费者只写head，
+ * 两者都用lazySet发布，读对方的下标时才有内存屏障，因此不需要加锁。
+ * 缓冲区满（或空）时先自旋，再让出处理器。
+ */
+final class TokenRing {
+
+	/**
+	 * 一次Lexer.yylex调用的全部结果，语法分析线程按同步方式下的顺序重放它们
+	 */
+	static final class Token {
+
+		/**
+		 * yylex的返回值，出现异常时为-1
+		 */
+		int code;
+
+		/**
+		 * 这次调用设置的语义值，没有设置时为null（语法分析器保留上一个值）
+		 */
+		SemValue value;
+
+		/**
+		 * 这次调用中报告的错误，没有时为null
+		 */
+		List<DecafError> errors;
+
+		/**
+		 * 调用结束时词法分析器的位置，语法错误报告在这里
+		 */
+		long position;
+
+		/**
+		 * yylex抛出的异常
+		 */
+		Throwable exception;
+	}
+
+	private static final int SPINS = 64;
+
+	private final Token[] slots;
+
+	private final int mask;
+
+	/**
+	 * 下一个要读的位置，只由消费者写
+	 */
+	private final AtomicLong head = new AtomicLong();
+
+	/**
+	 * 下一个要写的位置，只由生产者写
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	private volatile boolean closed;
+
+	/**
+	 * @param capacity
+	 *            容量，必须是2的幂
+	 */
+	TokenRing(int capacity) {
+		slots = new Token[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * 生产者放入一个单词，缓冲区满时等待
+	 * 
+	 * @return 消费者已经关闭缓冲区时为false
+	 */
+	boolean put(Token token) {
+		long t = tail.get();
+		int spins = 0;
+		while (t - head.get() == slots.length) {
+			if (closed) {
+				return false;
+			}
+			spins = backOff(spins);
+		}
+		slots[(int) t & mask] = token;
+		tail.lazySet(t + 1);
+		return !closed;
+	}
+
+	/**
+	 * 消费者取出一个单词，缓冲区空时等待
+	 */
+	Token take() {
+		long h = head.get();
+		int spins = 0;
+		while (h == tail.get()) {
+			spins = backOff(spins);
+		}
+		int i = (int) h & mask;
+		Token token = slots[i];
+		slots[i] = null;
+		head.lazySet(h + 1);
+		return token;
+	}
+
+	/**
+	 * 消费者不再取单词，生产者在下一次放入时停止
+	 */
+	void close() {
+		closed = true;
+	}
+
+	private static int backOff(int spins) {
+		if (spins < SPINS) {
+			return spins + 1;
+		}
+		Thread.yield();
+		return spins;
+	}
+}
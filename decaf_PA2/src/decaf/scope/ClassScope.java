@@ -1,16 +1,41 @@
 package decaf.scope;
 
-import java.util.TreeSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import decaf.symbol.Class;
 import decaf.symbol.Function;
 import decaf.symbol.Symbol;
 import decaf.utils.IndentPrintWriter;
+import decaf.utils.Name;
 
 public class ClassScope extends Scope {
 
 	private Class owner;
 
+	/**
+	 * 增量检查时从上一次编译中取得的打印结果，为null时按符号表打印
+	 */
+	private List<String> printed;
+
+	/**
+	 * 本类和全部祖先类的成员，子类的成员代替父类中的同名成员；flatten之前为null
+	 */
+	private Map<Name, Symbol> members;
+
+	/**
+	 * flatten时确定的父类作用域
+	 */
+	private ClassScope parentScope;
+
+	/**
+	 * 虚函数表：全部非静态方法，下标就是方法的offset
+	 */
+	private Function[] vtable;
+
 	public ClassScope(Class owner) {
 		super();
 		this.owner = owner;
@@ -22,10 +47,58 @@ public class ClassScope extends Scope {
 	}
 
 	public ClassScope getParentScope() {
+		if (members != null) {
+			return parentScope;
+		}
 		Class p = owner.getParent();
 		return p == null ? null : p.getAssociatedScope();
 	}
 
+	/**
+	 * 在类的继承关系和成员都已经确定（检查覆盖之后）时，合并本类和祖先类的成员，
+	 * 并为每个非静态方法分配虚函数表中的位置：覆盖父类方法的方法使用父类方法的位置，
+	 * 新的方法排在父类的方法之后。
+	 */
+	public void flatten() {
+		if (members != null) {
+			return;
+		}
+		ClassScope p = getParentScope();
+		List<Function> slots = new ArrayList<Function>();
+		if (p != null) {
+			p.flatten();
+			members = new HashMap<Name, Symbol>(p.members);
+			slots.addAll(Arrays.asList(p.vtable));
+		} else {
+			members = new HashMap<Name, Symbol>();
+		}
+		for (Symbol symbol : symbols) {
+			Symbol hidden = members.put(symbol.getName(), symbol);
+			if (!symbol.isFunction() || ((Function) symbol).isStatik()) {
+				continue;
+			}
+			Function f = (Function) symbol;
+			if (hidden != null && hidden.isFunction()
+					&& !((Function) hidden).isStatik()) {
+				f.setOffset(((Function) hidden).getOffset());
+				slots.set(f.getOffset(), f);
+			} else {
+				f.setOffset(slots.size());
+				slots.add(f);
+			}
+		}
+		vtable = slots.toArray(new Function[slots.size()]);
+		owner.setNumNonStaticFunc(vtable.length);
+		parentScope = p;
+	}
+
+	/**
+	 * @return 虚函数表，flatten之前为null
+	 */
+	public Function[] getVtable() {
+		return vtable;
+	}
+
 	@Override
 	public Kind getKind() {
 		return Kind.CLASS;
@@ -35,12 +108,27 @@ public class ClassScope extends Scope {
 		return owner;
 	}
 
+	/**
+	 * 用上一次编译的打印结果（不含外层缩进的各行）代替按符号表打印
+	 */
+	public void setPrinted(List<String> printed) {
+		this.printed = printed;
+	}
+
 	@Override
 	public void printTo(IndentPrintWriter pw) {
-		TreeSet<Symbol> ss = new TreeSet<Symbol>(Symbol.LOCATION_COMPARATOR);
-		for (Symbol symbol : symbols.values()) {
-			ss.add(symbol);
+		if (printed != null) {
+			for (String line : printed) {
+				pw.println(line);
+			}
+			return;
+		}
+		// symbols are usually declared in order already, sorting them is cheap
+		Symbol[] ss = new Symbol[symbols.size()];
+		for (int i = 0; i < ss.length; i++) {
+			ss[i] = symbols.get(i);
 		}
+		Arrays.sort(ss, Symbol.LOCATION_COMPARATOR);
 		pw.println("CLASS SCOPE OF '" + owner.getName() + "':");
 		pw.incIndent();
 		for (Symbol symbol : ss) {
@@ -54,20 +142,22 @@ public class ClassScope extends Scope {
 		pw.decIndent();
 	}
 
+	/**
+	 * @return symbol是否是从祖先类继承来、在本类中可见的成员<br>
+	 *         与lookupVisible一样，flatten之后只查一次合并后的成员表；被覆盖的成员不算继承来的
+	 */
 	public boolean isInherited(Symbol symbol) {
 		Scope scope = symbol.getScope();
 		if (scope == null || scope == this || !scope.isClassScope()) {
 			return false;
 		}
-		for (ClassScope p = getParentScope(); p != null; p = p.getParentScope()) {
-			if (scope == p) {
-				return true;
-			}
-		}
-		return false;
+		return lookupVisible(symbol.getName()) == symbol;
 	}
 
-	public Symbol lookupVisible(String name) {
+	public Symbol lookupVisible(Name name) {
+		if (members != null) {
+			return members.get(name);
+		}
 		for (ClassScope cs = this; cs != null; cs = cs.getParentScope()) {
 			Symbol symbol = cs.lookup(name);
 			if (symbol != null) {
@@ -34,7 +34,7 @@ public class FormalScope extends Scope {
 	public void printTo(IndentPrintWriter pw) {
 		pw.println("FORMAL SCOPE OF '" + owner.getName() + "':");
 		pw.incIndent();
-		for (Symbol symbol : symbols.values()) {
+		for (Symbol symbol : symbols) {
 			pw.println(symbol);
 		}
 		astNode.associatedScope.printTo(pw);
@@ -20,10 +20,10 @@ public class GlobalScope extends Scope {
 	public void printTo(IndentPrintWriter pw) {
 		pw.println("GLOBAL SCOPE:");
 		pw.incIndent();
-		for (Symbol symbol : symbols.values()) {
+		for (Symbol symbol : symbols) {
 			pw.println(symbol);
 		}
-		for (Symbol symbol : symbols.values()) {
+		for (Symbol symbol : symbols) {
 			((Class) symbol).getAssociatedScope().printTo(pw);
 		}
 		pw.decIndent();
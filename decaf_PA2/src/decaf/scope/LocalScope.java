@@ -33,7 +33,7 @@ public class LocalScope extends Scope {
 	public void printTo(IndentPrintWriter pw) {
 		pw.println("LOCAL SCOPE:");
 		pw.incIndent();
-		for (Symbol symbol : symbols.values()) {
+		for (Symbol symbol : symbols) {
 			pw.println(symbol);
 		}
 
@@ -1,18 +1,22 @@
 package decaf.scope;
 
 import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 import decaf.symbol.Symbol;
+import decaf.utils.Counters;
 import decaf.utils.IndentPrintWriter;
+import decaf.utils.Name;
 
 public abstract class Scope {
 	public enum Kind {
 		GLOBAL, CLASS, FORMAL, LOCAL
 	}
 
-	protected Map<String, Symbol> symbols = new LinkedHashMap<String, Symbol>();
+	protected SymbolTable symbols = new SymbolTable();
+
+	protected Scope() {
+		Counters.count(Counters.SCOPE);
+	}
 
 	public abstract Kind getKind();
 
@@ -34,12 +38,12 @@ public abstract class Scope {
 		return false;
 	}
 
-	public Symbol lookup(String name) {
-		return symbols.get(name);
+	public Symbol lookup(Name name) {
+		return symbols.lookup(name);
 	}
 
 	public void declare(Symbol symbol) {
-		symbols.put(symbol.getName(), symbol);
+		symbols.put(symbol);
 		symbol.setScope(this);
 	}
 
@@ -48,7 +52,7 @@ public abstract class Scope {
 	}
 
 	public Iterator<Symbol> iterator() {
-		return symbols.values().iterator();
+		return symbols.iterator();
 	}
 
 }
@@ -1,52 +1,113 @@
 package decaf.scope;
 
-import java.util.ListIterator;
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.Set;
 
-import decaf.Location;
 import decaf.scope.Scope.Kind;
 import decaf.symbol.Class;
 import decaf.symbol.Symbol;
+import decaf.utils.Name;
 
+/**
+ * 当前打开的作用域<br>
+ * 除全局作用域外，打开的作用域中的全部符号都记在一个按名字散列的表中：
+ * 每个名字对应一条从内层到外层的绑定链，打开作用域时把它的符号放到各自链的头部，
+ * 关闭时再取下来，所以查找一个名字的代价与作用域的嵌套层数无关。
+ * 全局作用域不放入表中，链上没有找到时再查全局作用域。<br>
+ * 打开的作用域存放在数组中，并记录每种作用域最内层的一个的位置，
+ * 查找作用域和符号都不创建任何对象。向已经打开的作用域中添加符号必须通过declare进行。
+ */
 public class ScopeStack {
-	private Stack<Scope> scopeStack = new Stack<Scope>();
-	
+	private Scope[] scopes = new Scope[16];
+
+	private int depth;
+
+	/**
+	 * 每种作用域最内层的一个在scopes中的位置，没有时为-1
+	 */
+	private int[] innermost = new int[Kind.values().length];
+
+	/**
+	 * outer[k]是scopes[k]打开之前同种作用域最内层的一个的位置
+	 */
+	private int[] outer = new int[16];
+
 	private GlobalScope globalScope;
 
-	public Symbol lookup(String name, boolean through) {
+	/**
+	 * 开放寻址的散列表，names[i]对应的绑定链的头部是bindings[i]，
+	 * 名字加入后不再删除，链为空时bindings[i]为null
+	 */
+	private Name[] names = new Name[256];
+
+	private Binding[] bindings = new Binding[256];
+
+	private int nameCount;
+
+	/**
+	 * levels[k]是scopes[k]中最后加入的绑定
+	 */
+	private Binding[] levels = new Binding[16];
+
+	/**
+	 * 增量检查时记录被查找的全局名字（即类名），为null时不记录
+	 */
+	private Set<String> dependencies;
+
+	public ScopeStack() {
+		Arrays.fill(innermost, -1);
+	}
+
+	/**
+	 * 开始或停止记录在全局作用域中查找的名字
+	 *
+	 * @param dependencies
+	 *            保存名字的集合，为null时停止记录
+	 */
+	public void setDependencies(Set<String> dependencies) {
+		this.dependencies = dependencies;
+	}
+
+	public Symbol lookup(Name name, boolean through) {
 		if (through) {
-			ListIterator<Scope> iter = scopeStack.listIterator(scopeStack
-					.size());
-			while (iter.hasPrevious()) {
-				Symbol symbol = iter.previous().lookup(name);
-				if (symbol != null) {
-					return symbol;
-				}
+			Binding b = find(name);
+			if (b != null) {
+				return b.symbol;
 			}
-			return null;
+			return lookupGlobal(name);
 		} else {
-			return scopeStack.peek().lookup(name);
+			return scopes[depth - 1].lookup(name);
 		}
 	}
 
-	public Symbol lookupBeforeLocation(String name, Location loc) {
-		ListIterator<Scope> iter = scopeStack.listIterator(scopeStack.size());
-		while (iter.hasPrevious()) {
-			Scope scope = iter.previous();
-			Symbol symbol = scope.lookup(name);
-			if (symbol != null) {
-				if (scope.isLocalScope()
-						&& symbol.getLocation().compareTo(loc) > 0) {
-					continue;
-				}
-				return symbol;
+	/**
+	 * 查找名字，跳过局部作用域中定义在pos之后的符号
+	 */
+	public Symbol lookupBeforeLocation(Name name, long pos) {
+		for (Binding b = find(name); b != null; b = b.shadowed) {
+			if (b.scope.isLocalScope() && b.symbol.getPosition() > pos) {
+				continue;
 			}
+			return b.symbol;
 		}
-		return null;
+		return lookupGlobal(name);
+	}
+
+	private Symbol lookupGlobal(Name name) {
+		int global = innermost[Kind.GLOBAL.ordinal()];
+		if (global < 0) {
+			return null;
+		}
+		if (dependencies != null) {
+			dependencies.add(name.toString());
+		}
+		return scopes[global].lookup(name);
 	}
 
 	public void declare(Symbol symbol) {
-		scopeStack.peek().declare(symbol);
+		Scope scope = scopes[depth - 1];
+		scope.declare(symbol);
+		bind(symbol, scope);
 	}
 
 	public void open(Scope scope) {
@@ -61,34 +122,173 @@ public class ScopeStack {
 			}
 			break;
 		}
-		scopeStack.push(scope);
+		if (depth == scopes.length) {
+			scopes = Arrays.copyOf(scopes, depth * 2);
+			outer = Arrays.copyOf(outer, depth * 2);
+			levels = Arrays.copyOf(levels, depth * 2);
+		}
+		int kind = scope.getKind().ordinal();
+		scopes[depth] = scope;
+		outer[depth] = innermost[kind];
+		innermost[kind] = depth;
+		levels[depth] = null;
+		depth++;
+		if (!scope.isGlobalScope()) {
+			SymbolTable symbols = scope.symbols;
+			for (int i = 0; i < symbols.size(); i++) {
+				bind(symbols.get(i), scope);
+			}
+		}
 	}
 
 	public void close() {
-		Scope scope = scopeStack.pop();
+		Scope scope = pop();
 		if (scope.isClassScope()) {
-			for (int n = scopeStack.size() - 1; n > 0; n--) {
-				scopeStack.pop();
+			while (depth > 1) {
+				pop();
 			}
 		}
 	}
 
-	public Scope lookForScope(Kind kind) {
-		ListIterator<Scope> iter = scopeStack.listIterator(scopeStack.size());
-		while (iter.hasPrevious()) {
-			Scope scope = iter.previous();
-			if (scope.getKind() == kind) {
-				return scope;
+	private Scope pop() {
+		int level = --depth;
+		for (Binding b = levels[level]; b != null; b = b.sibling) {
+			bindings[b.slot] = b.shadowed;
+		}
+		levels[level] = null;
+		Scope scope = scopes[level];
+		scopes[level] = null;
+		innermost[scope.getKind().ordinal()] = outer[level];
+		return scope;
+	}
+
+	/**
+	 * 把scope中的一个符号放到它的名字的绑定链头部，scope是最内层的作用域
+	 */
+	private void bind(Symbol symbol, Scope scope) {
+		if (scope.isGlobalScope()) {
+			return;
+		}
+		int i = slot(symbol.getName());
+		Binding head = bindings[i];
+		if (head != null && head.scope == scope) {
+			// redeclared in the same scope, replaces the old symbol
+			head.symbol = symbol;
+			return;
+		}
+		int level = depth - 1;
+		Binding b = new Binding(symbol, scope, i, head, levels[level]);
+		bindings[i] = b;
+		levels[level] = b;
+	}
+
+	private Binding find(Name name) {
+		int mask = names.length - 1;
+		for (int i = hash(name) & mask;; i = (i + 1) & mask) {
+			if (names[i] == name) {
+				return bindings[i];
+			}
+			if (names[i] == null) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * @return 名字在散列表中的位置，没有时加入
+	 */
+	private int slot(Name name) {
+		int mask = names.length - 1;
+		int i = hash(name) & mask;
+		while (names[i] != null) {
+			if (names[i] == name) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		if ((nameCount + 1) * 2 > names.length) {
+			grow();
+			return slot(name);
+		}
+		nameCount++;
+		names[i] = name;
+		return i;
+	}
+
+	private void grow() {
+		Name[] oldNames = names;
+		Binding[] oldBindings = bindings;
+		names = new Name[oldNames.length * 2];
+		bindings = new Binding[oldNames.length * 2];
+		int mask = names.length - 1;
+		for (int k = 0; k < oldNames.length; k++) {
+			if (oldNames[k] == null) {
+				continue;
+			}
+			int i = hash(oldNames[k]) & mask;
+			while (names[i] != null) {
+				i = (i + 1) & mask;
+			}
+			names[i] = oldNames[k];
+			bindings[i] = oldBindings[k];
+			for (Binding b = bindings[i]; b != null; b = b.shadowed) {
+				b.slot = i;
 			}
 		}
-		return null;
+	}
+
+	private static int hash(Name name) {
+		int h = name.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	public Scope lookForScope(Kind kind) {
+		int k = innermost[kind.ordinal()];
+		return k < 0 ? null : scopes[k];
 	}
 
 	public Scope getCurrentScope() {
-		return scopeStack.peek();
+		return scopes[depth - 1];
 	}
 
-	public Class lookupClass(String name) {
+	public Class lookupClass(Name name) {
+		if (dependencies != null) {
+			dependencies.add(name.toString());
+		}
 		return (Class) globalScope.lookup(name);
 	}
+
+	/**
+	 * 一个符号在一个打开的作用域中的绑定
+	 */
+	private static final class Binding {
+
+		Symbol symbol;
+
+		Scope scope;
+
+		/**
+		 * 所在的散列表位置
+		 */
+		int slot;
+
+		/**
+		 * 同一个名字在外层的绑定
+		 */
+		Binding shadowed;
+
+		/**
+		 * 同一个作用域中先加入的绑定
+		 */
+		Binding sibling;
+
+		Binding(Symbol symbol, Scope scope, int slot, Binding shadowed,
+				Binding sibling) {
+			this.symbol = symbol;
+			this.scope = scope;
+			this.slot = slot;
+			this.shadowed = shadowed;
+			this.sibling = sibling;
+		}
+	}
 }
@@ -0,0 +1,142 @@
+package decaf.scope;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import decaf.symbol.Symbol;
+import decaf.utils.Name;
+
+/**
+ * 一个作用域中的符号，按加入的顺序存放<br>
+ * 大部分局部作用域只有几个符号，所以符号只放在一个数组中，查找时顺序比较名字；
+ * 没有符号的作用域共用同一个空数组。符号个数超过HASH_THRESHOLD时（类体、全局作用域）
+ * 才另外建立按名字的散列索引。
+ */
+final class SymbolTable implements Iterable<Symbol> {
+
+	private static final Symbol[] EMPTY = new Symbol[0];
+
+	private static final int HASH_THRESHOLD = 8;
+
+	private Symbol[] symbols = EMPTY;
+
+	private int size;
+
+	/**
+	 * 名字到符号在数组中下标的索引，符号个数不超过HASH_THRESHOLD时为null
+	 */
+	private Map<Name, Integer> index;
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return 第i个加入的符号
+	 */
+	Symbol get(int i) {
+		return symbols[i];
+	}
+
+	Symbol lookup(Name name) {
+		int i = indexOf(name);
+		return i < 0 ? null : symbols[i];
+	}
+
+	/**
+	 * 加入一个符号，已经有同名的符号时在原来的位置上替换它
+	 */
+	void put(Symbol symbol) {
+		Name name = symbol.getName();
+		int i = indexOf(name);
+		if (i >= 0) {
+			symbols[i] = symbol;
+			return;
+		}
+		if (size == symbols.length) {
+			Symbol[] grown = new Symbol[size == 0 ? 4 : size * 2];
+			System.arraycopy(symbols, 0, grown, 0, size);
+			symbols = grown;
+		}
+		symbols[size++] = symbol;
+		if (index != null) {
+			index.put(name, size - 1);
+		} else if (size > HASH_THRESHOLD) {
+			index = new HashMap<Name, Integer>();
+			for (int k = 0; k < size; k++) {
+				index.put(symbols[k].getName(), k);
+			}
+		}
+	}
+
+	void remove(Name name) {
+		int i = indexOf(name);
+		if (i >= 0) {
+			removeAt(i);
+		}
+	}
+
+	/**
+	 * 删除第i个符号，后面的符号前移一位，索引中它们的下标也随之减一
+	 */
+	private void removeAt(int i) {
+		Name name = symbols[i].getName();
+		System.arraycopy(symbols, i + 1, symbols, i, size - i - 1);
+		symbols[--size] = null;
+		if (index != null) {
+			index.remove(name);
+			for (int k = i; k < size; k++) {
+				index.put(symbols[k].getName(), k);
+			}
+		}
+	}
+
+	private int indexOf(Name name) {
+		if (index != null) {
+			Integer i = index.get(name);
+			return i == null ? -1 : i;
+		}
+		for (int i = 0; i < size; i++) {
+			if (symbols[i].getName() == name) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public Iterator<Symbol> iterator() {
+		return new Iterator<Symbol>() {
+
+			private int next;
+
+			private boolean removable;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public Symbol next() {
+				if (next >= size) {
+					throw new NoSuchElementException();
+				}
+				removable = true;
+				return symbols[next++];
+			}
+
+			@Override
+			public void remove() {
+				if (!removable) {
+					throw new IllegalStateException();
+				}
+				removable = false;
+				removeAt(--next);
+			}
+
+		};
+	}
+}
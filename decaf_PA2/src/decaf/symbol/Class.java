@@ -1,14 +1,15 @@
 package decaf.symbol;
 
-import decaf.Driver;
-import decaf.Location;
 import decaf.scope.ClassScope;
 import decaf.scope.GlobalScope;
 import decaf.type.ClassType;
+import decaf.utils.Name;
 
 public class Class extends Symbol {
 
-	private String parentName;
+	private Name parentName;
+
+	private GlobalScope globalScope;
 
 	private ClassScope associatedScope;
 
@@ -48,10 +49,12 @@ public class Class extends Symbol {
 		this.numVar = numVar;
 	}
 
-	public Class(String name, String parentName, Location location) {
+	public Class(Name name, Name parentName, GlobalScope globalScope,
+			long position) {
 		this.name = name;
 		this.parentName = parentName;
-		this.location = location;
+		this.globalScope = globalScope;
+		this.position = position;
 		this.order = -1;
 		this.check = false;
 		this.sealed = false;
@@ -82,7 +85,7 @@ public class Class extends Symbol {
 
 	@Override
 	public String toString() {
-		StringBuilder sb = new StringBuilder(location + " -> class " + name);
+		StringBuilder sb = new StringBuilder(getLocation() + " -> class " + name);
 		if (parentName != null) {
 			sb.append(" : " + parentName);
 		}
@@ -94,7 +97,8 @@ public class Class extends Symbol {
 	}
 
 	public Class getParent() {
-		return Driver.getDriver().getTable().lookupClass(parentName);
+		return parentName == null ? null : (Class) globalScope
+				.lookup(parentName);
 	}
 
 	@Override
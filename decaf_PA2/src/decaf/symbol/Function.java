@@ -1,13 +1,11 @@
 package decaf.symbol;
 
-import decaf.Driver;
-import decaf.Location;
 import decaf.tree.Tree.Block;
 import decaf.scope.ClassScope;
 import decaf.scope.FormalScope;
-import decaf.scope.Scope;
 import decaf.type.FuncType;
 import decaf.type.Type;
+import decaf.utils.Name;
 
 public class Function extends Symbol {
 
@@ -43,19 +41,17 @@ public class Function extends Symbol {
 		this.offset = offset;
 	}
 
-	public Function(boolean statik, String name, Type returnType,
-			Block node, Location location) {
+	public Function(boolean statik, Name name, Type returnType,
+			Block node, ClassScope cs, long position) {
 		this.name = name;
-		this.location = location;
+		this.position = position;
 
 		type = new FuncType(returnType);
 		associatedScope = new FormalScope(this, node);
-		ClassScope cs = (ClassScope) Driver.getDriver().getTable()
-				.lookForScope(Scope.Kind.CLASS);
 		this.statik = statik;
 		if (!statik) {
-			Variable _this = new Variable("this", cs.getOwner().getType(),
-					location);
+			Variable _this = new Variable(Name.THIS, cs.getOwner().getType(),
+					position);
 			associatedScope.declare(_this);
 			appendParam(_this);
 		}
@@ -92,7 +88,7 @@ public class Function extends Symbol {
 
 	@Override
 	public String toString() {
-		return location + " -> " + (statik ? "static " : "") + "function "
+		return getLocation() + " -> " + (statik ? "static " : "") + "function "
 				+ name + " : " + type;
 	}
 
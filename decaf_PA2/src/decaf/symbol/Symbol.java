@@ -5,9 +5,11 @@ import java.util.Comparator;
 import decaf.Location;
 import decaf.scope.Scope;
 import decaf.type.Type;
+import decaf.utils.Counters;
+import decaf.utils.Name;
 
 public abstract class Symbol {
-	protected String name;
+	protected Name name;
 
 	protected Scope definedIn;
 
@@ -15,13 +17,17 @@ public abstract class Symbol {
 
 	protected int order;
 
-	protected Location location;
+	/**
+	 * 压缩后的位置，见Location.pack
+	 */
+	protected long position;
 
 	public static final Comparator<Symbol> LOCATION_COMPARATOR = new Comparator<Symbol>() {
 
 		@Override
 		public int compare(Symbol o1, Symbol o2) {
-			return o1.location.compareTo(o2.location);
+			return o1.position > o2.position ? 1
+					: o1.position == o2.position ? 0 : -1;
 		}
 
 	};
@@ -35,6 +41,10 @@ public abstract class Symbol {
 
 	};
 
+	protected Symbol() {
+		Counters.count(Counters.SYMBOL);
+	}
+
 	public Scope getScope() {
 		return definedIn;
 	}
@@ -51,12 +61,15 @@ public abstract class Symbol {
 		this.order = order;
 	}
 
-	public Location getLocation() {
-		return location;
+	public long getPosition() {
+		return position;
 	}
 
-	public void setLocation(Location location) {
-		this.location = location;
+	/**
+	 * 创建位置记录，只在输出时使用
+	 */
+	public Location getLocation() {
+		return Location.of(position);
 	}
 
 	public Type getType() {
@@ -67,7 +80,7 @@ public abstract class Symbol {
 		this.type = type;
 	}
 
-	public String getName() {
+	public Name getName() {
 		return name;
 	}
 	
@@ -1,7 +1,7 @@
 package decaf.symbol;
 
-import decaf.Location;
 import decaf.type.Type;
+import decaf.utils.Name;
 
 public class Variable extends Symbol {
 	
@@ -15,10 +15,10 @@ public class Variable extends Symbol {
 		this.offset = offset;
 	}
 
-	public Variable(String name, Type type, Location location) {
+	public Variable(Name name, Type type, long position) {
 		this.name = name;
 		this.type = type;
-		this.location = location;
+		this.position = position;
 	}
 
 	public boolean isLocalVar() {
@@ -36,7 +36,7 @@ public class Variable extends Symbol {
 
 	@Override
 	public String toString() {
-		return location + " -> variable " + (isParam() ? "@" : "") + name
+		return getLocation() + " -> variable " + (isParam() ? "@" : "") + name
 				+ " : " + type;
 	}
 
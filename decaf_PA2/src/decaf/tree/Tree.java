@@ -31,8 +31,10 @@ import decaf.tree.Tree.TypeLiteral;
 import decaf.tree.Tree.Var;
 import decaf.tree.Tree.VarBind;
 import decaf.tree.Tree.Visitor;
+import decaf.utils.Counters;
 import decaf.utils.IndentPrintWriter;
 import decaf.utils.MiscUtils;
+import decaf.utils.Name;
 
 
 /**
@@ -332,21 +334,32 @@ public abstract class Tree {
 
 
 
-    public Location loc;
+    /**
+     * 压缩后的位置，见Location.pack
+     */
+    public long pos;
     public Type type;
     public int tag;
 
     /**
      * Initialize tree with given tag.
      */
-    public Tree(int tag, Location loc) {
+    public Tree(int tag, long pos) {
         super();
         this.tag = tag;
-        this.loc = loc;
+        this.pos = pos;
+        Counters.count(Counters.TREE);
     }
 
+	public long getPosition() {
+		return pos;
+	}
+
+	/**
+	 * 创建位置记录，只在输出时使用
+	 */
 	public Location getLocation() {
-		return loc;
+		return Location.of(pos);
 	}
 
     /**
@@ -372,8 +385,8 @@ public abstract class Tree {
 		public Class main;
 		public GlobalScope globalScope;
 		
-		public TopLevel(List<ClassDef> classes, Location loc) {
-			super(TOPLEVEL, loc);
+		public TopLevel(List<ClassDef> classes, long pos) {
+			super(TOPLEVEL, pos);
 			this.classes = classes;
 		}
 
@@ -395,14 +408,18 @@ public abstract class Tree {
 
     public static class ClassDef extends Tree {
     	
-    	public String name;
-    	public String parent;
+    	public Name name;
+    	public Name parent;
     	public List<Tree> fields;
     	public Class symbol;
-
-        public ClassDef(String name, String parent, List<Tree> fields,
-    			Location loc) {
-    		super(CLASSDEF, loc);
+    	/**
+    	 * 这个类全部词法单元（含位置）的散列值，只在增量检查时计算，0表示未知
+    	 */
+    	public long sourceHash;
+
+        public ClassDef(Name name, Name parent, List<Tree> fields,
+    			long pos) {
+    		super(CLASSDEF, pos);
     		this.name = name;
     		this.parent = parent;
     		this.fields = fields;
@@ -428,15 +445,15 @@ public abstract class Tree {
     public static class MethodDef extends Tree {
     	
     	public boolean statik;
-    	public String name;
+    	public Name name;
     	public TypeLiteral returnType;
     	public List<VarDef> formals;
     	public Block body;
     	public Function symbol;
     	
-        public MethodDef(boolean statik, String name, TypeLiteral returnType,
-        		List<VarDef> formals, Block body, Location loc) {
-            super(METHODDEF, loc);
+        public MethodDef(boolean statik, Name name, TypeLiteral returnType,
+        		List<VarDef> formals, Block body, long pos) {
+            super(METHODDEF, pos);
     		this.statik = statik;
     		this.name = name;
     		this.returnType = returnType;
@@ -470,12 +487,12 @@ public abstract class Tree {
 
     public static class VarDef extends Tree {
     	
-    	public String name;
+    	public Name name;
     	public TypeLiteral type;
     	public Variable symbol;
 
-        public VarDef(String name, TypeLiteral type, Location loc) {
-            super(VARDEF, loc);
+        public VarDef(Name name, TypeLiteral type, long pos) {
+            super(VARDEF, pos);
     		this.name = name;
     		this.type = type;
         }
@@ -498,8 +515,8 @@ public abstract class Tree {
       */
     public static class Skip extends Tree {
 
-        public Skip(Location loc) {
-            super(SKIP, loc);
+        public Skip(long pos) {
+            super(SKIP, pos);
         }
 
     	@Override
@@ -518,8 +535,8 @@ public abstract class Tree {
     	public List<Tree> block;
     	public LocalScope associatedScope;
 
-        public Block(List<Tree> block, Location loc) {
-            super(BLOCK, loc);
+        public Block(List<Tree> block, long pos) {
+            super(BLOCK, pos);
     		this.block = block;
         }
 
@@ -547,8 +564,8 @@ public abstract class Tree {
     	public Expr condition;
     	public Tree loopBody;
 
-        public WhileLoop(Expr condition, Tree loopBody, Location loc) {
-            super(WHILELOOP, loc);
+        public WhileLoop(Expr condition, Tree loopBody, long pos) {
+            super(WHILELOOP, pos);
             this.condition = condition;
             this.loopBody = loopBody;
         }
@@ -581,8 +598,8 @@ public abstract class Tree {
     	public Tree loopBody;
 
         public ForLoop(Tree init, Expr condition, Tree update,
-        		Tree loopBody, Location loc) {
-            super(FORLOOP, loc);
+        		Tree loopBody, long pos) {
+            super(FORLOOP, pos);
     		this.init = init;
     		this.condition = condition;
     		this.update = update;
@@ -626,8 +643,8 @@ public abstract class Tree {
     	public Tree falseBranch;
 
         public If(Expr condition, Tree trueBranch, Tree falseBranch,
-    			Location loc) {
-            super(IF, loc);
+    			long pos) {
+            super(IF, pos);
             this.condition = condition;
     		this.trueBranch = trueBranch;
     		this.falseBranch = falseBranch;
@@ -664,8 +681,8 @@ public abstract class Tree {
 
     	public Expr expr;
 
-        public Exec(Expr expr, Location loc) {
-            super(EXEC, loc);
+        public Exec(Expr expr, long pos) {
+            super(EXEC, pos);
             this.expr = expr;
         }
 
@@ -685,8 +702,8 @@ public abstract class Tree {
       */
     public static class Break extends Tree {
 
-        public Break(Location loc) {
-            super(BREAK, loc);
+        public Break(long pos) {
+            super(BREAK, pos);
         }
 
     	@Override
@@ -707,8 +724,8 @@ public abstract class Tree {
 
     	public List<Expr> exprs;
 
-    	public Print(List<Expr> exprs, Location loc) {
-    		super(PRINT, loc);
+    	public Print(List<Expr> exprs, long pos) {
+    		super(PRINT, pos);
     		this.exprs = exprs;
     	}
 
@@ -735,8 +752,8 @@ public abstract class Tree {
 
     	public Expr expr;
 
-        public Return(Expr expr, Location loc) {
-            super(RETURN, loc);
+        public Return(Expr expr, long pos) {
+            super(RETURN, pos);
             this.expr = expr;
         }
 
@@ -762,8 +779,8 @@ public abstract class Tree {
     	public boolean isClass;
     	public boolean usedForRef;
     	
-    	public Expr(int tag, Location loc) {
-    		super(tag, loc);
+    	public Expr(int tag, long pos) {
+    		super(tag, pos);
     	}
     }
 
@@ -773,14 +790,14 @@ public abstract class Tree {
     public static class Apply extends Expr {
 
     	public Expr receiver;
-    	public String method;
+    	public Name method;
     	public List<Expr> actuals;
     	public Function symbol;
     	public boolean isArrayLength;
 
-        public Apply(Expr receiver, String method, List<Expr> actuals,
-    			Location loc) {
-            super(APPLY, loc);
+        public Apply(Expr receiver, Name method, List<Expr> actuals,
+    			long pos) {
+            super(APPLY, pos);
     		this.receiver = receiver;
     		this.method = method;
     		this.actuals = actuals;
@@ -813,11 +830,11 @@ public abstract class Tree {
       */
     public static class NewClass extends Expr {
 
-    	public String className;
+    	public Name className;
     	public Class symbol;
 
-        public NewClass(String className, Location loc) {
-            super(NEWCLASS, loc);
+        public NewClass(Name className, long pos) {
+            super(NEWCLASS, pos);
     		this.className = className;
         }
 
@@ -840,8 +857,8 @@ public abstract class Tree {
     	public TypeLiteral elementType;
     	public Expr length;
 
-        public NewArray(TypeLiteral elementType, Expr length, Location loc) {
-            super(NEWARRAY, loc);
+        public NewArray(TypeLiteral elementType, Expr length, long pos) {
+            super(NEWARRAY, pos);
     		this.elementType = elementType;
     		this.length = length;
         }
@@ -869,8 +886,8 @@ public abstract class Tree {
     	}
     	public Kind lvKind;
     	
-    	LValue(int tag, Location loc) {
-    		super(tag, loc);
+    	LValue(int tag, long pos) {
+    		super(tag, pos);
     	}
     }
 
@@ -882,8 +899,8 @@ public abstract class Tree {
     	public LValue left;
     	public Expr expr;
 
-        public Assign(LValue left, Expr expr, Location loc) {
-            super(ASSIGN, loc);
+        public Assign(LValue left, Expr expr, long pos) {
+            super(ASSIGN, pos);
     		this.left = left;
     		this.expr = expr;
         }
@@ -910,8 +927,8 @@ public abstract class Tree {
 
     	public Expr expr;
 
-        public Unary(int kind, Expr expr, Location loc) {
-            super(kind, loc);
+        public Unary(int kind, Expr expr, long pos) {
+            super(kind, pos);
     		this.expr = expr;
         }
 
@@ -948,8 +965,8 @@ public abstract class Tree {
     	public Expr left;
     	public Expr right;
 
-        public Binary(int kind, Expr left, Expr right, Location loc) {
-            super(kind, loc);
+        public Binary(int kind, Expr left, Expr right, long pos) {
+            super(kind, pos);
     		this.left = left;
     		this.right = right;
         }
@@ -1017,7 +1034,7 @@ public abstract class Tree {
 
     	public Expr receiver;
 
-    	public String method;
+    	public Name method;
 
     	public List<Expr> actuals;
 
@@ -1025,9 +1042,9 @@ public abstract class Tree {
 
     	public boolean isArrayLength;
 
-    	public CallExpr(Expr receiver, String method, List<Expr> actuals,
-    			Location loc) {
-    		super(CALLEXPR, loc);
+    	public CallExpr(Expr receiver, Name method, List<Expr> actuals,
+    			long pos) {
+    		super(CALLEXPR, pos);
     		this.receiver = receiver;
     		this.method = method;
     		this.actuals = actuals;
@@ -1057,8 +1074,8 @@ public abstract class Tree {
 
     public static class ReadIntExpr extends Expr {
 
-    	public ReadIntExpr(Location loc) {
-    		super(READINTEXPR, loc);
+    	public ReadIntExpr(long pos) {
+    		super(READINTEXPR, pos);
     	}
 
     	@Override
@@ -1074,8 +1091,8 @@ public abstract class Tree {
 
     public static class ReadLineExpr extends Expr {
 
-    	public ReadLineExpr(Location loc) {
-    		super(READLINEEXPR, loc);
+    	public ReadLineExpr(long pos) {
+    		super(READLINEEXPR, pos);
     	}
 
     	@Override
@@ -1091,8 +1108,8 @@ public abstract class Tree {
 
     public static class ThisExpr extends Expr {
 
-    	public ThisExpr(Location loc) {
-    		super(THISEXPR, loc);
+    	public ThisExpr(long pos) {
+    		super(THISEXPR, pos);
     	}
 
     	@Override
@@ -1111,12 +1128,12 @@ public abstract class Tree {
       */
     public static class TypeCast extends Expr {
 
-    	public String className;
+    	public Name className;
     	public Expr expr;
     	public Class symbol;
 
-        public TypeCast(String className, Expr expr, Location loc) {
-            super(TYPECAST, loc);
+        public TypeCast(Name className, Expr expr, long pos) {
+            super(TYPECAST, pos);
     		this.className = className;
     		this.expr = expr;
        }
@@ -1142,11 +1159,11 @@ public abstract class Tree {
     public static class TypeTest extends Expr {
     	
     	public Expr instance;
-    	public String className;
+    	public Name className;
     	public Class symbol;
 
-        public TypeTest(Expr instance, String className, Location loc) {
-            super(TYPETEST, loc);
+        public TypeTest(Expr instance, Name className, long pos) {
+            super(TYPETEST, pos);
     		this.instance = instance;
     		this.className = className;
         }
@@ -1174,8 +1191,8 @@ public abstract class Tree {
     	public Expr array;
     	public Expr index;
 
-        public Indexed(Expr array, Expr index, Location loc) {
-            super(INDEXED, loc);
+        public Indexed(Expr array, Expr index, long pos) {
+            super(INDEXED, pos);
     		this.array = array;
     		this.index = index;
         }
@@ -1201,12 +1218,12 @@ public abstract class Tree {
     public static class Ident extends LValue {
 
     	public Expr owner;
-    	public String name;
+    	public Name name;
     	public Variable symbol;
     	public boolean isDefined;
 
-        public Ident(Expr owner, String name, Location loc) {
-            super(IDENT, loc);
+        public Ident(Expr owner, Name name, long pos) {
+            super(IDENT, pos);
     		this.owner = owner;
     		this.name = name;
         }
@@ -1236,8 +1253,8 @@ public abstract class Tree {
     	public int typeTag;
         public Object value;
 
-        public Literal(int typeTag, Object value, Location loc) {
-            super(LITERAL, loc);
+        public Literal(int typeTag, Object value, long pos) {
+            super(LITERAL, pos);
             this.typeTag = typeTag;
             this.value = value;
         }
@@ -1263,8 +1280,8 @@ public abstract class Tree {
     }
     public static class Null extends Expr {
 
-        public Null(Location loc) {
-            super(NULL, loc);
+        public Null(long pos) {
+            super(NULL, pos);
         }
 
     	@Override
@@ -1282,8 +1299,8 @@ public abstract class Tree {
     	
     	public Type type;
     	
-    	public TypeLiteral(int tag, Location loc){
-    		super(tag, loc);
+    	public TypeLiteral(int tag, long pos){
+    		super(tag, pos);
     	}
     }
     
@@ -1296,8 +1313,8 @@ public abstract class Tree {
     	
         public int typeTag;
 
-        public TypeIdent(int typeTag, Location loc) {
-            super(TYPEIDENT, loc);
+        public TypeIdent(int typeTag, long pos) {
+            super(TYPEIDENT, pos);
             this.typeTag = typeTag;
         }
 
@@ -1326,10 +1343,10 @@ public abstract class Tree {
 
     public static class TypeClass extends TypeLiteral {
 
-    	public String name;
+    	public Name name;
 
-    	public TypeClass(String name, Location loc) {
-    		super(TYPECLASS, loc);
+    	public TypeClass(Name name, long pos) {
+    		super(TYPECLASS, pos);
     		this.name = name;
     	}
 
@@ -1351,8 +1368,8 @@ public abstract class Tree {
 
     	public TypeLiteral elementType;
 
-        public TypeArray(TypeLiteral elementType, Location loc) {
-            super(TYPEARRAY, loc);
+        public TypeArray(TypeLiteral elementType, long pos) {
+            super(TYPEARRAY, pos);
     		this.elementType = elementType;
         }
 
@@ -1372,10 +1389,10 @@ public abstract class Tree {
 public static class VarBind extends Tree{
     	
     	public TypeLiteral typeee;
-    	public String name;
+    	public Name name;
     	
-    	public VarBind(TypeLiteral typeee, String name, Location loc) {
-    		super(VARBIND, loc);
+    	public VarBind(TypeLiteral typeee, Name name, long pos) {
+    		super(VARBIND, pos);
     		this.typeee = typeee;
     		this.name = name;
     	}
@@ -1401,11 +1418,11 @@ public static class VarBind extends Tree{
 
     public static class SCopyExpr extends Expr {
 
-    	public String ident;
+    	public Name ident;
     	public Expr expr;
 
-    	public SCopyExpr(String ident, Expr expr, Location loc) {
-    		super(SCOPYEXPR, loc);
+    	public SCopyExpr(Name ident, Expr expr, long pos) {
+    		super(SCOPYEXPR, pos);
     		this.ident = ident;
     		this.expr = expr;
     	}
@@ -1428,9 +1445,9 @@ public static class VarBind extends Tree{
     
     public static class Sealed extends ClassDef {
 
-        public Sealed(String name, String parent, List<Tree> fields,
-    			Location loc) {
-        	super(name, parent, fields, loc);
+        public Sealed(Name name, Name parent, List<Tree> fields,
+    			long pos) {
+        	super(name, parent, fields, pos);
         }
 
     	@Override
@@ -1450,9 +1467,9 @@ public static class VarBind extends Tree{
     {
          public List<Tree> subStmt;
         public Tree last;
-         public Guarded(List<Tree> subStmt, Tree last, Location loc)
+         public Guarded(List<Tree> subStmt, Tree last, long pos)
         {
-            super(GUARDED, loc);
+            super(GUARDED, pos);
             this.subStmt = subStmt;
             this.last = last;
         }
@@ -1484,9 +1501,9 @@ public static class VarBind extends Tree{
     {
          public Expr expr;
         public Tree stmt;
-         public IfSubStmt(Expr expr, Tree stmt, Location loc)
+         public IfSubStmt(Expr expr, Tree stmt, long pos)
         {
-            super(IFSUBSTMT, loc);
+            super(IFSUBSTMT, pos);
             this.expr = expr;
             this.stmt = stmt;
         }
@@ -1508,13 +1525,13 @@ public static class VarBind extends Tree{
     
     
     public static class Var extends LValue {
-    	public String name;
+    	public Name name;
     	public VarDef vardef;
     	
-        public Var(String name, Location loc) {
-            super(VARSTMT, loc);
+        public Var(Name name, long pos) {
+            super(VARSTMT, pos);
     		this.name = name;
-    		vardef= new VarDef(name, new TypeIdent(Tree.UNKNOWN, loc), loc);
+    		vardef= new VarDef(name, new TypeIdent(Tree.UNKNOWN, pos), pos);
         }
 
     	@Override
@@ -1532,8 +1549,8 @@ public static class VarBind extends Tree{
     public static class ArrayConstant extends Expr {
 
 		public List<Expr> constantStmt;
-	    public ArrayConstant(List<Expr> constantStmt, Location loc){
-	        super(ARRAYCONSTANT, loc);
+	    public ArrayConstant(List<Expr> constantStmt, long pos){
+	        super(ARRAYCONSTANT, pos);
 	        this.constantStmt = constantStmt;
 	    }
 	    
@@ -1562,8 +1579,8 @@ public static class VarBind extends Tree{
     	public Expr newsamearray;
     	public Expr expr;
 
-        public NewSameArray(Expr expr, Expr newsamearray, Location loc) {
-            super(NEWSAMEARRAY, loc);
+        public NewSameArray(Expr expr, Expr newsamearray, long pos) {
+            super(NEWSAMEARRAY, pos);
     		this.expr = expr;
     		this.newsamearray = newsamearray;
        }
@@ -1588,8 +1605,8 @@ public static class VarBind extends Tree{
     	public Expr jointarray;
     	public Expr expr;
 
-        public JointArray(Expr expr, Expr jointarray, Location loc) {
-            super(JOINTARRAY, loc);
+        public JointArray(Expr expr, Expr jointarray, long pos) {
+            super(JOINTARRAY, pos);
     		this.expr = expr;
     		this.jointarray = jointarray;
        }
@@ -1615,8 +1632,8 @@ public static class VarBind extends Tree{
     	public Expr expr2;
 	    public Expr expr3;
 
-        public AccessArray(Expr expr1, Expr expr2, Expr expr3, Location loc) {
-            super(ACCESSARRAY, loc);
+        public AccessArray(Expr expr1, Expr expr2, Expr expr3, long pos) {
+            super(ACCESSARRAY, pos);
     		this.expr1 = expr1;
 			this.expr2 = expr2;
 			this.expr3 = expr3;
@@ -1647,8 +1664,8 @@ public static class VarBind extends Tree{
     	public Expr expr2;
 	    public Expr expr3;
 
-        public DefaultArray(Expr expr1, Expr expr2, Expr expr3, Location loc) {
-            super(DEFAULTARRAY, loc);
+        public DefaultArray(Expr expr1, Expr expr2, Expr expr3, long pos) {
+            super(DEFAULTARRAY, pos);
     		this.expr1 = expr1;
 			this.expr2 = expr2;
 			this.expr3 = expr3;
@@ -1678,10 +1695,10 @@ public static class VarBind extends Tree{
     	public Expr expr1;
     	public Expr expr2;
 	    public Expr expr3;
-	    public String name;
+	    public Name name;
 
-        public CompArray(Expr expr1, String name, Expr expr2, Expr expr3, Location loc) {
-            super(COMPARRAY, loc);
+        public CompArray(Expr expr1, Name name, Expr expr2, Expr expr3, long pos) {
+            super(COMPARRAY, pos);
     		this.expr1 = expr1;
     		this.name = name;
 			this.expr2 = expr2;
@@ -1719,8 +1736,8 @@ public static class VarBind extends Tree{
 	    public Tree stmt;
 	    public LocalScope associatedScope;
 
-        public ForeachArray(VarBind varbind, Expr expr1, Expr expr2, Tree stmt, Location loc) {
-            super(FOREACHARRAY, loc);
+        public ForeachArray(VarBind varbind, Expr expr1, Expr expr2, Tree stmt, long pos) {
+            super(FOREACHARRAY, pos);
     		this.varbind = varbind;
     		this.expr1 = expr1;
     		this.expr2 = expr2;
@@ -0,0 +1,496 @@
+package decaf.tree;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import decaf.Location;
+import decaf.utils.Name;
+import decaf.utils.Names;
+
+/**
+ * 读回TreeWriter写出的语法树，得到的语法树与语法分析的结果相同，可以直接构造符号表<br>
+ * 名字在给定的名字表中查找，所以读回的语法树可以与同一次编译中的其他名字比较。
+ * 文件可能已经损坏，所以每个长度和下标都检查范围，语法分析总会给出的子结点、名字和列表
+ * 不能为空，结点种类也必须是语法分析会在那个位置生成的，否则报告文件格式错误。
+ */
+public final class TreeReader {
+
+	private byte[] data;
+
+	private int cursor;
+
+	private Names names;
+
+	private String[] strings;
+
+	/**
+	 * strings中各个字符串对应的名字，第一次用到时才查找
+	 */
+	private Name[] nameCache;
+
+	private int line;
+
+	private TreeReader(byte[] data, Names names) {
+		this.data = data;
+		this.names = names;
+	}
+
+	/**
+	 * 读回一棵语法树
+	 *
+	 * @param data
+	 *            TreeWriter写出的全部内容
+	 * @param names
+	 *            本次编译的名字表
+	 * @throws IOException
+	 *             内容不是这个版本的TreeWriter写出的语法树
+	 */
+	public static Tree.TopLevel read(byte[] data, Names names)
+			throws IOException {
+		TreeReader reader = new TreeReader(data, names);
+		try {
+			return reader.readTopLevel();
+		} catch (IndexOutOfBoundsException e) {
+			throw new IOException("truncated AST file");
+		} catch (ClassCastException e) {
+			throw malformed();
+		}
+	}
+
+	/**
+	 * @return data是否以TreeWriter写出的魔数开头
+	 */
+	public static boolean isTree(byte[] data) {
+		return data.length >= 4 && readInt(data, 0) == TreeWriter.MAGIC;
+	}
+
+	private Tree.TopLevel readTopLevel() throws IOException {
+		if (!isTree(data)) {
+			throw new IOException("not an AST file");
+		}
+		cursor = 4;
+		if (readVarint() != TreeWriter.VERSION) {
+			throw new IOException("unsupported AST file version");
+		}
+		int n = readCount();
+		strings = new String[n];
+		nameCache = new Name[n];
+		for (int i = 0; i < n; i++) {
+			int length = readCount();
+			strings[i] = new String(data, cursor, length, "UTF-8");
+			cursor += length;
+		}
+		Tree.TopLevel tree = readRequired(Tree.TopLevel.class);
+		if (cursor != data.length) {
+			throw malformed();
+		}
+		return tree;
+	}
+
+	private static IOException malformed() {
+		return new IOException("malformed AST file");
+	}
+
+	private static int readInt(byte[] data, int i) {
+		return (data[i] & 0xff) << 24 | (data[i + 1] & 0xff) << 16
+				| (data[i + 2] & 0xff) << 8 | (data[i + 3] & 0xff);
+	}
+
+	private int readByte() {
+		return data[cursor++] & 0xff;
+	}
+
+	private long readVarint() throws IOException {
+		long v = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = data[cursor++];
+			v |= (long) (b & 0x7f) << shift;
+			if (b >= 0) {
+				return v;
+			}
+		}
+		throw malformed();
+	}
+
+	/**
+	 * 读一个长度或者个数，它不能超过剩下的字节数（每一项至少占一个字节）
+	 */
+	private int readCount() throws IOException {
+		long v = readVarint();
+		if (v < 0 || v > data.length - cursor) {
+			throw malformed();
+		}
+		return (int) v;
+	}
+
+	private long readSigned() throws IOException {
+		long v = readVarint();
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	/**
+	 * @return 字符串表中的下标加一，0表示null
+	 */
+	private int readStringIndex() throws IOException {
+		long i = readVarint();
+		if (i < 0 || i > strings.length) {
+			throw malformed();
+		}
+		return (int) i;
+	}
+
+	private String readString() throws IOException {
+		int i = readStringIndex();
+		if (i == 0) {
+			throw malformed();
+		}
+		return strings[i - 1];
+	}
+
+	private Name readName() throws IOException {
+		Name name = readOptionalName();
+		if (name == null) {
+			throw malformed();
+		}
+		return name;
+	}
+
+	private Name readOptionalName() throws IOException {
+		int i = readStringIndex();
+		if (i == 0) {
+			return null;
+		}
+		Name name = nameCache[i - 1];
+		if (name == null) {
+			name = names.fromString(strings[i - 1]);
+			nameCache[i - 1] = name;
+		}
+		return name;
+	}
+
+	/**
+	 * 读一个不能为空的结点
+	 *
+	 * @param type
+	 *            语法分析在这个位置生成的结点类型
+	 */
+	private <T extends Tree> T readRequired(Class<T> type)
+			throws IOException {
+		T tree = readOptional(type);
+		if (tree == null) {
+			throw malformed();
+		}
+		return tree;
+	}
+
+	private <T extends Tree> T readOptional(Class<T> type)
+			throws IOException {
+		Tree tree = readTree();
+		if (tree != null && !type.isInstance(tree)) {
+			throw malformed();
+		}
+		return type.cast(tree);
+	}
+
+	private Tree.Expr readExpr() throws IOException {
+		return readRequired(Tree.Expr.class);
+	}
+
+	private Tree.TypeLiteral readType() throws IOException {
+		return readRequired(Tree.TypeLiteral.class);
+	}
+
+	/**
+	 * 读一个语句，类、方法、类型等不会出现在语句的位置
+	 */
+	private Tree readStmt() throws IOException {
+		Tree tree = readOptionalStmt();
+		if (tree == null) {
+			throw malformed();
+		}
+		return tree;
+	}
+
+	private Tree readOptionalStmt() throws IOException {
+		Tree tree = readTree();
+		if (tree instanceof Tree.TopLevel || tree instanceof Tree.ClassDef
+				|| tree instanceof Tree.MethodDef
+				|| tree instanceof Tree.TypeLiteral
+				|| tree instanceof Tree.VarBind
+				|| tree instanceof Tree.IfSubStmt) {
+			throw malformed();
+		}
+		return tree;
+	}
+
+	private <T extends Tree> List<T> readList(Class<T> type)
+			throws IOException {
+		List<T> list = readOptionalList(type);
+		if (list == null) {
+			throw malformed();
+		}
+		return list;
+	}
+
+	/**
+	 * 读一个结点列表，列表中的结点都不能为空
+	 */
+	private <T extends Tree> List<T> readOptionalList(Class<T> type)
+			throws IOException {
+		int n = readCount();
+		if (n == 0) {
+			return null;
+		}
+		List<T> list = new ArrayList<T>(n - 1);
+		for (int i = 1; i < n; i++) {
+			list.add(readRequired(type));
+		}
+		return list;
+	}
+
+	private List<Tree> readStmtList() throws IOException {
+		int n = readCount();
+		if (n == 0) {
+			throw malformed();
+		}
+		List<Tree> list = new ArrayList<Tree>(n - 1);
+		for (int i = 1; i < n; i++) {
+			list.add(readStmt());
+		}
+		return list;
+	}
+
+	private Tree readTree() throws IOException {
+		int kind = readByte();
+		if (kind == 0) {
+			return null;
+		}
+		line += (int) readSigned();
+		long pos = Location.pack(line, (int) readVarint() - 1);
+		switch (kind) {
+		case Tree.NEG:
+		case Tree.NOT:
+			return new Tree.Unary(kind, readExpr(), pos);
+		case Tree.OR:
+		case Tree.AND:
+		case Tree.EQ:
+		case Tree.NE:
+		case Tree.LT:
+		case Tree.GT:
+		case Tree.LE:
+		case Tree.GE:
+		case Tree.PLUS:
+		case Tree.MINUS:
+		case Tree.MUL:
+		case Tree.DIV:
+		case Tree.MOD: {
+			Tree.Expr left = readExpr();
+			return new Tree.Binary(kind, left, readExpr(), pos);
+		}
+		case Tree.TOPLEVEL:
+			return new Tree.TopLevel(readList(Tree.ClassDef.class), pos);
+		case Tree.CLASSDEF:
+		case Tree.SEALED: {
+			Name name = readName();
+			Name parent = readOptionalName();
+			List<Tree> fields = readList(Tree.class);
+			for (Tree field : fields) {
+				if (!(field instanceof Tree.VarDef)
+						&& !(field instanceof Tree.MethodDef)) {
+					throw malformed();
+				}
+			}
+			Tree.ClassDef cd = kind == Tree.SEALED ? new Tree.Sealed(name,
+					parent, fields, pos) : new Tree.ClassDef(name, parent,
+					fields, pos);
+			cd.sourceHash = readVarint();
+			return cd;
+		}
+		case Tree.METHODDEF: {
+			boolean statik = readByte() != 0;
+			Name name = readName();
+			Tree.TypeLiteral returnType = readType();
+			List<Tree.VarDef> formals = readList(Tree.VarDef.class);
+			return new Tree.MethodDef(statik, name, returnType, formals,
+					readRequired(Tree.Block.class), pos);
+		}
+		case Tree.VARDEF: {
+			Name name = readName();
+			return new Tree.VarDef(name, readType(), pos);
+		}
+		case Tree.SKIP:
+			return new Tree.Skip(pos);
+		case Tree.BLOCK:
+			return new Tree.Block(readStmtList(), pos);
+		case Tree.WHILELOOP: {
+			Tree.Expr condition = readExpr();
+			return new Tree.WhileLoop(condition, readStmt(), pos);
+		}
+		case Tree.FORLOOP: {
+			Tree init = readOptionalStmt();
+			Tree.Expr condition = readExpr();
+			Tree update = readOptionalStmt();
+			return new Tree.ForLoop(init, condition, update, readStmt(), pos);
+		}
+		case Tree.IF: {
+			Tree.Expr condition = readExpr();
+			Tree trueBranch = readStmt();
+			return new Tree.If(condition, trueBranch, readOptionalStmt(), pos);
+		}
+		case Tree.EXEC:
+			return new Tree.Exec(readExpr(), pos);
+		case Tree.BREAK:
+			return new Tree.Break(pos);
+		case Tree.RETURN:
+			return new Tree.Return(readOptional(Tree.Expr.class), pos);
+		case Tree.APPLY: {
+			Tree.Expr receiver = readOptional(Tree.Expr.class);
+			Name method = readName();
+			return new Tree.Apply(receiver, method,
+					readList(Tree.Expr.class), pos);
+		}
+		case Tree.NEWCLASS:
+			return new Tree.NewClass(readName(), pos);
+		case Tree.NEWARRAY: {
+			Tree.TypeLiteral elementType = readType();
+			return new Tree.NewArray(elementType, readExpr(), pos);
+		}
+		case Tree.ASSIGN: {
+			Tree.LValue left = readRequired(Tree.LValue.class);
+			return new Tree.Assign(left, readExpr(), pos);
+		}
+		case Tree.CALLEXPR: {
+			Tree.Expr receiver = readOptional(Tree.Expr.class);
+			Name method = readName();
+			return new Tree.CallExpr(receiver, method,
+					readList(Tree.Expr.class), pos);
+		}
+		case Tree.READINTEXPR:
+			return new Tree.ReadIntExpr(pos);
+		case Tree.READLINEEXPR:
+			return new Tree.ReadLineExpr(pos);
+		case Tree.PRINT:
+			return new Tree.Print(readList(Tree.Expr.class), pos);
+		case Tree.THISEXPR:
+			return new Tree.ThisExpr(pos);
+		case Tree.TYPECAST: {
+			Name className = readName();
+			return new Tree.TypeCast(className, readExpr(), pos);
+		}
+		case Tree.TYPETEST: {
+			Tree.Expr instance = readExpr();
+			return new Tree.TypeTest(instance, readName(), pos);
+		}
+		case Tree.INDEXED: {
+			Tree.Expr array = readExpr();
+			return new Tree.Indexed(array, readExpr(), pos);
+		}
+		case Tree.IDENT: {
+			Tree.Expr owner = readOptional(Tree.Expr.class);
+			return new Tree.Ident(owner, readName(), pos);
+		}
+		case Tree.LITERAL:
+			return readLiteral(pos);
+		case Tree.NULL:
+			return new Tree.Null(pos);
+		case Tree.TYPEIDENT: {
+			int typeTag = readByte();
+			if (typeTag > Tree.STRING) {
+				throw malformed();
+			}
+			return new Tree.TypeIdent(typeTag, pos);
+		}
+		case Tree.TYPECLASS:
+			return new Tree.TypeClass(readName(), pos);
+		case Tree.TYPEARRAY:
+			return new Tree.TypeArray(readType(), pos);
+		case Tree.VARBIND: {
+			Tree.TypeLiteral type = readOptional(Tree.TypeLiteral.class);
+			return new Tree.VarBind(type, readName(), pos);
+		}
+		case Tree.SCOPYEXPR: {
+			Name ident = readName();
+			return new Tree.SCopyExpr(ident, readExpr(), pos);
+		}
+		case Tree.GUARDED: {
+			// "if { }" has neither branches nor the last branch
+			List<Tree> subStmt = readOptionalList(Tree.class);
+			Tree.IfSubStmt last = readOptional(Tree.IfSubStmt.class);
+			if ((subStmt == null) != (last == null)) {
+				throw malformed();
+			}
+			if (subStmt != null) {
+				for (Tree branch : subStmt) {
+					if (!(branch instanceof Tree.IfSubStmt)) {
+						throw malformed();
+					}
+				}
+			}
+			return new Tree.Guarded(subStmt, last, pos);
+		}
+		case Tree.IFSUBSTMT: {
+			Tree.Expr expr = readExpr();
+			return new Tree.IfSubStmt(expr, readStmt(), pos);
+		}
+		case Tree.VARSTMT:
+			return new Tree.Var(readName(), pos);
+		case Tree.ARRAYCONSTANT:
+			return new Tree.ArrayConstant(readOptionalList(Tree.Expr.class),
+					pos);
+		case Tree.NEWSAMEARRAY: {
+			Tree.Expr expr = readExpr();
+			return new Tree.NewSameArray(expr, readExpr(), pos);
+		}
+		case Tree.JOINTARRAY: {
+			Tree.Expr expr = readExpr();
+			return new Tree.JointArray(expr, readExpr(), pos);
+		}
+		case Tree.ACCESSARRAY: {
+			Tree.Expr expr1 = readExpr();
+			Tree.Expr expr2 = readExpr();
+			return new Tree.AccessArray(expr1, expr2, readExpr(), pos);
+		}
+		case Tree.DEFAULTARRAY: {
+			Tree.Expr expr1 = readExpr();
+			Tree.Expr expr2 = readExpr();
+			return new Tree.DefaultArray(expr1, expr2, readExpr(), pos);
+		}
+		case Tree.COMPARRAY: {
+			Tree.Expr expr1 = readExpr();
+			Name name = readName();
+			Tree.Expr expr2 = readExpr();
+			return new Tree.CompArray(expr1, name, expr2,
+					readOptional(Tree.Expr.class), pos);
+		}
+		case Tree.FOREACHARRAY: {
+			Tree.VarBind varbind = readRequired(Tree.VarBind.class);
+			Tree.Expr expr1 = readExpr();
+			Tree.Expr expr2 = readOptional(Tree.Expr.class);
+			return new Tree.ForeachArray(varbind, expr1, expr2, readStmt(),
+					pos);
+		}
+		default:
+			throw new IOException("unknown tree node kind " + kind);
+		}
+	}
+
+	private Tree.Literal readLiteral(long pos) throws IOException {
+		int typeTag = readByte();
+		Object value;
+		switch (typeTag) {
+		case Tree.INT:
+			value = (int) readSigned();
+			break;
+		case Tree.BOOL:
+			value = readByte() != 0;
+			break;
+		case Tree.STRING:
+			value = readString();
+			break;
+		default:
+			throw malformed();
+		}
+		return new Tree.Literal(typeTag, value, pos);
+	}
+}
@@ -0,0 +1,495 @@
+package decaf.tree;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import decaf.Location;
+import decaf.tree.Tree.AccessArray;
+import decaf.tree.Tree.ArrayConstant;
+import decaf.tree.Tree.CompArray;
+import decaf.tree.Tree.DefaultArray;
+import decaf.tree.Tree.ForeachArray;
+import decaf.tree.Tree.Guarded;
+import decaf.tree.Tree.IfSubStmt;
+import decaf.tree.Tree.JointArray;
+import decaf.tree.Tree.NewSameArray;
+import decaf.tree.Tree.SCopyExpr;
+import decaf.tree.Tree.Sealed;
+import decaf.tree.Tree.Var;
+import decaf.tree.Tree.VarBind;
+import decaf.utils.Name;
+
+/**
+ * 把语法分析得到的语法树写成紧凑的二进制格式，由TreeReader读回<br>
+ * 文件由魔数、版本号、字符串表和结点序列组成。结点按先根次序排列，每个结点以一个字节的
+ * 种类开始（就是结点的tag，sealed类用SEALED，0表示空结点），接着是位置和各个域；
+ * 整数都用变长编码，行号记为与前一个结点行号的差。名字和字符串常量只在字符串表中存一份，
+ * 域中记它在表中的下标加一（0表示null），结点列表记长度加一（0表示null）。
+ */
+public final class TreeWriter extends Tree.Visitor {
+
+	/**
+	 * 文件开头的魔数"DAST"
+	 */
+	static final int MAGIC = 0x44415354;
+
+	static final int VERSION = 1;
+
+	private byte[] buf = new byte[4096];
+
+	private int size;
+
+	private Map<String, Integer> strings = new HashMap<String, Integer>();
+
+	private List<String> table = new ArrayList<String>();
+
+	private int line;
+
+	private TreeWriter() {
+	}
+
+	/**
+	 * 把tree写到out，不关闭out
+	 */
+	public static void write(Tree.TopLevel tree, OutputStream out)
+			throws IOException {
+		TreeWriter body = new TreeWriter();
+		tree.accept(body);
+		TreeWriter header = new TreeWriter();
+		header.writeInt(MAGIC);
+		header.writeVarint(VERSION);
+		header.writeVarint(body.table.size());
+		for (String s : body.table) {
+			byte[] bytes = s.getBytes("UTF-8");
+			header.writeVarint(bytes.length);
+			header.writeBytes(bytes);
+		}
+		out.write(header.buf, 0, header.size);
+		out.write(body.buf, 0, body.size);
+	}
+
+	private void ensure(int n) {
+		if (size + n > buf.length) {
+			buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + n));
+		}
+	}
+
+	private void writeByte(int b) {
+		ensure(1);
+		buf[size++] = (byte) b;
+	}
+
+	private void writeBytes(byte[] bytes) {
+		ensure(bytes.length);
+		System.arraycopy(bytes, 0, buf, size, bytes.length);
+		size += bytes.length;
+	}
+
+	private void writeInt(int v) {
+		writeByte(v >>> 24);
+		writeByte(v >>> 16);
+		writeByte(v >>> 8);
+		writeByte(v);
+	}
+
+	/**
+	 * 无符号变长编码，每字节7位，最高位表示后面还有字节
+	 */
+	private void writeVarint(long v) {
+		ensure(10);
+		while ((v & ~0x7fL) != 0) {
+			buf[size++] = (byte) ((v & 0x7f) | 0x80);
+			v >>>= 7;
+		}
+		buf[size++] = (byte) v;
+	}
+
+	/**
+	 * 有符号数先做zigzag变换，绝对值小的负数也只占一个字节
+	 */
+	private void writeSigned(long v) {
+		writeVarint((v << 1) ^ (v >> 63));
+	}
+
+	private void writeString(String s) {
+		if (s == null) {
+			writeVarint(0);
+			return;
+		}
+		Integer i = strings.get(s);
+		if (i == null) {
+			i = table.size();
+			table.add(s);
+			strings.put(s, i);
+		}
+		writeVarint(i + 1);
+	}
+
+	private void writeName(Name name) {
+		writeString(name == null ? null : name.toString());
+	}
+
+	/**
+	 * 写出结点的种类和位置
+	 */
+	private void begin(int kind, Tree tree) {
+		writeByte(kind);
+		int l = Location.lineOf(tree.pos);
+		writeSigned(l - line);
+		writeVarint(Location.columnOf(tree.pos) + 1);
+		line = l;
+	}
+
+	private void begin(Tree tree) {
+		begin(tree.tag, tree);
+	}
+
+	private void writeTree(Tree tree) {
+		if (tree == null) {
+			writeByte(0);
+		} else {
+			tree.accept(this);
+		}
+	}
+
+	private void writeList(List<? extends Tree> list) {
+		if (list == null) {
+			writeVarint(0);
+			return;
+		}
+		writeVarint(list.size() + 1);
+		for (Tree t : list) {
+			writeTree(t);
+		}
+	}
+
+	@Override
+	public void visitTopLevel(Tree.TopLevel that) {
+		begin(that);
+		writeList(that.classes);
+	}
+
+	@Override
+	public void visitClassDef(Tree.ClassDef that) {
+		begin(that);
+		writeClass(that);
+	}
+
+	@Override
+	public void visitSealed(Sealed that) {
+		begin(Tree.SEALED, that);
+		writeClass(that);
+	}
+
+	private void writeClass(Tree.ClassDef that) {
+		writeName(that.name);
+		writeName(that.parent);
+		writeList(that.fields);
+		writeVarint(that.sourceHash);
+	}
+
+	@Override
+	public void visitMethodDef(Tree.MethodDef that) {
+		begin(that);
+		writeByte(that.statik ? 1 : 0);
+		writeName(that.name);
+		writeTree(that.returnType);
+		writeList(that.formals);
+		writeTree(that.body);
+	}
+
+	@Override
+	public void visitVarDef(Tree.VarDef that) {
+		begin(that);
+		writeName(that.name);
+		writeTree(that.type);
+	}
+
+	@Override
+	public void visitSkip(Tree.Skip that) {
+		begin(that);
+	}
+
+	@Override
+	public void visitBlock(Tree.Block that) {
+		begin(that);
+		writeList(that.block);
+	}
+
+	@Override
+	public void visitWhileLoop(Tree.WhileLoop that) {
+		begin(that);
+		writeTree(that.condition);
+		writeTree(that.loopBody);
+	}
+
+	@Override
+	public void visitForLoop(Tree.ForLoop that) {
+		begin(that);
+		writeTree(that.init);
+		writeTree(that.condition);
+		writeTree(that.update);
+		writeTree(that.loopBody);
+	}
+
+	@Override
+	public void visitIf(Tree.If that) {
+		begin(that);
+		writeTree(that.condition);
+		writeTree(that.trueBranch);
+		writeTree(that.falseBranch);
+	}
+
+	@Override
+	public void visitExec(Tree.Exec that) {
+		begin(that);
+		writeTree(that.expr);
+	}
+
+	@Override
+	public void visitBreak(Tree.Break that) {
+		begin(that);
+	}
+
+	@Override
+	public void visitReturn(Tree.Return that) {
+		begin(that);
+		writeTree(that.expr);
+	}
+
+	@Override
+	public void visitApply(Tree.Apply that) {
+		begin(that);
+		writeTree(that.receiver);
+		writeName(that.method);
+		writeList(that.actuals);
+	}
+
+	@Override
+	public void visitNewClass(Tree.NewClass that) {
+		begin(that);
+		writeName(that.className);
+	}
+
+	@Override
+	public void visitNewArray(Tree.NewArray that) {
+		begin(that);
+		writeTree(that.elementType);
+		writeTree(that.length);
+	}
+
+	@Override
+	public void visitAssign(Tree.Assign that) {
+		begin(that);
+		writeTree(that.left);
+		writeTree(that.expr);
+	}
+
+	@Override
+	public void visitUnary(Tree.Unary that) {
+		begin(that);
+		writeTree(that.expr);
+	}
+
+	@Override
+	public void visitBinary(Tree.Binary that) {
+		begin(that);
+		writeTree(that.left);
+		writeTree(that.right);
+	}
+
+	@Override
+	public void visitCallExpr(Tree.CallExpr that) {
+		begin(that);
+		writeTree(that.receiver);
+		writeName(that.method);
+		writeList(that.actuals);
+	}
+
+	@Override
+	public void visitReadIntExpr(Tree.ReadIntExpr that) {
+		begin(that);
+	}
+
+	@Override
+	public void visitReadLineExpr(Tree.ReadLineExpr that) {
+		begin(that);
+	}
+
+	@Override
+	public void visitPrint(Tree.Print that) {
+		begin(that);
+		writeList(that.exprs);
+	}
+
+	@Override
+	public void visitThisExpr(Tree.ThisExpr that) {
+		begin(that);
+	}
+
+	@Override
+	public void visitTypeCast(Tree.TypeCast that) {
+		begin(that);
+		writeName(that.className);
+		writeTree(that.expr);
+	}
+
+	@Override
+	public void visitTypeTest(Tree.TypeTest that) {
+		begin(that);
+		writeTree(that.instance);
+		writeName(that.className);
+	}
+
+	@Override
+	public void visitIndexed(Tree.Indexed that) {
+		begin(that);
+		writeTree(that.array);
+		writeTree(that.index);
+	}
+
+	@Override
+	public void visitIdent(Tree.Ident that) {
+		begin(that);
+		writeTree(that.owner);
+		writeName(that.name);
+	}
+
+	@Override
+	public void visitLiteral(Tree.Literal that) {
+		begin(that);
+		writeByte(that.typeTag);
+		switch (that.typeTag) {
+		case Tree.INT:
+			writeSigned((Integer) that.value);
+			break;
+		case Tree.BOOL:
+			writeByte((Boolean) that.value ? 1 : 0);
+			break;
+		default:
+			writeString((String) that.value);
+		}
+	}
+
+	@Override
+	public void visitNull(Tree.Null that) {
+		begin(that);
+	}
+
+	@Override
+	public void visitTypeIdent(Tree.TypeIdent that) {
+		begin(that);
+		writeByte(that.typeTag);
+	}
+
+	@Override
+	public void visitTypeClass(Tree.TypeClass that) {
+		begin(that);
+		writeName(that.name);
+	}
+
+	@Override
+	public void visitTypeArray(Tree.TypeArray that) {
+		begin(that);
+		writeTree(that.elementType);
+	}
+
+	@Override
+	public void visitVarBind(VarBind that) {
+		begin(that);
+		writeTree(that.typeee);
+		writeName(that.name);
+	}
+
+	@Override
+	public void visitSCopyExpr(SCopyExpr that) {
+		begin(that);
+		writeName(that.ident);
+		writeTree(that.expr);
+	}
+
+	@Override
+	public void visitGuarded(Guarded that) {
+		begin(that);
+		writeList(that.subStmt);
+		writeTree(that.last);
+	}
+
+	@Override
+	public void visitIfSubStmt(IfSubStmt that) {
+		begin(that);
+		writeTree(that.expr);
+		writeTree(that.stmt);
+	}
+
+	@Override
+	public void visitVar(Var that) {
+		begin(that);
+		writeName(that.name);
+	}
+
+	@Override
+	public void visitArrayConstant(ArrayConstant that) {
+		begin(that);
+		writeList(that.constantStmt);
+	}
+
+	@Override
+	public void visitNewSameArray(NewSameArray that) {
+		begin(that);
+		writeTree(that.expr);
+		writeTree(that.newsamearray);
+	}
+
+	@Override
+	public void visitJointArray(JointArray that) {
+		begin(that);
+		writeTree(that.expr);
+		writeTree(that.jointarray);
+	}
+
+	@Override
+	public void visitAccessArray(AccessArray that) {
+		begin(that);
+		writeTree(that.expr1);
+		writeTree(that.expr2);
+		writeTree(that.expr3);
+	}
+
+	@Override
+	public void visitDefaultArray(DefaultArray that) {
+		begin(that);
+		writeTree(that.expr1);
+		writeTree(that.expr2);
+		writeTree(that.expr3);
+	}
+
+	@Override
+	public void visitCompArray(CompArray that) {
+		begin(that);
+		writeTree(that.expr1);
+		writeName(that.name);
+		writeTree(that.expr2);
+		writeTree(that.expr3);
+	}
+
+	@Override
+	public void visitForeachArray(ForeachArray that) {
+		begin(that);
+		writeTree(that.varbind);
+		writeTree(that.expr1);
+		writeTree(that.expr2);
+		writeTree(that.stmt);
+	}
+
+	@Override
+	public void visitTree(Tree that) {
+		throw new IllegalArgumentException("can not write tree node "
+				+ that.getClass().getSimpleName());
+	}
+}
@@ -1,5 +1,7 @@
 package decaf.type;
 
+import decaf.utils.Counters;
+
 public class ArrayType extends Type {
 
 	private Type elementType;
@@ -8,8 +10,12 @@ public class ArrayType extends Type {
 		return elementType;
 	}
 
-	public ArrayType(Type elementType) {
+	/**
+	 * 数组类型由Types唯一化，只能通过Types.array创建
+	 */
+	ArrayType(Type elementType) {
 		this.elementType = elementType;
+		Counters.count(Counters.TYPE);
 	}
 
 	@Override
@@ -22,10 +28,7 @@ public class ArrayType extends Type {
 
 	@Override
 	public boolean equal(Type type) {
-		if (!type.isArrayType()) {
-			return false;
-		}
-		return elementType.equal(((ArrayType) type).elementType);
+		return this == type;
 	}
 
 	@Override
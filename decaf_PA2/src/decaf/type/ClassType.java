@@ -1,7 +1,13 @@
 package decaf.type;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import decaf.scope.ClassScope;
 import decaf.symbol.Class;
+import decaf.utils.Counters;
 
 public class ClassType extends Type {
 
@@ -9,9 +15,20 @@ public class ClassType extends Type {
 
 	private ClassType parent;
 
+	/**
+	 * 在继承树的先序遍历中的序号，编号之前为-1
+	 */
+	private int pre = -1;
+
+	/**
+	 * 子孙中最大的先序序号，子孙的序号都在[pre, last]中
+	 */
+	private int last = -1;
+
 	public ClassType(Class symbol, ClassType parent) {
 		this.symbol = symbol;
 		this.parent = parent;
+		Counters.count(Counters.TYPE);
 	}
 
 	@Override
@@ -22,6 +39,10 @@ public class ClassType extends Type {
 		if (!type.isClassType()) {
 			return false;
 		}
+		ClassType other = (ClassType) type;
+		if (pre >= 0 && other.pre >= 0) {
+			return other.pre <= pre && pre <= other.last;
+		}
 		for (ClassType t = this; t != null; t = t.parent) {
 			if (t.equal(type)) {
 				return true;
@@ -58,4 +79,63 @@ public class ClassType extends Type {
 		return symbol.getAssociatedScope();
 	}
 
+	/**
+	 * @return 在继承树的先序遍历中的序号，未编号时为-1
+	 */
+	public int getPre() {
+		return pre;
+	}
+
+	/**
+	 * @return 子孙中最大的先序序号；t是本类或者本类的子孙当且仅当
+	 *         getPre() <= t.getPre() <= getLast()
+	 */
+	public int getLast() {
+		return last;
+	}
+
+	/**
+	 * 在继承关系确定之后，按先序遍历给一个程序中的全部类编号，
+	 * 此后compatible只需比较序号
+	 *
+	 * @param types
+	 *            全部类的类型，父类也在其中
+	 */
+	public static void number(List<ClassType> types) {
+		Map<ClassType, List<ClassType>> children = new HashMap<ClassType, List<ClassType>>();
+		List<ClassType> stack = new ArrayList<ClassType>();
+		for (int i = types.size() - 1; i >= 0; i--) {
+			ClassType t = types.get(i);
+			if (t.parent == null) {
+				stack.add(t);
+			} else {
+				List<ClassType> list = children.get(t.parent);
+				if (list == null) {
+					list = new ArrayList<ClassType>();
+					children.put(t.parent, list);
+				}
+				list.add(t);
+			}
+		}
+		List<ClassType> order = new ArrayList<ClassType>(types.size());
+		while (!stack.isEmpty()) {
+			ClassType t = stack.remove(stack.size() - 1);
+			t.pre = order.size();
+			order.add(t);
+			List<ClassType> list = children.get(t);
+			if (list != null) {
+				stack.addAll(list);
+			}
+		}
+		for (int i = order.size() - 1; i >= 0; i--) {
+			ClassType t = order.get(i);
+			if (t.last < t.pre) {
+				t.last = t.pre;
+			}
+			if (t.parent != null && t.parent.last < t.last) {
+				t.parent.last = t.last;
+			}
+		}
+	}
+
 }
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import decaf.utils.Counters;
+
 public class FuncType extends Type {
 
 	private Type returnType;
@@ -13,6 +15,7 @@ public class FuncType extends Type {
 	public FuncType(Type returnType) {
 		this.returnType = returnType;
 		argList = new ArrayList<Type>();
+		Counters.count(Counters.TYPE);
 	}
 
 	public int numOfParams() {
@@ -25,7 +28,7 @@ public class FuncType extends Type {
 
 	@Override
 	public boolean compatible(Type type) {
-		if (type.equal(BaseType.ERROR)) {
+		if (this == type || type.equal(BaseType.ERROR)) {
 			return true;
 		}
 		if (!type.isFuncType()) {
@@ -48,9 +51,12 @@ public class FuncType extends Type {
 		return true;
 	}
 
+	/**
+	 * 函数类型由Types唯一化，相同的函数类型是同一个对象
+	 */
 	@Override
 	public boolean equal(Type type) {
-		return equals(type);
+		return this == type;
 	}
 
 	@Override
@@ -0,0 +1,85 @@
+package decaf.type;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 一次编译使用的类型工厂<br>
+ * 数组类型按元素类型、函数类型按返回类型和参数类型唯一化，
+ * 相同的类型总是同一个对象，所以比较类型只需比较引用。
+ * 基本类型和类类型本来就是唯一的。并行检查的各个任务共用同一个工厂。
+ */
+public final class Types {
+
+	private ConcurrentMap<Type, ArrayType> arrays = new ConcurrentHashMap<Type, ArrayType>();
+
+	private ConcurrentMap<Signature, FuncType> funcs = new ConcurrentHashMap<Signature, FuncType>();
+
+	/**
+	 * @return 元素类型为elementType的数组类型
+	 */
+	public ArrayType array(Type elementType) {
+		ArrayType t = arrays.get(elementType);
+		if (t == null) {
+			ArrayType created = new ArrayType(elementType);
+			t = arrays.putIfAbsent(elementType, created);
+			if (t == null) {
+				t = created;
+			}
+		}
+		return t;
+	}
+
+	/**
+	 * 取得与一个已经构造完的函数类型相同的唯一的函数类型，此后不能再向其中添加参数
+	 */
+	public FuncType intern(FuncType type) {
+		List<Type> args = type.getArgList();
+		Type[] parts = args.toArray(new Type[args.size() + 1]);
+		parts[args.size()] = type.getReturnType();
+		FuncType t = funcs.putIfAbsent(new Signature(parts), type);
+		return t == null ? type : t;
+	}
+
+	/**
+	 * 函数类型的返回类型和参数类型，各个类型按引用比较
+	 */
+	private static final class Signature {
+
+		private Type[] parts;
+
+		private int hash;
+
+		Signature(Type[] parts) {
+			this.parts = parts;
+			int h = 1;
+			for (Type t : parts) {
+				h = 31 * h + System.identityHashCode(t);
+			}
+			hash = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Signature)) {
+				return false;
+			}
+			Signature s = (Signature) o;
+			if (hash != s.hash || parts.length != s.parts.length) {
+				return false;
+			}
+			for (int i = 0; i < parts.length; i++) {
+				if (parts[i] != s.parts[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
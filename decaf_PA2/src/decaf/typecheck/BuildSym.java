@@ -1,8 +1,10 @@
 package decaf.typecheck;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
-import decaf.Driver;
+import decaf.CompilationContext;
 import decaf.Location;
 import decaf.tree.Tree;
 import decaf.tree.Tree.Block;
@@ -25,28 +27,35 @@ import decaf.error.OverridingVarError;
 import decaf.scope.ClassScope;
 import decaf.scope.GlobalScope;
 import decaf.scope.LocalScope;
+import decaf.scope.Scope;
 import decaf.scope.ScopeStack;
 import decaf.symbol.Class;
 import decaf.symbol.Function;
 import decaf.symbol.Symbol;
 import decaf.symbol.Variable;
 import decaf.type.BaseType;
+import decaf.type.ClassType;
 import decaf.type.FuncType;
+import decaf.utils.Name;
 
 public class BuildSym extends Tree.Visitor {
 
+	private CompilationContext context;
+
 	private ScopeStack table;
 
 	private void issueError(DecafError error) {
-		Driver.getDriver().issueError(error);
+		context.issueError(error);
 	}
 
-	public BuildSym(ScopeStack table) {
-		this.table = table;
+	public BuildSym(CompilationContext context) {
+		this.context = context;
+		this.table = context.getTable();
 	}
 
-	public static void buildSymbol(Tree.TopLevel tree) {
-		new BuildSym(Driver.getDriver().getTable()).visitTopLevel(tree);
+	public static void buildSymbol(Tree.TopLevel tree,
+			CompilationContext context) {
+		new BuildSym(context).visitTopLevel(tree);
 	}
 
 	// root
@@ -55,15 +64,16 @@ public class BuildSym extends Tree.Visitor {
 		program.globalScope = new GlobalScope();
 		table.open(program.globalScope);
 		for (Tree.ClassDef cd : program.classes) {
-			Class c = new Class(cd.name, cd.parent, cd.getLocation());
+			Class c = new Class(cd.name, cd.parent, program.globalScope,
+					cd.getPosition());
 			boolean isSealed = cd instanceof Sealed;
 			if(isSealed) {
 				c.setSealed(true);
 			}
 			Class earlier = table.lookupClass(cd.name);
 			if (earlier != null) {
-				issueError(new DeclConflictError(cd.getLocation(), cd.name,
-						earlier.getLocation()));
+				issueError(new DeclConflictError(cd.getPosition(), cd.name.toString(),
+						earlier.getPosition()));
 			} else {
 				table.declare(c);
 			}
@@ -73,29 +83,33 @@ public class BuildSym extends Tree.Visitor {
 		for (Tree.ClassDef cd : program.classes) {
 			Class c = cd.symbol;
 			if (cd.parent != null && c.getParent() == null) {
-				issueError(new ClassNotFoundError(cd.getLocation(), cd.parent));
+				issueError(new ClassNotFoundError(cd.getPosition(), cd.parent.toString()));
 				c.dettachParent();
 			}
 			if (calcOrder(c) <= calcOrder(c.getParent())) {
-				issueError(new BadInheritanceError(cd.getLocation()));
+				issueError(new BadInheritanceError(cd.getPosition()));
 				c.dettachParent();
 			}
 			if(cd.parent != null && c.getParent() != null) {
 				if(c.getParent().isSealed() == true)
 				{
-					issueError(new BadSealedInherError(cd.getLocation()));
+					issueError(new BadSealedInherError(cd.getPosition()));
 				}
 			}
 		}
 
+		List<ClassType> types = new ArrayList<ClassType>();
 		for (Tree.ClassDef cd : program.classes) {
 			cd.symbol.createType();
+			types.add(cd.symbol.getType());
 		}
+		ClassType.number(types);
 
+		Name mainClassName = context.getNames().fromString(
+				context.getOption().getMainClassName());
 		for (Tree.ClassDef cd : program.classes) {
 			cd.accept(this);
-			if (Driver.getDriver().getOption().getMainClassName().equals(
-					cd.name)) {
+			if (cd.name == mainClassName) {
 				program.main = cd.symbol;
 			}
 		}
@@ -104,8 +118,32 @@ public class BuildSym extends Tree.Visitor {
 			checkOverride(cd.symbol);
 		}
 
+		for (Tree.ClassDef cd : program.classes) {
+			cd.symbol.getAssociatedScope().flatten();
+		}
+
+		IncrementalCheck incremental = context.getIncremental();
+		if (incremental != null) {
+			incremental.plan(program);
+		}
+		if (context.getPool() != null) {
+			buildBodiesInParallel(program);
+		} else {
+			for (Tree.ClassDef cd : program.classes) {
+				if (incremental == null) {
+					buildBodies(cd);
+				} else if (incremental.isDirty(cd)) {
+					incremental.begin(cd, context);
+					buildBodies(cd);
+					incremental.end(cd, context, IncrementalCheck.BUILD_SYM);
+				} else {
+					incremental.replay(cd, context, IncrementalCheck.BUILD_SYM);
+				}
+			}
+		}
+
 		if (!isMainClass(program.main)) {
-			issueError(new NoMainClassError(Driver.getDriver().getOption()
+			issueError(new NoMainClassError(context.getOption()
 					.getMainClassName()));
 		}
 		table.close();
@@ -127,10 +165,10 @@ public void visitForeachArray(ForeachArray foreachArray){
 			foreachArray.associatedScope = new LocalScope((Block)(foreachArray.stmt));
 		}
 		else {
-			foreachArray.associatedScope = new LocalScope(new Block(null, new Location(0,0)));
+			foreachArray.associatedScope = new LocalScope(new Block(null, Location.pack(0, 0)));
 		}
 		table.open(foreachArray.associatedScope);	
-		Symbol sym = new Variable(foreachArray.varbind.name, foreachArray.varbind.type, foreachArray.varbind.getLocation());
+		Symbol sym = new Variable(foreachArray.varbind.name, foreachArray.varbind.type, foreachArray.varbind.getPosition());
 //		foreachArray.associatedScope.declare(sym);
 		table.declare(sym);
 		foreachArray.varbind.accept(this);
@@ -189,23 +227,23 @@ public void visitForeachArray(ForeachArray foreachArray){
 	public void visitVarDef(Tree.VarDef varDef) {
 		varDef.type.accept(this);
 		if (varDef.type.type.equal(BaseType.VOID)) {
-			issueError(new BadVarTypeError(varDef.getLocation(), varDef.name));
+			issueError(new BadVarTypeError(varDef.getPosition(), varDef.name.toString()));
 			// for argList
-			varDef.symbol = new Variable(".error", BaseType.ERROR, varDef
-					.getLocation());
+			varDef.symbol = new Variable(Name.ERROR, BaseType.ERROR, varDef
+					.getPosition());
 			return;
 		}
 		Variable v = new Variable(varDef.name, varDef.type.type, 
-				varDef.getLocation());
+				varDef.getPosition());
 		Symbol sym = table.lookup(varDef.name, true);
 		if (sym != null) {
 			if (table.getCurrentScope().equals(sym.getScope())) {
 				
-				issueError(new DeclConflictError(v.getLocation(), v.getName(),
-						sym.getLocation()));
+				issueError(new DeclConflictError(v.getPosition(), v.getName().toString(),
+						sym.getPosition()));
 			} else if ((sym.getScope().isFormalScope() && table.getCurrentScope().isLocalScope() && ((LocalScope)table.getCurrentScope()).isCombinedtoFormal() )) {
-				issueError(new DeclConflictError(v.getLocation(), v.getName(),
-						sym.getLocation()));
+				issueError(new DeclConflictError(v.getPosition(), v.getName().toString(),
+						sym.getPosition()));
 			} else {
 				table.declare(v);
 			}
@@ -219,12 +257,13 @@ public void visitForeachArray(ForeachArray foreachArray){
 	public void visitMethodDef(Tree.MethodDef funcDef) {
 		funcDef.returnType.accept(this);
 		Function f = new Function(funcDef.statik, funcDef.name,
-				funcDef.returnType.type, funcDef.body, funcDef.getLocation());
+				funcDef.returnType.type, funcDef.body, (ClassScope) table
+						.lookForScope(Scope.Kind.CLASS), funcDef.getPosition());
 		funcDef.symbol = f;
 		Symbol sym = table.lookup(funcDef.name, false);
 		if (sym != null) {
-			issueError(new DeclConflictError(funcDef.getLocation(),
-					funcDef.name, sym.getLocation()));
+			issueError(new DeclConflictError(funcDef.getPosition(),
+					funcDef.name.toString(), sym.getPosition()));
 		} else {
 			table.declare(f);
 		}
@@ -233,7 +272,42 @@ public void visitForeachArray(ForeachArray foreachArray){
 			d.accept(this);
 			f.appendParam(d.symbol);
 		}
+		f.setType(context.getTypes().intern(f.getType()));
+		table.close();
+	}
+
+	/**
+	 * 在全部类、成员和参数都声明之后，为一个类的各个方法体构造局部作用域
+	 */
+	private void buildBodies(Tree.ClassDef classDef) {
+		table.open(classDef.symbol.getAssociatedScope());
+		for (Tree f : classDef.fields) {
+			// sealed classes are not visited, so their methods have no symbol
+			if (f instanceof Tree.MethodDef
+					&& ((Tree.MethodDef) f).symbol != null) {
+				buildBody((Tree.MethodDef) f);
+			}
+		}
+		table.close();
+	}
+
+	/**
+	 * 在线程池上同时为各个类的方法体构造局部作用域<br>
+	 * 这时类的作用域都已经确定，构造一个类的方法体只读其他类，只写本类方法的形参作用域和局部作用域。
+	 */
+	private void buildBodiesInParallel(Tree.TopLevel program) {
+		new ParallelCheck(IncrementalCheck.BUILD_SYM) {
+
+			@Override
+			void check(Tree.ClassDef cd, CompilationContext context) {
+				new BuildSym(context).buildBodies(cd);
+			}
+
+		}.run(program, context);
+	}
 
+	private void buildBody(Tree.MethodDef funcDef) {
+		table.open(funcDef.symbol.getAssociatedScope());
 		funcDef.body.associatedScope = new LocalScope(funcDef.body);
 		funcDef.body.associatedScope.setCombinedtoFormal(true);
 		table.open(funcDef.body.associatedScope);
@@ -266,8 +340,8 @@ public void visitForeachArray(ForeachArray foreachArray){
 	public void visitTypeClass(Tree.TypeClass typeClass) {
 		Class c = table.lookupClass(typeClass.name);
 		if (c == null) {
-			issueError(new ClassNotFoundError(typeClass.getLocation(),
-					typeClass.name));
+			issueError(new ClassNotFoundError(typeClass.getPosition(),
+					typeClass.name.toString()));
 			typeClass.type = BaseType.ERROR;
 		} else {
 			typeClass.type = c.getType();
@@ -280,10 +354,10 @@ public void visitForeachArray(ForeachArray foreachArray){
 		if (typeArray.elementType.type.equal(BaseType.ERROR)) {
 			typeArray.type = BaseType.ERROR;
 		} else if (typeArray.elementType.type.equal(BaseType.VOID)) {
-			issueError(new BadArrElementError(typeArray.getLocation()));
+			issueError(new BadArrElementError(typeArray.getPosition()));
 			typeArray.type = BaseType.ERROR;
 		} else {
-			typeArray.type = new decaf.type.ArrayType(
+			typeArray.type = context.getTypes().array(
 					typeArray.elementType.type);
 		}
 	}
@@ -371,25 +445,25 @@ public void visitForeachArray(ForeachArray foreachArray){
 			if (sym != null && !sym.isClass()) {
 				if ((suspect.isVariable() && sym.isFunction())
 						|| (suspect.isFunction() && sym.isVariable())) {
-					issueError(new DeclConflictError(suspect.getLocation(),
-							suspect.getName(), sym.getLocation()));
+					issueError(new DeclConflictError(suspect.getPosition(),
+							suspect.getName().toString(), sym.getPosition()));
 					iter.remove();
 				} else if (suspect.isFunction()) {
 					if (((Function) suspect).isStatik()
 							|| ((Function) sym).isStatik()) {
-						issueError(new DeclConflictError(suspect.getLocation(),
-								suspect.getName(), sym.getLocation()));
+						issueError(new DeclConflictError(suspect.getPosition(),
+								suspect.getName().toString(), sym.getPosition()));
 						iter.remove();
 					} else if (!suspect.getType().compatible(sym.getType())) {
-						issueError(new BadOverrideError(suspect.getLocation(),
-								suspect.getName(),
+						issueError(new BadOverrideError(suspect.getPosition(),
+								suspect.getName().toString(),
 								((ClassScope) sym.getScope()).getOwner()
-										.getName()));
+										.getName().toString()));
 						iter.remove();
 					}
 				} else if (suspect.isVariable()) {
-					issueError(new OverridingVarError(suspect.getLocation(),
-							suspect.getName()));
+					issueError(new OverridingVarError(suspect.getPosition(),
+							suspect.getName().toString()));
 					iter.remove();
 				}
 			}
@@ -403,8 +477,8 @@ public void visitForeachArray(ForeachArray foreachArray){
 			return false;
 		}
 		table.open(c.getAssociatedScope());
-		Symbol main = table.lookup(Driver.getDriver().getOption()
-				.getMainFuncName(), false);
+		Symbol main = table.lookup(context.getNames().fromString(
+				context.getOption().getMainFuncName()), false);
 		if (main == null || !main.isFunction()) {
 			return false;
 		}
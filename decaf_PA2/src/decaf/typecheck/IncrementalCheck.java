@@ -0,0 +1,419 @@
+package decaf.typecheck;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import decaf.CompilationContext;
+import decaf.CompileCache;
+import decaf.Location;
+import decaf.Option;
+import decaf.error.DecafError;
+import decaf.symbol.Class;
+import decaf.symbol.Function;
+import decaf.symbol.Symbol;
+import decaf.tree.Tree;
+import decaf.type.ArrayType;
+import decaf.type.ClassType;
+import decaf.type.FuncType;
+import decaf.type.Type;
+import decaf.utils.IndentPrintWriter;
+
+/**
+ * 增量检查的状态<br>
+ * 对每个类记录上一次编译时的签名（父类、成员变量和函数的类型）、全部词法单元的散列值、
+ * 检查方法体时查找过的类名，以及方法体报告的错误和类作用域的打印结果。<br>
+ * 符号表构造总是先声明全部类、成员和参数，然后只为需要重新检查的类构造局部作用域、做类型检查；
+ * 一个类需要重新检查，当且仅当它的源程序变了，或者它依赖的某个类（它查找过的类、
+ * 它的祖先，以及这些类的签名中出现的类，依此类推）的签名变了。
+ * 其余的类直接重放上一次记录的错误和打印结果；类的散列值只含相对于类开始处的行号，
+ * 类整体移动了位置时，记录的错误和打印结果按移动的行数改写后重放。
+ */
+public final class IncrementalCheck implements Serializable {
+
+	private static final long serialVersionUID = 2L;
+
+	public static final int BUILD_SYM = 0;
+
+	public static final int TYPE_CHECK = 1;
+
+	private String sourceName;
+
+	private Option.Level level;
+
+	/**
+	 * 保存状态的编译器的版本，见CompileCache.getBuildId
+	 */
+	private String buildId = CompileCache.getBuildId();
+
+	private Map<String, ClassRecord> records = new HashMap<String, ClassRecord>();
+
+	/**
+	 * 本次编译的记录，plan之前为null
+	 */
+	private transient Map<String, ClassRecord> current;
+
+	private transient Set<String> dirty;
+
+	private transient boolean disabled;
+
+	private IncrementalCheck(String sourceName, Option.Level level) {
+		this.sourceName = sourceName;
+		this.level = level;
+	}
+
+	/**
+	 * 读入上一次编译保存的状态
+	 *
+	 * @param file
+	 *            状态文件
+	 * @param sourceName
+	 *            源程序的名字，与文件中记录的不同时从头开始
+	 * @param level
+	 *            编译的级别，与文件中记录的不同时从头开始
+	 * @return 读入的状态，文件不存在、不可用或者由另一个版本的编译器保存时为空的状态
+	 */
+	public static IncrementalCheck load(String file, String sourceName,
+			Option.Level level) {
+		File f = new File(file);
+		if (f.isFile()) {
+			try {
+				ObjectInputStream in = new ObjectInputStream(
+						new FileInputStream(f));
+				try {
+					IncrementalCheck state = (IncrementalCheck) in
+							.readObject();
+					// errors and printed scopes of another build may differ
+					if (state.sourceName.equals(sourceName)
+							&& state.level == level
+							&& CompileCache.getBuildId().equals(state.buildId)) {
+						return state;
+					}
+				} finally {
+					in.close();
+				}
+			} catch (IOException e) {
+				// unreadable or written by another build, start over
+			} catch (ClassNotFoundException e) {
+				// written by another build, start over
+			} catch (ClassCastException e) {
+				// not a state file, start over
+			}
+		}
+		return new IncrementalCheck(sourceName, level);
+	}
+
+	/**
+	 * 保存本次编译的状态，没有做符号表构造时保留上一次的状态
+	 */
+	public void save(String file) throws IOException {
+		if (current != null) {
+			records = disabled ? new HashMap<String, ClassRecord>() : current;
+		}
+		File f = new File(file);
+		File tmp = new File(file + ".tmp");
+		ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(
+				tmp));
+		try {
+			out.writeObject(this);
+		} finally {
+			out.close();
+		}
+		if (!tmp.renameTo(f)) {
+			f.delete();
+			if (!tmp.renameTo(f)) {
+				throw new IOException("Can not write " + file);
+			}
+		}
+	}
+
+	/**
+	 * 在全部类的签名都已经确定（包括检查覆盖之后）时决定哪些类需要重新检查
+	 */
+	public void plan(Tree.TopLevel program) {
+		current = new HashMap<String, ClassRecord>();
+		dirty = new HashSet<String>();
+		for (Tree.ClassDef cd : program.classes) {
+			if (current.put(cd.name.toString(), new ClassRecord(cd)) != null) {
+				disabled = true;
+			}
+		}
+		if (disabled) {
+			return;
+		}
+		Set<String> changed = new HashSet<String>();
+		for (ClassRecord now : current.values()) {
+			ClassRecord old = records.get(now.name);
+			if (old == null || !old.signature.equals(now.signature)) {
+				changed.add(now.name);
+			}
+		}
+		for (String name : records.keySet()) {
+			if (!current.containsKey(name)) {
+				changed.add(name);
+			}
+		}
+		for (Tree.ClassDef cd : program.classes) {
+			ClassRecord old = records.get(cd.name.toString());
+			ClassRecord now = current.get(cd.name.toString());
+			if (isClean(old, now, changed)) {
+				old.moveTo(now.line);
+				current.put(cd.name.toString(), old);
+			} else {
+				dirty.add(cd.name.toString());
+			}
+		}
+	}
+
+	private boolean isClean(ClassRecord old, ClassRecord now,
+			Set<String> changed) {
+		if (old == null || now.sourceHash == 0
+				|| old.sourceHash != now.sourceHash || !old.checked
+				|| (level == Option.Level.LEVEL1 && old.printed == null)) {
+			return false;
+		}
+		Set<String> visited = new HashSet<String>();
+		LinkedList<String> work = new LinkedList<String>(old.dependencies);
+		work.add(old.name);
+		while (!work.isEmpty()) {
+			String name = work.removeFirst();
+			if (!visited.add(name)) {
+				continue;
+			}
+			if (changed.contains(name)) {
+				return false;
+			}
+			ClassRecord r = records.get(name);
+			if (r != null) {
+				if (r.parent != null) {
+					work.add(r.parent);
+				}
+				work.addAll(r.mentions);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return 这个类的方法体是否需要重新检查
+	 */
+	public boolean isDirty(Tree.ClassDef cd) {
+		return disabled || dirty.contains(cd.name.toString());
+	}
+
+	/**
+	 * 开始检查一个类的方法体，此后报告的错误和查找的类名都记在这个类名下<br>
+	 * 不同的类可以在各自的CompilationContext中同时检查。
+	 */
+	public void begin(Tree.ClassDef cd, CompilationContext context) {
+		if (disabled) {
+			return;
+		}
+		ClassRecord r = current.get(cd.name.toString());
+		r.mark = context.getErrorCount();
+		context.getTable().setDependencies(r.dependencies);
+	}
+
+	/**
+	 * 结束检查一个类的方法体
+	 *
+	 * @param phase
+	 *            BUILD_SYM或TYPE_CHECK
+	 */
+	public void end(Tree.ClassDef cd, CompilationContext context, int phase) {
+		if (disabled) {
+			return;
+		}
+		context.getTable().setDependencies(null);
+		ClassRecord r = current.get(cd.name.toString());
+		r.setErrors(phase, new ArrayList<DecafError>(context
+				.getErrorsFrom(r.mark)));
+		if (phase == TYPE_CHECK) {
+			r.checked = true;
+			if (level == Option.Level.LEVEL1) {
+				StringWriter sw = new StringWriter();
+				IndentPrintWriter pw = new IndentPrintWriter(sw, 4);
+				cd.symbol.getAssociatedScope().printTo(pw);
+				pw.flush();
+				r.printed = Arrays.asList(sw.toString().split("\r?\n"));
+			}
+		}
+	}
+
+	/**
+	 * 对不需要重新检查的类，重放上一次记录的错误（和打印结果）
+	 *
+	 * @param phase
+	 *            BUILD_SYM或TYPE_CHECK
+	 */
+	public void replay(Tree.ClassDef cd, CompilationContext context, int phase) {
+		ClassRecord r = current.get(cd.name.toString());
+		for (DecafError error : r.getErrors(phase)) {
+			context.issueError(error);
+		}
+		if (phase == TYPE_CHECK) {
+			cd.symbol.getAssociatedScope().setPrinted(r.printed);
+		}
+	}
+
+	/**
+	 * 一个类在一次编译中的记录
+	 */
+	private static final class ClassRecord implements Serializable {
+
+		private static final long serialVersionUID = 3L;
+
+		/**
+		 * 打印结果中一行开头的位置"(行,列)"
+		 */
+		private static final Pattern PRINTED_POSITION = Pattern
+				.compile("^(\\s*\\()(\\d+)(,)");
+
+		private String name;
+
+		private String parent;
+
+		private long sourceHash;
+
+		/**
+		 * 类开始的行号，记录的错误和打印结果中的位置都是这时的
+		 */
+		private int line;
+
+		private String signature;
+
+		/**
+		 * 签名中出现的其他类
+		 */
+		private Set<String> mentions = new HashSet<String>();
+
+		/**
+		 * 检查方法体时查找过的类名
+		 */
+		private Set<String> dependencies = new HashSet<String>();
+
+		/**
+		 * 构造符号表时报告的错误
+		 */
+		private List<DecafError> buildErrors;
+
+		/**
+		 * 检查方法体时报告的错误
+		 */
+		private List<DecafError> checkErrors;
+
+		/**
+		 * 是否已经做过类型检查
+		 */
+		private boolean checked;
+
+		private List<String> printed;
+
+		/**
+		 * 开始检查方法体时已经报告的错误个数
+		 */
+		private transient int mark;
+
+		ClassRecord(Tree.ClassDef cd) {
+			Class c = cd.symbol;
+			name = cd.name.toString();
+			parent = c.getParent() == null ? null : c.getParent().getName()
+					.toString();
+			sourceHash = cd.sourceHash;
+			line = Location.lineOf(cd.getPosition());
+			StringBuilder sb = new StringBuilder();
+			sb.append(c.isSealed() ? "sealed " : "").append(parent);
+			Iterator<Symbol> iter = c.getAssociatedScope().iterator();
+			while (iter.hasNext()) {
+				Symbol symbol = iter.next();
+				sb.append(';');
+				if (symbol.isFunction() && ((Function) symbol).isStatik()) {
+					sb.append("static ");
+				}
+				sb.append(symbol.getName()).append(':').append(
+						symbol.getType());
+				mention(symbol.getType());
+			}
+			signature = sb.toString();
+		}
+
+		/**
+		 * 把记录中的位置改为类从第line行开始时的位置
+		 */
+		void moveTo(int line) {
+			int lines = line - this.line;
+			if (lines == 0) {
+				return;
+			}
+			this.line = line;
+			buildErrors = moved(buildErrors, lines);
+			checkErrors = moved(checkErrors, lines);
+			if (printed != null) {
+				List<String> moved = new ArrayList<String>(printed.size());
+				for (String s : printed) {
+					Matcher m = PRINTED_POSITION.matcher(s);
+					if (m.find()) {
+						s = m.group(1) + (Integer.parseInt(m.group(2)) + lines)
+								+ s.substring(m.start(3));
+					}
+					moved.add(s);
+				}
+				printed = moved;
+			}
+		}
+
+		private static List<DecafError> moved(List<DecafError> errors,
+				int lines) {
+			if (errors == null) {
+				return null;
+			}
+			List<DecafError> moved = new ArrayList<DecafError>(errors.size());
+			for (DecafError error : errors) {
+				moved.add(error.moved(lines));
+			}
+			return moved;
+		}
+
+		List<DecafError> getErrors(int phase) {
+			return phase == BUILD_SYM ? buildErrors : checkErrors;
+		}
+
+		void setErrors(int phase, List<DecafError> errors) {
+			if (phase == BUILD_SYM) {
+				buildErrors = errors;
+			} else {
+				checkErrors = errors;
+			}
+		}
+
+		private void mention(Type type) {
+			if (type.isClassType()) {
+				mentions.add(((ClassType) type).getSymbol().getName().toString());
+			} else if (type.isArrayType()) {
+				mention(((ArrayType) type).getElementType());
+			} else if (type.isFuncType()) {
+				FuncType ft = (FuncType) type;
+				mention(ft.getReturnType());
+				for (Type t : ft.getArgList()) {
+					mention(t);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package decaf.typecheck;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+import decaf.CompilationContext;
+import decaf.error.DecafError;
+import decaf.tree.Tree;
+import decaf.utils.Counters;
+
+/**
+ * 在CompilationContext的线程池上对每个类分别做一项检查<br>
+ * 每个类在自己的CompilationContext（见CompilationContext.fork）中检查，
+ * 全部完成后按类的顺序把错误交给原来的context，报告顺序与顺序检查时完全相同；
+ * 增量检查时不需要重新检查的类在这时重放上一次的结果。
+ */
+abstract class ParallelCheck {
+
+	private int phase;
+
+	/**
+	 * 调用run的线程，在这个线程中执行的检查已经计入它自己的计数
+	 */
+	private Thread caller;
+
+	/**
+	 * @param phase
+	 *            IncrementalCheck.BUILD_SYM或IncrementalCheck.TYPE_CHECK
+	 */
+	ParallelCheck(int phase) {
+		this.phase = phase;
+	}
+
+	/**
+	 * 检查一个类，context的符号表中已经打开了全局作用域
+	 */
+	abstract void check(Tree.ClassDef cd, CompilationContext context);
+
+	void run(Tree.TopLevel program, CompilationContext context) {
+		int n = program.classes.size();
+		caller = Thread.currentThread();
+		// each task sets only its own slot
+		List<List<DecafError>> errors = new ArrayList<List<DecafError>>(
+				Collections.<List<DecafError>> nCopies(n, null));
+		long[] counts = new long[Counters.SIZE];
+		context.getPool().invoke(
+				new Task(program, context, errors, counts, 0, n));
+		Counters.add(counts);
+		IncrementalCheck incremental = context.getIncremental();
+		for (int i = 0; i < n; i++) {
+			Tree.ClassDef cd = program.classes.get(i);
+			if (phase == IncrementalCheck.TYPE_CHECK) {
+				// errors in a class body are located inside the class
+				context.advance(cd.getPosition());
+			}
+			if (errors.get(i) == null) {
+				incremental.replay(cd, context, phase);
+				continue;
+			}
+			for (DecafError error : errors.get(i)) {
+				context.issueError(error);
+			}
+		}
+	}
+
+	/**
+	 * 检查第i个类，错误按报告顺序存入errors的第i项，不需要重新检查时这一项为null
+	 */
+	private void check(Tree.TopLevel program, CompilationContext context,
+			List<List<DecafError>> errors, long[] counts, int i) {
+		Tree.ClassDef cd = program.classes.get(i);
+		IncrementalCheck incremental = context.getIncremental();
+		if (incremental != null && !incremental.isDirty(cd)) {
+			return;
+		}
+		long[] before = Counters.snapshot();
+		CompilationContext local = context.fork();
+		local.getTable().open(program.globalScope);
+		if (incremental == null) {
+			check(cd, local);
+		} else {
+			incremental.begin(cd, local);
+			check(cd, local);
+			incremental.end(cd, local, phase);
+		}
+		local.getTable().close();
+		errors.set(i, local.getErrorsFrom(0));
+		if (Thread.currentThread() == caller) {
+			return;
+		}
+		long[] delta = Counters.since(before);
+		synchronized (counts) {
+			for (int k = 0; k < counts.length; k++) {
+				counts[k] += delta[k];
+			}
+		}
+	}
+
+	/**
+	 * 把类的列表对半拆分，直到只剩一个类
+	 */
+	private class Task extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private Tree.TopLevel program;
+
+		private CompilationContext context;
+
+		private List<List<DecafError>> errors;
+
+		private long[] counts;
+
+		private int from;
+
+		private int to;
+
+		Task(Tree.TopLevel program, CompilationContext context,
+				List<List<DecafError>> errors, long[] counts, int from, int to) {
+			this.program = program;
+			this.context = context;
+			this.errors = errors;
+			this.counts = counts;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= 1) {
+				if (to > from) {
+					check(program, context, errors, counts, from);
+				}
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new Task(program, context, errors, counts, from, mid),
+					new Task(program, context, errors, counts, mid, to));
+		}
+	}
+}
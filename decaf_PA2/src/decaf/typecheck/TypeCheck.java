@@ -4,8 +4,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Stack;
 
-import decaf.Driver;
-import decaf.Location;
+import decaf.CompilationContext;
 import decaf.tree.Tree;
 import decaf.tree.Tree.Block;
 import decaf.tree.Tree.DefaultArray;
@@ -58,27 +57,53 @@ import decaf.symbol.Function;
 import decaf.symbol.Symbol;
 import decaf.symbol.Variable;
 import decaf.type.*;
+import decaf.utils.Name;
 
 public class TypeCheck extends Tree.Visitor {
 
+	private CompilationContext context;
+
 	private ScopeStack table;
 
 	private Stack<Tree> breaks;
 
 	private Function currentFunction;
 
-	public TypeCheck(ScopeStack table) {
-		this.table = table;
+	public TypeCheck(CompilationContext context) {
+		this.context = context;
+		this.table = context.getTable();
 		breaks = new Stack<Tree>();
 	}
 
-	public static void checkType(Tree.TopLevel tree) {
-		new TypeCheck(Driver.getDriver().getTable()).visitTopLevel(tree);
+	public static void checkType(Tree.TopLevel tree,
+			CompilationContext context) {
+		if (context.getPool() == null) {
+			new TypeCheck(context).visitTopLevel(tree);
+		} else {
+			checkInParallel(tree, context);
+		}
+	}
+
+	/**
+	 * 在线程池上同时检查各个类<br>
+	 * 符号表构造已经确定了全部类、成员和参数，检查一个类的方法体只读其他类的作用域，
+	 * 只写本类的语法树和局部作用域。
+	 */
+	private static void checkInParallel(Tree.TopLevel program,
+			CompilationContext context) {
+		new ParallelCheck(IncrementalCheck.TYPE_CHECK) {
+
+			@Override
+			void check(Tree.ClassDef cd, CompilationContext context) {
+				cd.accept(new TypeCheck(context));
+			}
+
+		}.run(program, context);
 	}
 
 	@Override
 	public void visitBinary(Tree.Binary expr) {
-		expr.type = checkBinaryOp(expr.left, expr.right, expr.tag, expr.loc);
+		expr.type = checkBinaryOp(expr.left, expr.right, expr.tag, expr.pos);
 	}
 
 	@Override
@@ -89,7 +114,7 @@ public class TypeCheck extends Tree.Visitor {
 					|| expr.expr.type.equal(BaseType.INT)) {
 				expr.type = expr.expr.type;
 			} else {
-				issueError(new IncompatUnOpError(expr.getLocation(), "-",
+				issueError(new IncompatUnOpError(expr.getPosition(), "-",
 						expr.expr.type.toString()));
 				expr.type = BaseType.ERROR;
 			}
@@ -97,7 +122,7 @@ public class TypeCheck extends Tree.Visitor {
 		else{
 			if (!(expr.expr.type.equal(BaseType.BOOL) || expr.expr.type
 					.equal(BaseType.ERROR))) {
-				issueError(new IncompatUnOpError(expr.getLocation(), "!",
+				issueError(new IncompatUnOpError(expr.getPosition(), "!",
 						expr.expr.type.toString()));
 			}
 			expr.type = BaseType.BOOL;
@@ -139,7 +164,7 @@ public class TypeCheck extends Tree.Visitor {
 		indexed.lvKind = Tree.LValue.Kind.ARRAY_ELEMENT;
 		indexed.array.accept(this);
 		if (!indexed.array.type.isArrayType()) {
-			issueError(new NotArrayError(indexed.array.getLocation()));
+			issueError(new NotArrayError(indexed.array.getPosition()));
 			indexed.type = BaseType.ERROR;
 		} else {
 			indexed.type = ((ArrayType) indexed.array.type)
@@ -147,7 +172,7 @@ public class TypeCheck extends Tree.Visitor {
 		}
 		indexed.index.accept(this);
 		if (!indexed.index.type.equal(BaseType.INT)) {
-			issueError(new SubNotIntError(indexed.getLocation()));
+			issueError(new SubNotIntError(indexed.getPosition()));
 		
 		}
 	}
@@ -157,12 +182,12 @@ public class TypeCheck extends Tree.Visitor {
 				.lookForScope(Scope.Kind.CLASS)).getOwner().getType()
 				: callExpr.receiver.type;
 		if (f == null) {
-			issueError(new FieldNotFoundError(callExpr.getLocation(),
-					callExpr.method, receiverType.toString()));
+			issueError(new FieldNotFoundError(callExpr.getPosition(),
+					callExpr.method.toString(), receiverType.toString()));
 			callExpr.type = BaseType.ERROR;
 		} else if (!f.isFunction()) {
-			issueError(new NotClassMethodError(callExpr.getLocation(),
-					callExpr.method, receiverType.toString()));
+			issueError(new NotClassMethodError(callExpr.getPosition(),
+					callExpr.method.toString(), receiverType.toString()));
 			callExpr.type = BaseType.ERROR;
 		} else {
 			Function func = (Function) f;
@@ -170,19 +195,19 @@ public class TypeCheck extends Tree.Visitor {
 			callExpr.type = func.getReturnType();
 			if (callExpr.receiver == null && currentFunction.isStatik()
 					&& !func.isStatik()) {
-				issueError(new RefNonStaticError(callExpr.getLocation(),
-						currentFunction.getName(), func.getName()));
+				issueError(new RefNonStaticError(callExpr.getPosition(),
+						currentFunction.getName().toString(), func.getName().toString()));
 			}
 			if (!func.isStatik() && callExpr.receiver != null
 					&& callExpr.receiver.isClass) {
-				issueError(new NotClassFieldError(callExpr.getLocation(),
-						callExpr.method, callExpr.receiver.type.toString()));
+				issueError(new NotClassFieldError(callExpr.getPosition(),
+						callExpr.method.toString(), callExpr.receiver.type.toString()));
 			}
 			if (func.isStatik()) {
 				callExpr.receiver = null;
 			} else {
 				if (callExpr.receiver == null && !currentFunction.isStatik()) {
-					callExpr.receiver = new Tree.ThisExpr(callExpr.getLocation());
+					callExpr.receiver = new Tree.ThisExpr(callExpr.getPosition());
 					callExpr.receiver.accept(this);
 				}
 			}
@@ -193,8 +218,8 @@ public class TypeCheck extends Tree.Visitor {
 			int argCount = func.isStatik() ? callExpr.actuals.size()
 					: callExpr.actuals.size() + 1;
 			if (argList.size() != argCount) {
-				issueError(new BadArgCountError(callExpr.getLocation(),
-						callExpr.method, func.isStatik() ? argList.size()
+				issueError(new BadArgCountError(callExpr.getPosition(),
+						callExpr.method.toString(), func.isStatik() ? argList.size()
 								: argList.size() - 1, callExpr.actuals.size()));
 			} else {
 				Iterator<Type> iter1 = argList.iterator();
@@ -207,7 +232,7 @@ public class TypeCheck extends Tree.Visitor {
 					Tree.Expr e = iter2.next();
 					Type t2 = e.type;
 					if (!t2.equal(BaseType.ERROR) && !t2.compatible(t1)) {
-						issueError(new BadArgTypeError(e.getLocation(), i, 
+						issueError(new BadArgTypeError(e.getPosition(), i, 
 								t2.toString(), t1.toString()));
 					}
 				}
@@ -228,25 +253,25 @@ public class TypeCheck extends Tree.Visitor {
 			callExpr.type = BaseType.ERROR;
 			return;
 		}
-		if (callExpr.method.equals("length")) {
+		if (callExpr.method == Name.LENGTH) {
 			if (callExpr.receiver.type.isArrayType()) {
 				if (callExpr.actuals.size() > 0) {
-					issueError(new BadLengthArgError(callExpr.getLocation(),
+					issueError(new BadLengthArgError(callExpr.getPosition(),
 							callExpr.actuals.size()));
 				}
 				callExpr.type = BaseType.INT;
 				callExpr.isArrayLength = true;
 				return;
 			} else if (!callExpr.receiver.type.isClassType()) {
-				issueError(new BadLengthError(callExpr.getLocation()));
+				issueError(new BadLengthError(callExpr.getPosition()));
 				callExpr.type = BaseType.ERROR;
 				return;
 			}
 		}
 
 		if (!callExpr.receiver.type.isClassType()) {
-			issueError(new NotClassFieldError(callExpr.getLocation(),
-					callExpr.method, callExpr.receiver.type.toString()));
+			issueError(new NotClassFieldError(callExpr.getPosition(),
+					callExpr.method.toString(), callExpr.receiver.type.toString()));
 			callExpr.type = BaseType.ERROR;
 			return;
 		}
@@ -268,16 +293,16 @@ public class TypeCheck extends Tree.Visitor {
 			newArrayExpr.type = BaseType.ERROR;
 		} else if (newArrayExpr.elementType.type.equal(BaseType.VOID)) {
 			issueError(new BadArrElementError(newArrayExpr.elementType
-					.getLocation()));
+					.getPosition()));
 			newArrayExpr.type = BaseType.ERROR;
 		} else {
-			newArrayExpr.type = new ArrayType(
+			newArrayExpr.type = context.getTypes().array(
 					newArrayExpr.elementType.type);
 		}
 		newArrayExpr.length.accept(this);
 		if (!newArrayExpr.length.type.equal(BaseType.ERROR)
 				&& !newArrayExpr.length.type.equal(BaseType.INT)) {
-			issueError(new BadNewArrayLength(newArrayExpr.length.getLocation()));
+			issueError(new BadNewArrayLength(newArrayExpr.length.getPosition()));
 		}
 	}
 
@@ -286,8 +311,8 @@ public class TypeCheck extends Tree.Visitor {
 		Class c = table.lookupClass(newClass.className);
 		newClass.symbol = c;
 		if (c == null) {
-			issueError(new ClassNotFoundError(newClass.getLocation(),
-					newClass.className));
+			issueError(new ClassNotFoundError(newClass.getPosition(),
+					newClass.className.toString()));
 			newClass.type = BaseType.ERROR;
 		} else {
 			newClass.type = c.getType();
@@ -297,7 +322,7 @@ public class TypeCheck extends Tree.Visitor {
 	@Override
 	public void visitThisExpr(Tree.ThisExpr thisExpr) {
 		if (currentFunction.isStatik()) {
-			issueError(new ThisInStaticFuncError(thisExpr.getLocation()));
+			issueError(new ThisInStaticFuncError(thisExpr.getPosition()));
 			thisExpr.type = BaseType.ERROR;
 		} else {
 			thisExpr.type = ((ClassScope) table.lookForScope(Scope.Kind.CLASS))
@@ -310,14 +335,14 @@ public class TypeCheck extends Tree.Visitor {
 		instanceofExpr.instance.accept(this);
 		if (!instanceofExpr.instance.type.isClassType()) {
 			issueError(new NotClassError(instanceofExpr.instance.type
-					.toString(), instanceofExpr.getLocation()));
+					.toString(), instanceofExpr.getPosition()));
 		}
 		Class c = table.lookupClass(instanceofExpr.className);
 		instanceofExpr.symbol = c;
 		instanceofExpr.type = BaseType.BOOL;
 		if (c == null) {
-			issueError(new ClassNotFoundError(instanceofExpr.getLocation(),
-					instanceofExpr.className));
+			issueError(new ClassNotFoundError(instanceofExpr.getPosition(),
+					instanceofExpr.className.toString()));
 		}
 	}
 
@@ -326,13 +351,13 @@ public class TypeCheck extends Tree.Visitor {
 		cast.expr.accept(this);
 		if (!cast.expr.type.isClassType()) {
 			issueError(new NotClassError(cast.expr.type.toString(),
-					cast.getLocation()));
+					cast.getPosition()));
 		}
 		Class c = table.lookupClass(cast.className);
 		cast.symbol = c;
 		if (c == null) {
-			issueError(new ClassNotFoundError(cast.getLocation(),
-					cast.className));
+			issueError(new ClassNotFoundError(cast.getPosition(),
+					cast.className.toString()));
 			cast.type = BaseType.ERROR;
 		} else {
 			cast.type = c.getType();
@@ -343,9 +368,9 @@ public class TypeCheck extends Tree.Visitor {
 	public void visitIdent(Tree.Ident ident) {
 		if (ident.owner == null) {
 			Symbol v = table.lookupBeforeLocation(ident.name, ident
-					.getLocation());
+					.getPosition());
 			if (v == null) {
-				issueError(new UndeclVarError(ident.getLocation(), ident.name));
+				issueError(new UndeclVarError(ident.getPosition(), ident.name.toString()));
 				ident.type = BaseType.ERROR;
 			} else if (v.isVariable()) {
 				Variable var = (Variable) v;
@@ -357,10 +382,10 @@ public class TypeCheck extends Tree.Visitor {
 					ident.lvKind = Tree.LValue.Kind.PARAM_VAR;
 				} else {
 					if (currentFunction.isStatik()) {
-						issueError(new RefNonStaticError(ident.getLocation(),
-								currentFunction.getName(), ident.name));
+						issueError(new RefNonStaticError(ident.getPosition(),
+								currentFunction.getName().toString(), ident.name.toString()));
 					} else {
-						ident.owner = new Tree.ThisExpr(ident.getLocation());
+						ident.owner = new Tree.ThisExpr(ident.getPosition());
 						ident.owner.accept(this);
 					}
 					ident.lvKind = Tree.LValue.Kind.MEMBER_VAR;
@@ -371,8 +396,8 @@ public class TypeCheck extends Tree.Visitor {
 					if (ident.usedForRef) {
 						ident.isClass = true;
 					} else {
-						issueError(new UndeclVarError(ident.getLocation(),
-								ident.name));
+						issueError(new UndeclVarError(ident.getPosition(),
+								ident.name.toString()));
 						ident.type = BaseType.ERROR;
 					}
 
@@ -383,16 +408,16 @@ public class TypeCheck extends Tree.Visitor {
 			ident.owner.accept(this);
 			if (!ident.owner.type.equal(BaseType.ERROR)) {
 				if (ident.owner.isClass || !ident.owner.type.isClassType()) {
-					issueError(new NotClassFieldError(ident.getLocation(),
-							ident.name, ident.owner.type.toString()));
+					issueError(new NotClassFieldError(ident.getPosition(),
+							ident.name.toString(), ident.owner.type.toString()));
 					ident.type = BaseType.ERROR;
 				} else {
 					ClassScope cs = ((ClassType) ident.owner.type)
 							.getClassScope();
 					Symbol v = cs.lookupVisible(ident.name);
 					if (v == null) {
-						issueError(new FieldNotFoundError(ident.getLocation(),
-								ident.name, ident.owner.type.toString()));
+						issueError(new FieldNotFoundError(ident.getPosition(),
+								ident.name.toString(), ident.owner.type.toString()));
 						ident.type = BaseType.ERROR;
 					} else if (v.isVariable()) {
 						ClassType thisType = ((ClassScope) table
@@ -401,7 +426,7 @@ public class TypeCheck extends Tree.Visitor {
 						ident.type = v.getType();
 						if (!thisType.compatible(ident.owner.type)) {
 							issueError(new FieldNotAccessError(ident
-									.getLocation(), ident.name,
+									.getPosition(), ident.name.toString(),
 									ident.owner.type.toString()));
 						} else {
 							ident.symbol = (Variable) v;
@@ -436,9 +461,20 @@ public class TypeCheck extends Tree.Visitor {
 
 	@Override
 	public void visitTopLevel(Tree.TopLevel program) {
+		IncrementalCheck incremental = context.getIncremental();
 		table.open(program.globalScope);
 		for (Tree.ClassDef cd : program.classes) {
-			cd.accept(this);
+			// errors in a class body are located inside the class
+			context.advance(cd.getPosition());
+			if (incremental == null) {
+				cd.accept(this);
+			} else if (incremental.isDirty(cd)) {
+				incremental.begin(cd, context);
+				cd.accept(this);
+				incremental.end(cd, context, IncrementalCheck.TYPE_CHECK);
+			} else {
+				incremental.replay(cd, context, IncrementalCheck.TYPE_CHECK);
+			}
 		}
 		table.close();
 	}
@@ -472,12 +508,12 @@ public class TypeCheck extends Tree.Visitor {
 		if (!assign.left.type.equal(BaseType.ERROR)){
 		    if (assign.expr.tag == Tree.NEWSAMEARRAY){
 		    	if (assign.left.type.isFuncType() || !assign.expr.type.compatible(assign.left.type)) {
-		    		issueError(new IncompatBinOpError(assign.getLocation(),assign.left.type.toString(), "=", assign.expr.type.toString()));
+		    		issueError(new IncompatBinOpError(assign.getPosition(),assign.left.type.toString(), "=", assign.expr.type.toString()));
 		    	}
 		    } 
 		    else if (assign.left.type.isFuncType() || !assign.expr.type.compatible(assign.left.type))
 		    {
-		    	issueError(new IncompatBinOpError(assign.getLocation(),
+		    	issueError(new IncompatBinOpError(assign.getPosition(),
 		            assign.left.type.toString(), "=", assign.expr.type
 		                .toString()));
 		    }
@@ -487,7 +523,7 @@ public class TypeCheck extends Tree.Visitor {
 	@Override
 	public void visitBreak(Tree.Break breakStmt) {
 		if (breaks.empty()) {
-			issueError(new BreakOutOfLoopError(breakStmt.getLocation()));
+			issueError(new BreakOutOfLoopError(breakStmt.getPosition()));
 		}
 	}
 
@@ -527,7 +563,7 @@ public class TypeCheck extends Tree.Visitor {
 			if (!e.type.equal(BaseType.ERROR) && !e.type.equal(BaseType.BOOL)
 					&& !e.type.equal(BaseType.INT)
 					&& !e.type.equal(BaseType.STRING)) {
-				issueError(new BadPrintArgError(e.getLocation(), Integer
+				issueError(new BadPrintArgError(e.getPosition(), Integer
 						.toString(i), e.type.toString()));
 			}
 		}
@@ -542,15 +578,15 @@ public class TypeCheck extends Tree.Visitor {
 		}
 		if (returnType.equal(BaseType.VOID)) {
 			if (returnStmt.expr != null) {
-				issueError(new BadReturnTypeError(returnStmt.getLocation(),
+				issueError(new BadReturnTypeError(returnStmt.getPosition(),
 						returnType.toString(), returnStmt.expr.type.toString()));
 			}
 		} else if (returnStmt.expr == null) {
-			issueError(new BadReturnTypeError(returnStmt.getLocation(),
+			issueError(new BadReturnTypeError(returnStmt.getPosition(),
 					returnType.toString(), "void"));
 		} else if (!returnStmt.expr.type.equal(BaseType.ERROR)
 				&& !returnStmt.expr.type.compatible(returnType)) {
-			issueError(new BadReturnTypeError(returnStmt.getLocation(),
+			issueError(new BadReturnTypeError(returnStmt.getPosition(),
 					returnType.toString(), returnStmt.expr.type.toString()));
 		}
 	}
@@ -587,8 +623,8 @@ public class TypeCheck extends Tree.Visitor {
 	public void visitTypeClass(Tree.TypeClass typeClass) {
 		Class c = table.lookupClass(typeClass.name);
 		if (c == null) {
-			issueError(new ClassNotFoundError(typeClass.getLocation(),
-					typeClass.name));
+			issueError(new ClassNotFoundError(typeClass.getPosition(),
+					typeClass.name.toString()));
 			typeClass.type = BaseType.ERROR;
 		} else {
 			typeClass.type = c.getType();
@@ -601,10 +637,10 @@ public class TypeCheck extends Tree.Visitor {
 		if (typeArray.elementType.type.equal(BaseType.ERROR)) {
 			typeArray.type = BaseType.ERROR;
 		} else if (typeArray.elementType.type.equal(BaseType.VOID)) {
-			issueError(new BadArrElementError(typeArray.getLocation()));
+			issueError(new BadArrElementError(typeArray.getPosition()));
 			typeArray.type = BaseType.ERROR;
 		} else {
-			typeArray.type = new ArrayType(typeArray.elementType.type);
+			typeArray.type = context.getTypes().array(typeArray.elementType.type);
 		}
 	}
 
@@ -616,25 +652,25 @@ public class TypeCheck extends Tree.Visitor {
         Symbol identSymbol = table.lookup(sCopyExpr.ident, true);
         if (identSymbol == null)
         {
-            issueError(new UndeclVarError(sCopyExpr.getLocation(), sCopyExpr.ident));
+            issueError(new UndeclVarError(sCopyExpr.getPosition(), sCopyExpr.ident.toString()));
             sCopyExpr.type = BaseType.ERROR;
             if(!sCopyExpr.expr.type.equal(BaseType.ERROR) && !sCopyExpr.expr.type.isClassType()) {
-            	issueError(new BadScopyArgError(sCopyExpr.expr.getLocation(), "src", sCopyExpr.expr.type.toString()));
+            	issueError(new BadScopyArgError(sCopyExpr.expr.getPosition(), "src", sCopyExpr.expr.type.toString()));
             	sCopyExpr.type = BaseType.ERROR;
             }
         }
         else {
         	Type identType = table.lookup(sCopyExpr.ident, true).getType();
         	if(!identType.equal(BaseType.ERROR) && !identType.isClassType()) {
-        		issueError(new BadScopyArgError(sCopyExpr.getLocation(), "dst", identType.toString()));
+        		issueError(new BadScopyArgError(sCopyExpr.getPosition(), "dst", identType.toString()));
         		if(!sCopyExpr.expr.type.equal(BaseType.ERROR) && !sCopyExpr.expr.type.isClassType()) {
-                	issueError(new BadScopyArgError(sCopyExpr.expr.getLocation(), "src", sCopyExpr.expr.type.toString()));
+                	issueError(new BadScopyArgError(sCopyExpr.expr.getPosition(), "src", sCopyExpr.expr.type.toString()));
                 	sCopyExpr.type = BaseType.ERROR;
         		}
         	}
         	else {
         		if(!identType.equal(BaseType.ERROR) && !identType.equal(sCopyExpr.expr.type)) {
-        			issueError(new BadScopySrcError(sCopyExpr.getLocation(), identType.toString(), sCopyExpr.expr.type.toString()));
+        			issueError(new BadScopySrcError(sCopyExpr.getPosition(), identType.toString(), sCopyExpr.expr.type.toString()));
         			sCopyExpr.type = BaseType.ERROR;
         		}
         	}
@@ -661,7 +697,7 @@ public class TypeCheck extends Tree.Visitor {
 		ifSubStmt.expr.accept(this);
 		if (!ifSubStmt.expr.type.equal(BaseType.ERROR) && !ifSubStmt.expr.type.equal(BaseType.BOOL))
         {
-            issueError(new BadTestExpr(ifSubStmt.getLocation()));
+            issueError(new BadTestExpr(ifSubStmt.getPosition()));
             ifSubStmt.type = BaseType.ERROR;
         }
 		if (ifSubStmt.stmt != null)
@@ -680,20 +716,20 @@ public class TypeCheck extends Tree.Visitor {
 		newSameArray.expr.accept(this);
 		newSameArray.newsamearray.accept(this);
 		
-    	newSameArray.type = new ArrayType(newSameArray.expr.type);
+    	newSameArray.type = context.getTypes().array(newSameArray.expr.type);
     	if(newSameArray.expr.type.equal(BaseType.VOID))
     	{
-    		issueError(new BadArrElementError(newSameArray.expr.getLocation()));
+    		issueError(new BadArrElementError(newSameArray.expr.getPosition()));
     		newSameArray.type = BaseType.ERROR;
     	}
     	if(newSameArray.expr.type.equal(BaseType.UNKNOWN))
     	{
-    		issueError(new BadArrElementError(newSameArray.expr.getLocation()));
+    		issueError(new BadArrElementError(newSameArray.expr.getPosition()));
     		newSameArray.type = BaseType.ERROR;
     	}
         
     	if(!newSameArray.newsamearray.type.equal(BaseType.ERROR) && !newSameArray.newsamearray.type.equal(BaseType.INT)) {
-    		issueError(new BadArrIndexError(newSameArray.newsamearray.getLocation()));  
+    		issueError(new BadArrIndexError(newSameArray.newsamearray.getPosition()));  
     		newSameArray.type = BaseType.ERROR;
     	}
     }
@@ -703,11 +739,11 @@ public class TypeCheck extends Tree.Visitor {
 		defaultArray.expr2.accept(this);
 		defaultArray.expr3.accept(this);
 		if(!defaultArray.expr2.type.equal(BaseType.ERROR) && !defaultArray.expr2.type.equal(BaseType.INT)) {
-			issueError(new BadArrIndexError(defaultArray.expr2.getLocation()));
+			issueError(new BadArrIndexError(defaultArray.expr2.getPosition()));
 		}
 		if(!defaultArray.expr1.type.equal(BaseType.ERROR) && !defaultArray.expr1.type.isArrayType()) {
 			if(!defaultArray.expr3.type.equal(BaseType.ERROR) && !defaultArray.expr3.type.isArrayType()) {
-				issueError(new BadArrOperArgError(defaultArray.expr1.getLocation()));
+				issueError(new BadArrOperArgError(defaultArray.expr1.getPosition()));
 				defaultArray.type = BaseType.ERROR;
 			}
 			else {
@@ -716,7 +752,7 @@ public class TypeCheck extends Tree.Visitor {
 		}
 		else {
 			if(!((ArrayType)(defaultArray.expr1.type)).getElementType().equal(BaseType.ERROR) && !((ArrayType)(defaultArray.expr1.type)).getElementType().equal(defaultArray.expr3.type)){
-				issueError(new BadDefError(defaultArray.expr2.getLocation(), ((ArrayType)(defaultArray.expr1.type)).getElementType().toString(), defaultArray.expr3.type.toString()));
+				issueError(new BadDefError(defaultArray.expr2.getPosition(), ((ArrayType)(defaultArray.expr1.type)).getElementType().toString(), defaultArray.expr3.type.toString()));
 			}
 			defaultArray.type = ((ArrayType)(defaultArray.expr1.type)).getElementType();
 		}  
@@ -727,7 +763,7 @@ public class TypeCheck extends Tree.Visitor {
 		foreachArray.expr1.accept(this);
 		
 //		table.open(foreachArray.associatedScope);
-//		Symbol sym = new Variable(foreachArray.varbind.name, ((ArrayType)foreachArray.expr1.type).getElementType(), foreachArray.varbind.getLocation());
+//		Symbol sym = new Variable(foreachArray.varbind.name, ((ArrayType)foreachArray.expr1.type).getElementType(), foreachArray.varbind.getPosition());
 //		foreachArray.associatedScope.declare(sym);
 //		table.declare(sym);
 		
@@ -735,12 +771,12 @@ public class TypeCheck extends Tree.Visitor {
 		if(foreachArray.varbind.type.equal(BaseType.UNKNOWN)) {
 			if(!foreachArray.expr1.type.equal(BaseType.ERROR)) {
 				if(!foreachArray.expr1.type.isArrayType()) {
-					issueError(new BadArrOperArgError(foreachArray.expr1.getLocation()));
+					issueError(new BadArrOperArgError(foreachArray.expr1.getPosition()));
 					foreachArray.varbind.type = BaseType.ERROR;
 				}
 				else {
 					table.open(foreachArray.associatedScope);
-					Symbol sym = new Variable(foreachArray.varbind.name, ((ArrayType)foreachArray.expr1.type).getElementType(), foreachArray.varbind.getLocation());
+					Symbol sym = new Variable(foreachArray.varbind.name, ((ArrayType)foreachArray.expr1.type).getElementType(), foreachArray.varbind.getPosition());
 //					foreachArray.associatedScope.declare(sym);
 					table.declare(sym);
 					if(foreachArray.expr2 != null) {
@@ -767,19 +803,19 @@ public class TypeCheck extends Tree.Visitor {
 					foreachArray.expr2.accept(this);
 				}
 				if(!foreachArray.expr2.type.equal(BaseType.ERROR) && !foreachArray.expr2.type.equal(BaseType.BOOL)) {
-					issueError(new BadTestExpr(foreachArray.expr2.getLocation()));
+					issueError(new BadTestExpr(foreachArray.expr2.getPosition()));
 				}
 			}
 		}
 		else {
 			if(!foreachArray.expr1.type.equal(BaseType.ERROR)) {
 				if(!foreachArray.expr1.type.isArrayType()) {
-					issueError(new BadArrOperArgError(foreachArray.expr1.getLocation()));
+					issueError(new BadArrOperArgError(foreachArray.expr1.getPosition()));
 					foreachArray.varbind.type = BaseType.ERROR;
 				}
 				else {
 					table.open(foreachArray.associatedScope);
-					Symbol sym = new Variable(foreachArray.varbind.name, ((ArrayType)foreachArray.expr1.type).getElementType(), foreachArray.varbind.getLocation());
+					Symbol sym = new Variable(foreachArray.varbind.name, ((ArrayType)foreachArray.expr1.type).getElementType(), foreachArray.varbind.getPosition());
 //					foreachArray.associatedScope.declare(sym);
 					table.declare(sym);
 					if(foreachArray.expr2 != null) {
@@ -807,7 +843,7 @@ public class TypeCheck extends Tree.Visitor {
 						table.close();
 					}
 					else {
-						issueError(new BadForeachTypeError(foreachArray.getLocation(), foreachArray.varbind.type.toString(), foreachArray.expr1.type.toString()));	
+						issueError(new BadForeachTypeError(foreachArray.getPosition(), foreachArray.varbind.type.toString(), foreachArray.expr1.type.toString()));	
 					}
 				}	
 			}
@@ -816,7 +852,7 @@ public class TypeCheck extends Tree.Visitor {
 					foreachArray.expr2.accept(this);
 				}
 				if(!foreachArray.expr2.type.equal(BaseType.ERROR) && !foreachArray.expr2.type.equal(BaseType.BOOL)) {
-					issueError(new BadTestExpr(foreachArray.expr2.getLocation()));
+					issueError(new BadTestExpr(foreachArray.expr2.getPosition()));
 				}
 			}
 		}
@@ -834,10 +870,10 @@ public class TypeCheck extends Tree.Visitor {
 	}
 	
 	private void issueError(DecafError error) {
-		Driver.getDriver().issueError(error);
+		context.issueError(error);
 	}
 
-	private Type checkBinaryOp(Tree.Expr left, Tree.Expr right, int op, Location location) {
+	private Type checkBinaryOp(Tree.Expr left, Tree.Expr right, int op, long position) {
 		left.accept(this);
 		right.accept(this);
 
@@ -896,7 +932,7 @@ public class TypeCheck extends Tree.Visitor {
 		}
 
 		if (!compatible) {
-			issueError(new IncompatBinOpError(location, left.type.toString(), Parser.opStr(op), right.type.toString()));
+			issueError(new IncompatBinOpError(position, left.type.toString(), Parser.opStr(op), right.type.toString()));
 		}
 		return returnType;
 	}
@@ -904,7 +940,7 @@ public class TypeCheck extends Tree.Visitor {
 	private void checkTestExpr(Tree.Expr expr) {
 		expr.accept(this);
 		if (!expr.type.equal(BaseType.ERROR) && !expr.type.equal(BaseType.BOOL)) {
-			issueError(new BadTestExpr(expr.getLocation()));
+			issueError(new BadTestExpr(expr.getPosition()));
 		}
 	}
 
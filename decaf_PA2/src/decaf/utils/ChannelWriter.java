@@ -0,0 +1,155 @@
+package decaf.utils;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * 把字符编码到一个大的字节缓冲区中，缓冲区满或者flush时才一次写到通道<br>
+ * 编码方式与OutputStreamWriter相同（缺省字符集，不能编码的字符替换掉），所以输出的字节完全相同。
+ * 输出到文件时直接使用文件的FileChannel，用大的缓冲区；其他的输出流（内存中的输出、
+ * 已经带缓冲的标准输出）只用小的缓冲区，编译大量小程序时不必为每次编译分配大块内存。
+ */
+public final class ChannelWriter extends Writer {
+
+	/**
+	 * 输出到文件时字节缓冲区的大小
+	 */
+	private static final int FILE_BYTES = 1 << 18;
+
+	/**
+	 * 输出到其他流时字节缓冲区的大小
+	 */
+	private static final int STREAM_BYTES = 1 << 13;
+
+	private OutputStream out;
+
+	/**
+	 * out的FileChannel，out不是FileOutputStream时为null，直接写到out
+	 */
+	private FileChannel channel;
+
+	private CharsetEncoder encoder = Charset.defaultCharset().newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+	private char[] chars;
+
+	private CharBuffer charBuffer;
+
+	private ByteBuffer bytes;
+
+	private boolean closed;
+
+	/**
+	 * @param out
+	 *            输出的字节流，是FileOutputStream时通过它的FileChannel写
+	 */
+	public ChannelWriter(OutputStream out) {
+		this.out = out;
+		int size = STREAM_BYTES;
+		if (out instanceof FileOutputStream) {
+			channel = ((FileOutputStream) out).getChannel();
+			size = FILE_BYTES;
+		}
+		bytes = ByteBuffer.allocate(size);
+		// chars are encoded in batches much smaller than the byte buffer
+		chars = new char[size / 16];
+		charBuffer = CharBuffer.wrap(chars);
+	}
+
+	@Override
+	public void write(char[] buf, int off, int len) throws IOException {
+		while (len > 0) {
+			int n = Math.min(len, charBuffer.remaining());
+			charBuffer.put(buf, off, n);
+			off += n;
+			len -= n;
+			if (!charBuffer.hasRemaining()) {
+				encode(false);
+			}
+		}
+	}
+
+	@Override
+	public void write(String s, int off, int len) throws IOException {
+		while (len > 0) {
+			int n = Math.min(len, charBuffer.remaining());
+			int p = charBuffer.position();
+			s.getChars(off, off + n, chars, p);
+			charBuffer.position(p + n);
+			off += n;
+			len -= n;
+			if (!charBuffer.hasRemaining()) {
+				encode(false);
+			}
+		}
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		charBuffer.put((char) c);
+		if (!charBuffer.hasRemaining()) {
+			encode(false);
+		}
+	}
+
+	/**
+	 * 把已经写入的字符编码到字节缓冲区，末尾不完整的代理对留到下一次
+	 */
+	private void encode(boolean endOfInput) throws IOException {
+		charBuffer.flip();
+		while (encoder.encode(charBuffer, bytes, endOfInput).isOverflow()) {
+			drain();
+		}
+		charBuffer.compact();
+	}
+
+	private void drain() throws IOException {
+		bytes.flip();
+		if (channel == null) {
+			out.write(bytes.array(), 0, bytes.limit());
+		} else {
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+		}
+		bytes.clear();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (closed) {
+			return;
+		}
+		encode(false);
+		drain();
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		encode(true);
+		CoderResult r;
+		while ((r = encoder.flush(bytes)).isOverflow()) {
+			drain();
+		}
+		if (r.isError()) {
+			r.throwException();
+		}
+		drain();
+		closed = true;
+		out.close();
+	}
+}
@@ -0,0 +1,126 @@
+package decaf.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * 编译过程中创建的各类对象的计数器，供-stats统计使用<br>
+ * 计数按线程分开保存，只有打开统计后才会计数。快照中还带有线程用掉的CPU时间和分配的内存，
+ * 辅助线程（并行检查、词法分析线程）把自己的增量用add交给发起它们的线程，
+ * 所以一个阶段的统计包括它用到的全部线程。
+ */
+public final class Counters {
+
+	public static final int TOKEN = 0;
+
+	public static final int TREE = 1;
+
+	public static final int SYMBOL = 2;
+
+	public static final int SCOPE = 3;
+
+	public static final int TYPE = 4;
+
+	public static final String[] NAMES = { "tokens", "trees", "symbols",
+			"scopes", "types" };
+
+	/**
+	 * 快照中CPU时间（纳秒）的下标，不在NAMES中
+	 */
+	public static final int CPU_TIME = 5;
+
+	/**
+	 * 快照中分配字节数的下标，不在NAMES中
+	 */
+	public static final int ALLOCATED = 6;
+
+	/**
+	 * 快照的长度
+	 */
+	public static final int SIZE = 7;
+
+	private static final ThreadMXBean threads = ManagementFactory
+			.getThreadMXBean();
+
+	private static volatile boolean enabled;
+
+	private static final ThreadLocal<long[]> counts = new ThreadLocal<long[]>() {
+
+		@Override
+		protected long[] initialValue() {
+			return new long[SIZE];
+		}
+
+	};
+
+	private Counters() {
+	}
+
+	public static void enable() {
+		enabled = true;
+	}
+
+	/**
+	 * 当前线程创建了一个kind类的对象
+	 */
+	public static void count(int kind) {
+		if (enabled) {
+			counts.get()[kind]++;
+		}
+	}
+
+	/**
+	 * 把其他线程替当前线程做的工作（since的结果）计入当前线程
+	 */
+	public static void add(long[] delta) {
+		if (enabled) {
+			long[] c = counts.get();
+			for (int i = 0; i < c.length; i++) {
+				c[i] += delta[i];
+			}
+		}
+	}
+
+	/**
+	 * @return 当前线程到目前为止的各项计数，以及CPU时间和分配的字节数（都包括add计入的部分）
+	 */
+	public static long[] snapshot() {
+		long[] c = counts.get().clone();
+		if (enabled) {
+			c[CPU_TIME] += cpuTime();
+			c[ALLOCATED] += allocatedBytes();
+		}
+		return c;
+	}
+
+	/**
+	 * @return 从快照before到现在的增量
+	 */
+	public static long[] since(long[] before) {
+		long[] delta = snapshot();
+		for (int i = 0; i < delta.length; i++) {
+			delta[i] -= before[i];
+		}
+		return delta;
+	}
+
+	/**
+	 * @return 能否统计分配的字节数
+	 */
+	public static boolean isAllocationSupported() {
+		return threads instanceof com.sun.management.ThreadMXBean;
+	}
+
+	private static long cpuTime() {
+		return threads.isCurrentThreadCpuTimeSupported() ? threads
+				.getCurrentThreadCpuTime() : 0;
+	}
+
+	private static long allocatedBytes() {
+		if (isAllocationSupported()) {
+			return ((com.sun.management.ThreadMXBean) threads)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+}
@@ -1,13 +1,15 @@
 package decaf.utils;
 
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Writer;
+import java.util.Arrays;
 
 /**
  * 用于缩进输出的类<br>
  * 使用时注意不要自行输出"\r\n"或"\n"进行换行，而要使用该类的println系列函数进行换行<br>
+ * 缩进用的空格保存在一个字符数组中，每行开头直接写出它的前一段；
+ * 输出到字节流时经过ChannelWriter编码和缓冲。<br>
  * 
  *   
  * 
@@ -15,7 +17,12 @@ import java.io.Writer;
 public class IndentPrintWriter extends PrintWriter {
 	private int step;
 
-	private StringBuilder indent;
+	private char[] spaces = new char[64];
+
+	/**
+	 * 当前缩进的空格数
+	 */
+	private int indent;
 
 	private boolean newLineBegin;
 
@@ -26,7 +33,7 @@ public class IndentPrintWriter extends PrintWriter {
 	 *            每次缩进变化的空格数
 	 */
 	public IndentPrintWriter(OutputStream out, int step) {
-		this(new OutputStreamWriter(out), step);
+		this(new ChannelWriter(out), step);
 	}
 
 	/**
@@ -38,7 +45,7 @@ public class IndentPrintWriter extends PrintWriter {
 	public IndentPrintWriter(Writer out, int step) {
 		super(out);
 		this.step = step;
-		indent = new StringBuilder();
+		Arrays.fill(spaces, ' ');
 		newLineBegin = true;
 	}
 
@@ -46,8 +53,10 @@ public class IndentPrintWriter extends PrintWriter {
 	 * 增加缩进
 	 */
 	public void incIndent() {
-		for (int i = 0; i < step; i++) {
-			indent.append(" ");
+		indent += step;
+		if (indent > spaces.length) {
+			spaces = new char[Math.max(indent, spaces.length * 2)];
+			Arrays.fill(spaces, ' ');
 		}
 	}
 
@@ -55,7 +64,7 @@ public class IndentPrintWriter extends PrintWriter {
 	 * 减少缩进
 	 */
 	public void decIndent() {
-		indent.setLength(indent.length() - step);
+		indent -= step;
 	}
 
 	@Override
@@ -67,7 +76,7 @@ public class IndentPrintWriter extends PrintWriter {
 	private void writeIndent() {
 		if (newLineBegin) {
 			newLineBegin = false;
-			print(indent);
+			super.write(spaces, 0, indent);
 		}
 	}
 
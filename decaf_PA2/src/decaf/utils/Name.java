@@ -0,0 +1,48 @@
+package decaf.utils;
+
+/**
+ * 标识符的名字<br>
+ * 同一次编译中相同的名字只有一个Name对象（见Names），所以名字之间直接用==比较，
+ * 作为散列表的键时也只按对象本身比较。散列值与对应字符串的散列值相同。
+ */
+public final class Name {
+
+	/**
+	 * 预先定义的名字，每个名字表中都有
+	 */
+	public static final Name THIS = new Name("this");
+
+	public static final Name LENGTH = new Name("length");
+
+	/**
+	 * 类型错误的变量的名字，不是合法的标识符
+	 */
+	public static final Name ERROR = new Name(".error");
+
+	private final String string;
+
+	private final int hash;
+
+	Name(String string) {
+		this.string = string;
+		this.hash = string.hashCode();
+	}
+
+	public int length() {
+		return string.length();
+	}
+
+	public char charAt(int index) {
+		return string.charAt(index);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return string;
+	}
+}
@@ -0,0 +1,92 @@
+package decaf.utils;
+
+/**
+ * 一次编译使用的名字表<br>
+ * 词法分析器直接用缓冲区中的字符查找名字，名字已经存在时不创建任何对象；
+ * 每个不同的名字只创建一个Name和一个字符串。表是开放寻址的散列表，不是线程安全的，
+ * 只在词法分析和符号表构造的顺序部分中添加名字。
+ */
+public final class Names {
+
+	private static final Name[] PREDEFINED = { Name.THIS, Name.LENGTH,
+			Name.ERROR };
+
+	private Name[] table = new Name[1024];
+
+	private int size;
+
+	public Names() {
+		for (Name name : PREDEFINED) {
+			put(name);
+		}
+	}
+
+	/**
+	 * 取得chars[start, start+length)对应的名字
+	 */
+	public Name fromChars(char[] chars, int start, int length) {
+		int hash = 0;
+		for (int i = 0; i < length; i++) {
+			hash = 31 * hash + chars[start + i];
+		}
+		int mask = table.length - 1;
+		for (int i = hash & mask;; i = (i + 1) & mask) {
+			Name name = table[i];
+			if (name == null) {
+				return put(new Name(new String(chars, start, length)));
+			}
+			if (name.hashCode() == hash && matches(name, chars, start, length)) {
+				return name;
+			}
+		}
+	}
+
+	public Name fromString(String s) {
+		int mask = table.length - 1;
+		for (int i = s.hashCode() & mask;; i = (i + 1) & mask) {
+			Name name = table[i];
+			if (name == null) {
+				return put(new Name(s));
+			}
+			if (name.toString().equals(s)) {
+				return name;
+			}
+		}
+	}
+
+	private static boolean matches(Name name, char[] chars, int start,
+			int length) {
+		if (name.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (name.charAt(i) != chars[start + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Name put(Name name) {
+		if (++size * 2 > table.length) {
+			Name[] old = table;
+			table = new Name[old.length * 2];
+			for (Name n : old) {
+				if (n != null) {
+					insert(n);
+				}
+			}
+		}
+		insert(name);
+		return name;
+	}
+
+	private void insert(Name name) {
+		int mask = table.length - 1;
+		int i = name.hashCode() & mask;
+		while (table[i] != null) {
+			i = (i + 1) & mask;
+		}
+		table[i] = name;
+	}
+}